@@ -0,0 +1,107 @@
+package com.toolstore.demo.benchmark;
+
+import com.toolstore.demo.dto.RevenueReport;
+import com.toolstore.demo.model.RentalAgreement;
+import com.toolstore.demo.repository.AgreementStore;
+import com.toolstore.demo.service.AgreementAnalytics;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// A year's revenue report over two million stored agreements: rolled up from scratch on one thread, rolled up
+// from scratch with fork-join, and again once the roll-up exists and a thousand agreements were added since
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyticsBenchmark {
+
+    private static final int AGREEMENTS = 2_000_000;
+    private static final int ADDED = 1_000;
+    private static final String[][] TOOLS = {{"CHNS", "CHAINSAW", "Stihl"}, {"LADW", "LADDER", "Werner"},
+            {"JAKD", "JACKHAMMER", "DeWalt"}, {"JAKR", "JACKHAMMER", "Ridgid"}};
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 12, 31);
+
+    private AgreementStore store;
+    private RentalAgreement[] added;
+    private AgreementStore incrementalStore;
+    private AgreementAnalytics incremental;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(25);
+        store = AgreementStore.open(1 << 16, AGREEMENTS);
+        for (int i = 0; i < AGREEMENTS; i++) {
+            store.append(agreement(random));
+        }
+        added = new RentalAgreement[ADDED];
+        for (int i = 0; i < ADDED; i++) {
+            added[i] = agreement(random);
+        }
+    }
+
+    // A store with the history already rolled up, ADDED agreements short of the next report
+    @Setup(Level.Iteration)
+    public void setUpIncremental() {
+        if (incrementalStore != null) {
+            incrementalStore.close();
+        }
+        incrementalStore = AgreementStore.open(1 << 16, Integer.MAX_VALUE);
+        store.forEach(view -> incrementalStore.append(view.toAgreement()));
+        incremental = new AgreementAnalytics(incrementalStore, 1 << 16);
+        incremental.report(FROM, TO);
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+        incrementalStore.close();
+    }
+
+    @Benchmark
+    public RevenueReport serial() {
+        return new AgreementAnalytics(store, Integer.MAX_VALUE).report(FROM, TO);
+    }
+
+    @Benchmark
+    public RevenueReport forkJoin() {
+        return new AgreementAnalytics(store, 1 << 16).report(FROM, TO);
+    }
+
+    @Benchmark
+    public RevenueReport incremental() {
+        for (RentalAgreement agreement : added) {
+            incrementalStore.append(agreement);
+        }
+        return incremental.report(FROM, TO);
+    }
+
+    private static RentalAgreement agreement(Random random) {
+        String[] tool = TOOLS[random.nextInt(TOOLS.length)];
+        int rentalDays = 1 + random.nextInt(14);
+        int chargeDays = 1 + random.nextInt(rentalDays);
+        long preDiscountCents = 199L * chargeDays;
+        long discountCents = preDiscountCents * random.nextInt(4) / 10;
+        LocalDate checkoutDate = FROM.plusDays(random.nextInt(365));
+        return RentalAgreement.builder()
+                .toolCode(tool[0])
+                .toolType(tool[1])
+                .toolBrand(tool[2])
+                .rentalDays(rentalDays)
+                .checkoutDate(checkoutDate)
+                .dueDate(checkoutDate.plusDays(rentalDays))
+                .dailyRentalCharge(new BigDecimal("1.99"))
+                .chargeDays(chargeDays)
+                .preDiscountCharge(BigDecimal.valueOf(preDiscountCents, 2))
+                .discountPercent(0)
+                .discountAmount(BigDecimal.valueOf(discountCents, 2))
+                .finalCharge(BigDecimal.valueOf(preDiscountCents - discountCents, 2))
+                .build();
+    }
+}
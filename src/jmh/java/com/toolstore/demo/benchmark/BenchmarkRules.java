@@ -0,0 +1,37 @@
+package com.toolstore.demo.benchmark;
+
+import com.toolstore.demo.model.ToolType;
+import com.toolstore.demo.service.PricingRules;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Pricing rules the pricing benchmarks run against: the bundled specification's, and the same tool types with a
+// summer season, a winter season that wraps around the new year, a Saturday surcharge and a minimum charge, so
+// every table RateTable builds is in use
+public enum BenchmarkRules {
+    DEFAULT,
+    SEASONAL;
+
+    public PricingRules rules() {
+        PricingRules defaults = PricingRules.defaults();
+        if (this == DEFAULT) {
+            return defaults;
+        }
+
+        Map<ToolType, PricingRules.ToolRules> toolTypes = new EnumMap<>(ToolType.class);
+        defaults.toolTypes().forEach((toolType, rules) -> toolTypes.put(toolType, new PricingRules.ToolRules(
+                rules.dailyCharge(), rules.chargeWeekdays(), rules.chargeWeekends(), rules.chargeHolidays(),
+                Map.of("summer", rules.dailyCharge().add(BigDecimal.ONE),
+                        "winter", rules.dailyCharge().subtract(new BigDecimal("0.50"))),
+                Map.of(DayOfWeek.SATURDAY, new BigDecimal("1.25")),
+                new BigDecimal("5.00"))));
+        return new PricingRules("benchmark-seasonal",
+                List.of(new PricingRules.Season("summer", "06-01", "08-31"),
+                        new PricingRules.Season("winter", "12-01", "02-28")),
+                toolTypes);
+    }
+}
@@ -0,0 +1,62 @@
+package com.toolstore.demo.benchmark;
+
+import com.toolstore.demo.model.PriceQuote;
+import com.toolstore.demo.model.ToolType;
+import com.toolstore.demo.service.HolidayCalendars;
+import com.toolstore.demo.service.PricingEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// PricingEngine.quote, the pricing checkouts go through, for short and long rentals, with and without July 4th and
+// Labor Day in the range, across a season boundary and over several years. RateTable answers every range from
+// prefix sums, so the long and multi-year ranges should cost about the same as the short ones.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChargeDaysBenchmark {
+
+    public enum Range {
+        SHORT(LocalDate.of(2020, 6, 1), 5),
+        SHORT_JULY_4TH(LocalDate.of(2020, 7, 2), 5),
+        SHORT_LABOR_DAY(LocalDate.of(2020, 9, 3), 5),
+        SHORT_SEASON_END(LocalDate.of(2020, 8, 29), 5),
+        LONG(LocalDate.of(2020, 9, 10), 200),
+        LONG_BOTH_HOLIDAYS(LocalDate.of(2020, 6, 1), 400),
+        MULTI_YEAR(LocalDate.of(2020, 6, 1), 2_000);
+
+        private final LocalDate start;
+        private final LocalDate end;
+
+        Range(LocalDate start, int days) {
+            this.start = start;
+            this.end = start.plusDays(days - 1);
+        }
+    }
+
+    @Param({"SHORT", "SHORT_JULY_4TH", "SHORT_LABOR_DAY", "SHORT_SEASON_END", "LONG", "LONG_BOTH_HOLIDAYS",
+            "MULTI_YEAR"})
+    private Range range;
+
+    @Param({"LADDER", "JACKHAMMER"})
+    private ToolType toolType;
+
+    @Param({"DEFAULT", "SEASONAL"})
+    private BenchmarkRules rules;
+
+    private PricingEngine pricingEngine;
+
+    @Setup
+    public void setUp() {
+        pricingEngine = new PricingEngine(HolidayCalendars.defaults(), rules.rules());
+    }
+
+    @Benchmark
+    public PriceQuote quote() {
+        return pricingEngine.quote(toolType, range.start, range.end, 0);
+    }
+}
@@ -0,0 +1,56 @@
+package com.toolstore.demo.benchmark;
+
+import com.toolstore.demo.metrics.CheckoutMetrics;
+import com.toolstore.demo.model.RentalAgreement;
+import com.toolstore.demo.repository.AgreementJournal;
+import com.toolstore.demo.repository.AgreementStore;
+import com.toolstore.demo.repository.ToolRepository;
+import com.toolstore.demo.service.HolidayCalendars;
+import com.toolstore.demo.service.CheckoutService;
+import com.toolstore.demo.service.PricingEngine;
+import com.toolstore.demo.service.QuoteCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// CheckoutService.checkout end to end: validation, reservation, pricing, agreement and metrics, journal disabled.
+// Each checkout is returned again in the same invocation so the tool stays bookable, the return is a small
+// calendar removal next to the checkout. With cachedQuotes=false every checkout counts its charge days.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    private static final LocalDate CHECKOUT_DATE = LocalDate.of(2020, 7, 2);
+
+    @Param({"true", "false"})
+    private boolean cachedQuotes;
+
+    @Param({"LADW", "JAKR"})
+    private String toolCode;
+
+    @Param({"5", "60"})
+    private int rentalDayCount;
+
+    private CheckoutService checkoutService;
+
+    @Setup
+    public void setUp() {
+        QuoteCache quoteCache = new QuoteCache(cachedQuotes ? 10_000 : 0, Duration.ofMinutes(10));
+        checkoutService = new CheckoutService(new ToolRepository(),
+                PricingEngine.withDefaultRules(HolidayCalendars.defaults()), quoteCache,
+                AgreementJournal.disabled(), AgreementStore.disabled(), new CheckoutMetrics());
+    }
+
+    @Benchmark
+    public RentalAgreement checkout() {
+        RentalAgreement agreement = checkoutService.checkout(toolCode, rentalDayCount, 10, CHECKOUT_DATE);
+        checkoutService.returnTool(toolCode, CHECKOUT_DATE);
+        return agreement;
+    }
+}
@@ -0,0 +1,72 @@
+package com.toolstore.demo.benchmark;
+
+import com.toolstore.demo.codec.CheckoutJsonCodec;
+import com.toolstore.demo.dto.CheckoutRequest;
+import com.toolstore.demo.model.RentalAgreement;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// Reading the checkout request and writing the agreement with the default Jackson mapper versus CheckoutJsonCodec
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final CheckoutJsonCodec codec = new CheckoutJsonCodec();
+
+    private final byte[] request =
+            "{\"toolCode\":\"LADW\",\"rentalDayCount\":3,\"discountPercent\":10,\"checkoutDate\":\"07/02/20\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final RentalAgreement agreement = RentalAgreement.builder()
+            .toolCode("LADW")
+            .toolType("LADDER")
+            .toolBrand("Werner")
+            .rentalDays(3)
+            .checkoutDate(LocalDate.of(2020, 7, 2))
+            .dueDate(LocalDate.of(2020, 7, 5))
+            .dailyRentalCharge(new BigDecimal("1.99"))
+            .chargeDays(2)
+            .preDiscountCharge(new BigDecimal("3.98"))
+            .discountPercent(10)
+            .discountAmount(new BigDecimal("0.40"))
+            .finalCharge(new BigDecimal("3.58"))
+            .build();
+
+    // Stands in for the response stream
+    private final ByteArrayOutputStream response = new ByteArrayOutputStream(512);
+
+    @Benchmark
+    public CheckoutRequest readJackson() {
+        return jsonMapper.readValue(request, CheckoutRequest.class);
+    }
+
+    @Benchmark
+    public CheckoutRequest readCodec() {
+        return CheckoutJsonCodec.readRequest(request, request.length);
+    }
+
+    @Benchmark
+    public int writeJackson() {
+        response.reset();
+        jsonMapper.writeValue(response, agreement);
+        return response.size();
+    }
+
+    @Benchmark
+    public int writeCodec() {
+        response.reset();
+        response.write(codec.buffer(), 0, codec.writeAgreement(agreement));
+        return response.size();
+    }
+}
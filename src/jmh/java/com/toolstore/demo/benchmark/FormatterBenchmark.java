@@ -0,0 +1,95 @@
+package com.toolstore.demo.benchmark;
+
+import com.toolstore.demo.model.RentalAgreement;
+import com.toolstore.demo.view.RentalAgreementFormatter;
+import com.toolstore.demo.view.RentalAgreementFormatter.Format;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Eight threads rendering agreements at once. The legacy baseline is the previous string concatenation,
+// locking the shared NumberFormat since that was the only safe way to call it concurrently
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class FormatterBenchmark {
+
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("MM/dd/yy");
+    private static final NumberFormat CURRENCY_FMT = NumberFormat.getCurrencyInstance(Locale.US);
+
+    private final RentalAgreement agreement = RentalAgreement.builder()
+            .toolCode("LADW")
+            .toolType("LADDER")
+            .toolBrand("Werner")
+            .rentalDays(3)
+            .checkoutDate(LocalDate.of(2020, 7, 2))
+            .dueDate(LocalDate.of(2020, 7, 5))
+            .dailyRentalCharge(new BigDecimal("1.99"))
+            .chargeDays(2)
+            .preDiscountCharge(new BigDecimal("3.98"))
+            .discountPercent(10)
+            .discountAmount(new BigDecimal("0.40"))
+            .finalCharge(new BigDecimal("3.58"))
+            .build();
+
+    // Each thread appends into its own reused builder, the way a caller batching receipts would
+    @State(Scope.Thread)
+    public static class Output {
+        final StringBuilder builder = new StringBuilder(1024);
+    }
+
+    @Benchmark
+    public String legacyText() {
+        synchronized (CURRENCY_FMT) {
+            return String.join("\n",
+                    "Tool code: " + agreement.getToolCode(),
+                    "Tool type: " + agreement.getToolType(),
+                    "Tool brand: " + agreement.getToolBrand(),
+                    "Rental days: " + agreement.getRentalDays(),
+                    "Check out date: " + agreement.getCheckoutDate().format(DATE_FMT),
+                    "Due date: " + agreement.getDueDate().format(DATE_FMT),
+                    "Daily rental charge: " + CURRENCY_FMT.format(agreement.getDailyRentalCharge()),
+                    "Charge days: " + agreement.getChargeDays(),
+                    "Pre-discount charge: " + CURRENCY_FMT.format(agreement.getPreDiscountCharge()),
+                    "Discount percent: " + agreement.getDiscountPercent() + "%",
+                    "Discount amount: " + CURRENCY_FMT.format(agreement.getDiscountAmount()),
+                    "Final charge: " + CURRENCY_FMT.format(agreement.getFinalCharge())
+            );
+        }
+    }
+
+    @Benchmark
+    public String text() {
+        return RentalAgreementFormatter.format(agreement);
+    }
+
+    @Benchmark
+    public int textIntoBuilder(Output output) throws Exception {
+        output.builder.setLength(0);
+        RentalAgreementFormatter.render(agreement, Format.TEXT, output.builder);
+        return output.builder.length();
+    }
+
+    @Benchmark
+    public int csvIntoBuilder(Output output) throws Exception {
+        output.builder.setLength(0);
+        RentalAgreementFormatter.render(agreement, Format.CSV, output.builder);
+        return output.builder.length();
+    }
+
+    @Benchmark
+    public int receiptIntoBuilder(Output output) throws Exception {
+        output.builder.setLength(0);
+        RentalAgreementFormatter.render(agreement, Format.RECEIPT, output.builder);
+        return output.builder.length();
+    }
+}
@@ -0,0 +1,82 @@
+package com.toolstore.demo.benchmark;
+
+import com.toolstore.demo.model.Tool;
+import com.toolstore.demo.model.ToolType;
+import com.toolstore.demo.repository.ReservationCalendar;
+import com.toolstore.demo.repository.ToolRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Reserve/release throughput as threads are added, run with e.g. -Pjmh.args="-t 4"
+// ownTool should scale with the thread count, sharedTool shows the cost of every thread hitting one tool.
+// Every calendar is pre-filled with bookings so lookups run against a realistic tree depth.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryBenchmark {
+
+    private static final int TOOL_COUNT = 256;
+    private static final LocalDate FIRST_BOOKING = LocalDate.of(2020, 1, 1);
+
+    @Param({"1000"})
+    private int bookingsPerTool;
+
+    private ToolRepository toolRepository;
+    private LocalDate freeStart;
+    private final AtomicInteger nextTool = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        List<Tool> tools = new ArrayList<>();
+        for (int i = 0; i < TOOL_COUNT; i++) {
+            tools.add(new Tool("T" + i, ToolType.LADDER, "Werner"));
+        }
+        toolRepository = new ToolRepository(tools);
+
+        // Three day bookings with a one day gap between them
+        for (Tool tool : tools) {
+            for (int i = 0; i < bookingsPerTool; i++) {
+                LocalDate start = FIRST_BOOKING.plusDays(i * 4L);
+                toolRepository.reserve(tool.code(), start, start.plusDays(3));
+            }
+        }
+        freeStart = FIRST_BOOKING.plusDays(bookingsPerTool * 4L);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadTool {
+
+        private String code;
+
+        @Setup
+        public void setUp(InventoryBenchmark benchmark) {
+            code = "T" + benchmark.nextTool.getAndIncrement() % TOOL_COUNT;
+        }
+    }
+
+    @Benchmark
+    public boolean ownTool(ThreadTool threadTool) {
+        return toolRepository.reserve(threadTool.code, freeStart, freeStart.plusDays(3))
+                && toolRepository.release(threadTool.code, freeStart);
+    }
+
+    @Benchmark
+    public boolean sharedTool() {
+        return toolRepository.reserve("T0", freeStart, freeStart.plusDays(3))
+                && toolRepository.release("T0", freeStart);
+    }
+
+    @Benchmark
+    public LocalDate nextAvailableStart(ThreadTool threadTool) {
+        ReservationCalendar calendar = toolRepository.findCalendar(threadTool.code).orElseThrow();
+        return calendar.nextAvailableStart(FIRST_BOOKING.plusDays(bookingsPerTool * 2L), 1);
+    }
+}
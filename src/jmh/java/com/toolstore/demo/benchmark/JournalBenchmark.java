@@ -0,0 +1,62 @@
+package com.toolstore.demo.benchmark;
+
+import com.toolstore.demo.model.RentalAgreement;
+import com.toolstore.demo.repository.AgreementJournal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// Durable appends per second from 16 concurrent checkouts, with one fsync per record versus one per batch
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(16)
+@Fork(1)
+public class JournalBenchmark {
+
+    @Param({"true", "false"})
+    private boolean groupCommit;
+
+    private Path directory;
+    private AgreementJournal journal;
+
+    private final RentalAgreement agreement = RentalAgreement.builder()
+            .toolCode("LADW")
+            .toolType("LADDER")
+            .toolBrand("Werner")
+            .rentalDays(3)
+            .checkoutDate(LocalDate.of(2020, 7, 2))
+            .dueDate(LocalDate.of(2020, 7, 5))
+            .dailyRentalCharge(new BigDecimal("1.99"))
+            .chargeDays(2)
+            .preDiscountCharge(new BigDecimal("3.98"))
+            .discountPercent(10)
+            .discountAmount(new BigDecimal("0.40"))
+            .finalCharge(new BigDecimal("3.58"))
+            .build();
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        journal = AgreementJournal.open(directory.resolve("agreements.journal"), groupCommit, 256);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        Files.deleteIfExists(directory.resolve("agreements.journal"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void appendCheckout() {
+        journal.appendCheckout(agreement);
+    }
+}
@@ -0,0 +1,66 @@
+package com.toolstore.demo.benchmark;
+
+import com.toolstore.demo.model.PriceQuote;
+import com.toolstore.demo.model.ToolType;
+import com.toolstore.demo.service.HolidayCalendars;
+import com.toolstore.demo.service.PricingEngine;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// A checkout's pricing as CheckoutService does it on a quote cache miss: PricingEngine.quote with a discount, and
+// that plus the BigDecimal amounts a RentalAgreement carries
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    private static final LocalDate CHECKOUT_DATE = LocalDate.of(2020, 7, 2);
+
+    @Param({"JACKHAMMER", "LADDER"})
+    private ToolType toolType;
+
+    @Param({"5", "400"})
+    private int rentalDays;
+
+    @Param({"0", "25"})
+    private int discountPercent;
+
+    @Param({"DEFAULT", "SEASONAL"})
+    private BenchmarkRules rules;
+
+    private PricingEngine pricingEngine;
+    private LocalDate firstDay;
+    private LocalDate lastDay;
+
+    @Setup
+    public void setUp() {
+        pricingEngine = new PricingEngine(HolidayCalendars.defaults(), rules.rules());
+        firstDay = CHECKOUT_DATE.plusDays(1);
+        lastDay = CHECKOUT_DATE.plusDays(rentalDays);
+    }
+
+    @Benchmark
+    public void quote(Blackhole blackhole) {
+        PriceQuote quote = pricingEngine.quote(toolType, firstDay, lastDay, discountPercent);
+
+        blackhole.consume(quote.preDiscountCents());
+        blackhole.consume(quote.discountCents());
+        blackhole.consume(quote.finalCents());
+    }
+
+    @Benchmark
+    public void quoteToAgreementMoney(Blackhole blackhole) {
+        PriceQuote quote = pricingEngine.quote(toolType, firstDay, lastDay, discountPercent);
+
+        blackhole.consume(BigDecimal.valueOf(quote.preDiscountCents(), 2));
+        blackhole.consume(BigDecimal.valueOf(quote.discountCents(), 2));
+        blackhole.consume(BigDecimal.valueOf(quote.finalCents(), 2));
+    }
+}
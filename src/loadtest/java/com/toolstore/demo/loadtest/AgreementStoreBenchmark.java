@@ -0,0 +1,210 @@
+package com.toolstore.demo.loadtest;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.toolstore.demo.model.RentalAgreement;
+import com.toolstore.demo.model.Tool;
+import com.toolstore.demo.model.ToolType;
+import com.toolstore.demo.repository.AgreementStore;
+import com.toolstore.demo.service.PricingRules;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Heap and GC cost of keeping agreements resident, as a List<RentalAgreement> versus the off-heap AgreementStore.
+// Each layout is measured in its own JVM with the same heap and collector: the heap still in use after a full GC,
+// the off-heap bytes, how long a full GC takes with the agreements live, and the pauses of a fixed amount of
+// short-lived allocation afterwards, which is what request handling does to a heap that holds the history.
+//
+// ./gradlew agreementStoreBenchmark -Pstore.args="agreements=5000000 heap=4g churn=20000000"
+public class AgreementStoreBenchmark {
+
+    private static final List<Tool> TOOLS = List.of(
+            new Tool("CHNS", ToolType.CHAINSAW, "Stihl"),
+            new Tool("LADW", ToolType.LADDER, "Werner"),
+            new Tool("JAKD", ToolType.JACKHAMMER, "DeWalt"),
+            new Tool("JAKR", ToolType.JACKHAMMER, "Ridgid"));
+    private static final LocalDate FIRST_CHECKOUT = LocalDate.of(2024, 1, 1);
+    private static final Map<ToolType, Long> DAILY_CHARGE_CENTS = new EnumMap<>(ToolType.class);
+
+    static {
+        PricingRules.defaults().toolTypes().forEach((toolType, rules) ->
+                DAILY_CHARGE_CENTS.put(toolType, rules.dailyCharge().movePointRight(2).longValueExact()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        int agreements = 2_000_000;
+        long churn = 10_000_000;
+        String heap = "2g";
+        String layout = null;
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Expected name=value: " + arg);
+            }
+            switch (option[0]) {
+                case "agreements" -> agreements = Integer.parseInt(option[1]);
+                case "churn" -> churn = Long.parseLong(option[1]);
+                case "heap" -> heap = option[1];
+                case "layout" -> layout = option[1];
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        if (layout != null) {
+            System.out.println(measure(layout, agreements, churn));
+            return;
+        }
+
+        System.out.printf("%,d agreements, %,d short-lived agreements of churn, -Xmx%s%n%n", agreements, churn, heap);
+        System.out.printf("%-6s %12s %12s %12s %12s %12s %12s%n", "layout", "heap MB", "off-heap MB",
+                "full gc ms", "gc pauses", "pause ms", "max pause ms");
+        for (String each : List.of("list", "store")) {
+            String[] result = run(each, agreements, churn, heap).split(" ");
+            System.out.printf("%-6s %12s %12s %12s %12s %12s %12s%n", each,
+                    result[0], result[1], result[2], result[3], result[4], result[5]);
+        }
+    }
+
+    // Same JVM, classpath and flags as this one apart from the heap size
+    private static String run(String layout, int agreements, long churn, String heap)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                .filter(arg -> !arg.startsWith("-Xmx") && !arg.startsWith("-Xms"))
+                .forEach(command::add);
+        command.addAll(List.of("-Xmx" + heap, "-Xms" + heap, "-XX:+UseG1GC",
+                "-cp", System.getProperty("java.class.path"), AgreementStoreBenchmark.class.getName(),
+                "layout=" + layout, "agreements=" + agreements, "churn=" + churn));
+
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        String last = null;
+        try (BufferedReader out = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line = out.readLine(); line != null; line = out.readLine()) {
+                last = line;
+            }
+        }
+        if (process.waitFor() != 0 || last == null) {
+            throw new IllegalStateException("Measuring " + layout + " failed with exit code " + process.exitValue());
+        }
+        return last;
+    }
+
+    // heap MB, off-heap MB, full GC ms, pause count, total pause ms and max pause ms, separated by spaces
+    private static String measure(String layout, int agreements, long churn) {
+        Random random = new Random(23);
+        List<RentalAgreement> list = layout.equals("list") ? new ArrayList<>(agreements) : null;
+        AgreementStore store = layout.equals("store") ? AgreementStore.open(1 << 16, agreements) : null;
+        if (list == null && store == null) {
+            throw new IllegalArgumentException("Unknown layout: " + layout);
+        }
+
+        for (int i = 0; i < agreements; i++) {
+            RentalAgreement agreement = agreement(random);
+            if (list != null) {
+                list.add(agreement);
+            } else {
+                store.append(agreement);
+            }
+        }
+
+        System.gc();
+        System.gc();
+        long heapBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        long offHeapBytes = store != null ? store.allocatedBytes() : 0;
+
+        long[] fullGcNanos = new long[3];
+        for (int i = 0; i < fullGcNanos.length; i++) {
+            long start = System.nanoTime();
+            System.gc();
+            fullGcNanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(fullGcNanos);
+
+        // Only pauses from here on are counted
+        AtomicLong pauses = new AtomicLong();
+        AtomicLong pauseMillis = new AtomicLong();
+        AtomicLong maxPauseMillis = new AtomicLong();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener((notification, handback) -> {
+                if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                // G1's concurrent cycle is reported too, it does not stop the application
+                if (info.getGcName().contains("Concurrent")) {
+                    return;
+                }
+                pauses.incrementAndGet();
+                pauseMillis.addAndGet(info.getGcInfo().getDuration());
+                maxPauseMillis.accumulateAndGet(info.getGcInfo().getDuration(), Math::max);
+            }, null, null);
+        }
+
+        // Request-like garbage, a few of which live long enough to be promoted
+        RentalAgreement[] recent = new RentalAgreement[100_000];
+        long checksum = 0;
+        for (long i = 0; i < churn; i++) {
+            RentalAgreement agreement = agreement(random);
+            recent[(int) (i % recent.length)] = agreement;
+            checksum += agreement.getChargeDays();
+        }
+
+        // Lets the last notifications arrive, and keeps the agreements reachable until here
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        long size = list != null ? list.size() : store.size();
+        if (size != agreements || checksum < 0) {
+            throw new IllegalStateException("Lost agreements");
+        }
+
+        return String.format("%d %d %d %d %d %d", heapBytes >> 20, offHeapBytes >> 20, fullGcNanos[1] / 1_000_000,
+                pauses.get(), pauseMillis.get(), maxPauseMillis.get());
+    }
+
+    private static RentalAgreement agreement(Random random) {
+        Tool tool = TOOLS.get(random.nextInt(TOOLS.size()));
+        int rentalDays = 1 + random.nextInt(14);
+        int chargeDays = 1 + random.nextInt(rentalDays);
+        int discountPercent = random.nextInt(4) * 10;
+        long dailyCents = DAILY_CHARGE_CENTS.get(tool.toolType());
+        long preDiscountCents = dailyCents * chargeDays;
+        long discountCents = (preDiscountCents * discountPercent + 50) / 100;
+        LocalDate checkoutDate = FIRST_CHECKOUT.plusDays(random.nextInt(365));
+
+        return RentalAgreement.builder()
+                .toolCode(tool.code())
+                .toolType(tool.toolType().name())
+                .toolBrand(tool.brand())
+                .rentalDays(rentalDays)
+                .checkoutDate(checkoutDate)
+                .dueDate(checkoutDate.plusDays(rentalDays))
+                .dailyRentalCharge(BigDecimal.valueOf(dailyCents, 2))
+                .chargeDays(chargeDays)
+                .preDiscountCharge(BigDecimal.valueOf(preDiscountCents, 2))
+                .discountPercent(discountPercent)
+                .discountAmount(BigDecimal.valueOf(discountCents, 2))
+                .finalCharge(BigDecimal.valueOf(preDiscountCents - discountCents, 2))
+                .build();
+    }
+}
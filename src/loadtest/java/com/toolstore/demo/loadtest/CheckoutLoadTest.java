@@ -0,0 +1,181 @@
+package com.toolstore.demo.loadtest;
+
+import com.toolstore.demo.DemoApplication;
+import com.toolstore.demo.loadtest.LatencyRecorder.Outcome;
+import com.toolstore.demo.loadtest.LoadTestOptions.Endpoint;
+import com.toolstore.demo.loadtest.LoadTestOptions.ServerMode;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Open model load test for POST /api/checkout: requests are sent at a fixed arrival rate whether or not earlier
+// ones have been answered, and each latency is measured from when the request was scheduled to go out rather than
+// when it actually went out, so a stalled server is charged for the requests that queued up behind the stall
+// (coordinated omission). The app is started in this JVM on a random port, once per server mode and endpoint.
+//
+// ./gradlew loadTest -Ploadtest.args="rate=5000 duration=60 servers=virtual endpoints=blocking,async journal=true"
+public class CheckoutLoadTest {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        RequestMix mix = new RequestMix(options);
+
+        // Client and server share this JVM, so the first configuration would otherwise also pay for compiling
+        // both. One untimed warm-up on a throwaway server evens that out
+        System.out.printf("Priming the JVM: %ds at %d checkouts/s%n", options.warmup().toSeconds(), options.rate());
+        run(options.servers().getFirst(), options.endpoints().getFirst(), options, mix, false);
+
+        List<LatencyRecorder.Result> results = new ArrayList<>();
+        for (ServerMode server : options.servers()) {
+            for (Endpoint endpoint : options.endpoints()) {
+                System.out.printf("%s threads, %s endpoint: %ds warm-up, %ds at %d checkouts/s%n",
+                        server.name().toLowerCase(), endpoint.name().toLowerCase(),
+                        options.warmup().toSeconds(), options.duration().toSeconds(), options.rate());
+                results.add(run(server, endpoint, options, mix, true));
+            }
+        }
+
+        printReport(results);
+    }
+
+    // Returns null when measure is false, only the warm-up is run then
+    private static LatencyRecorder.Result run(ServerMode server, Endpoint endpoint, LoadTestOptions options,
+                                              RequestMix mix, boolean measure)
+            throws IOException, InterruptedException {
+        try (ConfigurableApplicationContext context = start(server, options.journal());
+             ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .build()) {
+            URI base = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+            URI checkout = base.resolve(endpoint.path());
+
+            drive(client, senders, base, checkout, mix, options, options.warmup(), null);
+            if (!measure) {
+                return null;
+            }
+
+            int expected = Math.toIntExact(options.rate() * options.duration().toSeconds());
+            LatencyRecorder recorder = new LatencyRecorder(expected);
+            long measureStart = drive(client, senders, base, checkout, mix, options, options.duration(), recorder);
+
+            // Lets the last scheduled requests finish before reading the results
+            senders.shutdown();
+            senders.awaitTermination(REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS);
+            return recorder.result(server.name().toLowerCase() + "/" + endpoint.name().toLowerCase(),
+                    options.rate(), measureStart);
+        }
+    }
+
+    // The audit log is off, and the journal unless asked for, so the numbers are for the request path rather than
+    // the disk. A journal goes to a fresh directory so nothing is replayed. Settings are passed as command line
+    // arguments since those take precedence over application.properties
+    private static ConfigurableApplicationContext start(ServerMode server, boolean journal) throws IOException {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + server.virtualThreads(),
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=warn",
+                "--checkout.journal.enabled=" + journal,
+                "--checkout.audit.enabled=false"));
+        if (journal) {
+            args.add("--checkout.journal.path=" + Files.createTempDirectory("loadtest").resolve("agreements.journal"));
+        }
+
+        return new SpringApplicationBuilder(DemoApplication.class).run(args.toArray(String[]::new));
+    }
+
+    // Returns the time the first request was scheduled for. The recorder is null while warming up
+    private static long drive(HttpClient client, ExecutorService senders, URI base, URI checkout, RequestMix mix,
+                              LoadTestOptions options, Duration duration, LatencyRecorder recorder) {
+        long interval = 1_000_000_000L / options.rate();
+        long requests = options.rate() * duration.toSeconds();
+        long start = System.nanoTime();
+
+        for (long i = 0; i < requests; i++) {
+            long scheduledAt = start + i * interval;
+            long wait = scheduledAt - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            RequestMix.Checkout next = mix.next();
+            senders.execute(() -> send(client, base, checkout, next, scheduledAt, options.returns(), recorder));
+        }
+        return start;
+    }
+
+    private static void send(HttpClient client, URI base, URI target, RequestMix.Checkout checkout,
+                             long scheduledAt, boolean returns, LatencyRecorder recorder) {
+        HttpRequest request = HttpRequest.newBuilder(target)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(checkout.body()))
+                .build();
+
+        Outcome outcome;
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            outcome = status == 200 ? Outcome.OK : status == 400 ? Outcome.REJECTED : Outcome.ERROR;
+        } catch (IOException ex) {
+            outcome = Outcome.ERROR;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        long completedAt = System.nanoTime();
+        if (recorder != null) {
+            recorder.record(outcome, completedAt - scheduledAt, completedAt);
+        }
+
+        // Hands the tool back so the calendars don't fill up over the run, not part of the measured latency
+        if (returns && outcome == Outcome.OK) {
+            returnTool(client, base, checkout);
+        }
+    }
+
+    private static void returnTool(HttpClient client, URI base, RequestMix.Checkout checkout) {
+        URI uri = base.resolve("/api/checkout/" + checkout.toolCode() + "/return?checkoutDate="
+                + checkout.checkoutDate());
+        try {
+            client.send(HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT)
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding());
+        } catch (IOException ex) {
+            // A missed return only leaves the tool booked a little longer
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void printReport(List<LatencyRecorder.Result> results) {
+        System.out.println();
+        System.out.printf("%-16s %9s %10s %9s %9s %7s %9s %9s %9s %9s %9s%n", "server", "target/s", "achieved/s",
+                "ok", "rejected", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (LatencyRecorder.Result r : results) {
+            System.out.printf("%-16s %9d %10.1f %9d %9d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    r.server(), r.targetRate(), r.achievedRate(), r.ok(), r.rejected(), r.errors(),
+                    millis(r.p50Nanos()), millis(r.p90Nanos()), millis(r.p99Nanos()), millis(r.p999Nanos()),
+                    millis(r.maxNanos()));
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,65 @@
+package com.toolstore.demo.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps every latency of a measured phase, the count is bounded by rate * duration so exact percentiles are cheap
+final class LatencyRecorder {
+
+    enum Outcome {
+        // 200 with an agreement
+        OK,
+        // 400, a validation failure or a tool that is already booked
+        REJECTED,
+        // Any other status, or the request failed outright
+        ERROR
+    }
+
+    private final long[] latencies;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final AtomicInteger[] outcomes = new AtomicInteger[Outcome.values().length];
+    private final AtomicLong lastCompletion = new AtomicLong();
+
+    LatencyRecorder(int capacity) {
+        this.latencies = new long[capacity];
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = new AtomicInteger();
+        }
+    }
+
+    void record(Outcome outcome, long latencyNanos, long completedAt) {
+        int index = recorded.getAndIncrement();
+        if (index < latencies.length) {
+            latencies[index] = latencyNanos;
+        }
+        outcomes[outcome.ordinal()].incrementAndGet();
+        lastCompletion.accumulateAndGet(completedAt, Math::max);
+    }
+
+    Result result(String server, int targetRate, long measureStart) {
+        int count = Math.min(recorded.get(), latencies.length);
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+
+        double elapsedSeconds = Math.max(1, lastCompletion.get() - measureStart) / 1_000_000_000.0;
+        return new Result(server, targetRate, count / elapsedSeconds,
+                outcomes[Outcome.OK.ordinal()].get(),
+                outcomes[Outcome.REJECTED.ordinal()].get(),
+                outcomes[Outcome.ERROR.ordinal()].get(),
+                percentile(sorted, 0.5), percentile(sorted, 0.9), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), count == 0 ? 0 : sorted[count - 1]);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    record Result(String server, int targetRate, double achievedRate, int ok, int rejected, int errors,
+                  long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+    }
+}
@@ -0,0 +1,113 @@
+package com.toolstore.demo.loadtest;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Settings for one load test run, read from key=value arguments. Anything not given keeps its default:
+//   rate=2000 warmup=10 duration=30 servers=platform,virtual endpoints=blocking journal=false
+//   tools=CHNS:1,LADW:1,JAKD:1,JAKR:1 invalid=0.05 start-date=2020-01-01 date-span=365 max-days=10 returns=true
+record LoadTestOptions(int rate,
+                       Duration warmup,
+                       Duration duration,
+                       List<ServerMode> servers,
+                       List<Endpoint> endpoints,
+                       boolean journal,
+                       Map<String, Integer> toolWeights,
+                       double invalidRatio,
+                       LocalDate startDate,
+                       int dateSpanDays,
+                       int maxRentalDays,
+                       boolean returns) {
+
+    enum ServerMode {
+        // Tomcat's default pool of platform request threads
+        PLATFORM(false),
+        // One virtual thread per request, spring.threads.virtual.enabled=true
+        VIRTUAL(true);
+
+        private final boolean virtualThreads;
+
+        ServerMode(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+
+        boolean virtualThreads() {
+            return virtualThreads;
+        }
+    }
+
+    enum Endpoint {
+        // POST /api/checkout, the request thread waits for the journal
+        BLOCKING("/api/checkout"),
+        // POST /api/checkout/async, the request thread is released while the journal writes
+        ASYNC("/api/checkout/async");
+
+        private final String path;
+
+        Endpoint(String path) {
+            this.path = path;
+        }
+
+        String path() {
+            return path;
+        }
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value but was: " + arg);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                Integer.parseInt(values.getOrDefault("rate", "2000")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "30"))),
+                parseValues(values.getOrDefault("servers", "platform,virtual"), ServerMode.class),
+                parseValues(values.getOrDefault("endpoints", "blocking"), Endpoint.class),
+                Boolean.parseBoolean(values.getOrDefault("journal", "false")),
+                parseWeights(values.getOrDefault("tools", "CHNS:1,LADW:1,JAKD:1,JAKR:1")),
+                Double.parseDouble(values.getOrDefault("invalid", "0.05")),
+                LocalDate.parse(values.getOrDefault("start-date", "2020-01-01")),
+                Integer.parseInt(values.getOrDefault("date-span", "365")),
+                Integer.parseInt(values.getOrDefault("max-days", "10")),
+                Boolean.parseBoolean(values.getOrDefault("returns", "true")));
+
+        values.keySet().removeAll(List.of("rate", "warmup", "duration", "servers", "endpoints", "journal", "tools", "invalid",
+                "start-date", "date-span", "max-days", "returns"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        if (options.rate() <= 0 || options.invalidRatio() < 0 || options.invalidRatio() > 1
+                || options.dateSpanDays() <= 0 || options.maxRentalDays() <= 0) {
+            throw new IllegalArgumentException("rate, date-span and max-days must be positive, invalid in [0, 1]");
+        }
+        return options;
+    }
+
+    private static <E extends Enum<E>> List<E> parseValues(String value, Class<E> type) {
+        List<E> values = new ArrayList<>();
+        for (String name : value.split(",")) {
+            values.add(Enum.valueOf(type, name.trim().toUpperCase()));
+        }
+        return values;
+    }
+
+    private static Map<String, Integer> parseWeights(String value) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(parts[0], parts.length > 1 ? Integer.parseInt(parts[1]) : 1);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,66 @@
+package com.toolstore.demo.loadtest;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Random checkout bodies drawn from the configured tool weights and date window, with the configured share
+// of requests broken in one of the ways the validator rejects
+final class RequestMix {
+
+    static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("MM/dd/yy");
+
+    // One of each way a checkout is rejected: unknown tool, rental days, discount and a missing field
+    static final List<String> INVALID_BODIES = List.of(
+            "{\"toolCode\":\"NOPE\",\"rentalDayCount\":3,\"discountPercent\":0,\"checkoutDate\":\"07/02/20\"}",
+            "{\"toolCode\":\"LADW\",\"rentalDayCount\":0,\"discountPercent\":0,\"checkoutDate\":\"07/02/20\"}",
+            "{\"toolCode\":\"LADW\",\"rentalDayCount\":3,\"discountPercent\":101,\"checkoutDate\":\"07/02/20\"}",
+            "{\"toolCode\":\"JAKR\",\"rentalDayCount\":3,\"discountPercent\":10}");
+
+    private final String[] weightedTools;
+    private final double invalidRatio;
+    private final LocalDate startDate;
+    private final int dateSpanDays;
+    private final int maxRentalDays;
+
+    RequestMix(LoadTestOptions options) {
+        int total = options.toolWeights().values().stream().mapToInt(Integer::intValue).sum();
+        this.weightedTools = new String[total];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : options.toolWeights().entrySet()) {
+            for (int n = 0; n < entry.getValue(); n++) {
+                weightedTools[i++] = entry.getKey();
+            }
+        }
+
+        this.invalidRatio = options.invalidRatio();
+        this.startDate = options.startDate();
+        this.dateSpanDays = options.dateSpanDays();
+        this.maxRentalDays = options.maxRentalDays();
+    }
+
+    Checkout next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < invalidRatio) {
+            return new Checkout(null, null, INVALID_BODIES.get(random.nextInt(INVALID_BODIES.size())));
+        }
+
+        String toolCode = weightedTools[random.nextInt(weightedTools.length)];
+        String checkoutDate = startDate.plusDays(random.nextInt(dateSpanDays)).format(DATE_FMT);
+        String body = body(toolCode, 1 + random.nextInt(maxRentalDays), random.nextInt(101), checkoutDate);
+        return new Checkout(toolCode, checkoutDate, body);
+    }
+
+    static String body(String toolCode, int rentalDayCount, int discountPercent, String checkoutDate) {
+        return "{\"toolCode\":\"" + toolCode + "\""
+                + ",\"rentalDayCount\":" + rentalDayCount
+                + ",\"discountPercent\":" + discountPercent
+                + ",\"checkoutDate\":\"" + checkoutDate + "\"}";
+    }
+
+    // toolCode and checkoutDate are null for a request that is meant to be rejected
+    record Checkout(String toolCode, String checkoutDate, String body) {
+    }
+}
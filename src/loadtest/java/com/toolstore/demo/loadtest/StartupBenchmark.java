@@ -0,0 +1,159 @@
+package com.toolstore.demo.loadtest;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Time from launching a fresh JVM until GET /api/ready answers 200, startup warm-up included, for the plain jar,
+// the Spring AOT context and the Spring AOT context plus the class archive recorded by trainAot. The modes take
+// turns so drift on the machine is spread evenly, and every run gets its own port, journal and audit log.
+// Classpaths and flags come from the startupBenchmark task in build.gradle.
+//
+// ./gradlew startupBenchmark -Pstartup.args="runs=20"
+public class StartupBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final long POLL_INTERVAL_MILLIS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int runs = 10;
+        for (String arg : args) {
+            if (!arg.startsWith("runs=")) {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+            runs = Integer.parseInt(arg.substring("runs=".length()));
+        }
+        if (runs < 1) {
+            throw new IllegalArgumentException("runs must be 1 or greater");
+        }
+
+        String classpath = requiredProperty("startup.classpath");
+        String aotClasspath = requiredProperty("startup.aot-classpath");
+        List<String> archiveArgs = Arrays.asList(requiredProperty("startup.archive-args").split(" "));
+
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        modes.put("default", List.of("-cp", classpath));
+        modes.put("spring aot", List.of("-cp", aotClasspath, "-Dspring.aot.enabled=true"));
+        List<String> archived = new ArrayList<>(modes.get("spring aot"));
+        archived.addAll(archiveArgs);
+        modes.put("spring aot + archive", archived);
+
+        Map<String, long[]> millis = new LinkedHashMap<>();
+        for (String mode : modes.keySet()) {
+            millis.put(mode, new long[runs]);
+        }
+
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            // One untimed start per mode, the first start after a build also pays for a cold page cache
+            for (List<String> jvmArgs : modes.values()) {
+                timeToReady(client, jvmArgs);
+            }
+
+            for (int run = 0; run < runs; run++) {
+                for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+                    millis.get(mode.getKey())[run] = timeToReady(client, mode.getValue());
+                }
+                System.out.printf("Run %d of %d done%n", run + 1, runs);
+            }
+        }
+
+        printReport(millis);
+    }
+
+    private static long timeToReady(HttpClient client, List<String> jvmArgs)
+            throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("startup");
+        int port = freePort();
+
+        List<String> command = new ArrayList<>();
+        command.add(requiredProperty("startup.java"));
+        command.addAll(jvmArgs);
+        command.add(requiredProperty("startup.main-class"));
+        command.addAll(List.of(
+                "--server.port=" + port,
+                "--checkout.journal.path=" + directory.resolve("agreements.journal"),
+                "--checkout.audit.path=" + directory.resolve("audit.log")));
+
+        Path log = directory.resolve("app.log");
+        HttpRequest probe = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                        + "/api/ready"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("App exited with " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (ConnectException ex) {
+                    // Not listening yet, 503 is answered while warming up
+                }
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            }
+            throw new IllegalStateException("App did not answer within " + STARTUP_TIMEOUT + ", see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String requiredProperty(String name) {
+        String value = System.getProperty(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException(name + " is not set, run this through ./gradlew startupBenchmark");
+        }
+        return value;
+    }
+
+    private static void printReport(Map<String, long[]> millis) {
+        long baseline = median(millis.values().iterator().next());
+
+        System.out.println();
+        System.out.printf("%-22s %5s %11s %8s %8s %9s%n", "mode", "runs", "median ms", "min ms", "max ms", "speedup");
+        for (Map.Entry<String, long[]> entry : millis.entrySet()) {
+            long[] times = entry.getValue().clone();
+            Arrays.sort(times);
+            long median = times[times.length / 2];
+            System.out.printf("%-22s %5d %11d %8d %8d %8.2fx%n", entry.getKey(), times.length, median,
+                    times[0], times[times.length - 1], (double) baseline / median);
+        }
+    }
+
+    private static long median(long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
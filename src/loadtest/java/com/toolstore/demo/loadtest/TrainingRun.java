@@ -0,0 +1,137 @@
+package com.toolstore.demo.loadtest;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Records the class archive runAot starts from. Launches the app in its own JVM with the archive flags, sends it a
+// representative workload once it is ready, rejection paths included, then stops it, and the JVM writes the archive
+// as it exits. The app JVM has exactly the classpath runAot uses, which the archive has to match, so the driver
+// stays out of it. Classpaths and flags come from the trainAot task in build.gradle.
+//
+// ./gradlew trainAot -Ptraining.args="rounds=1000"
+public class TrainingRun {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration EXIT_TIMEOUT = Duration.ofMinutes(2);
+    private static final long POLL_INTERVAL_MILLIS = 50;
+    private static final List<String> TOOL_CODES = List.of("CHNS", "LADW", "JAKD", "JAKR");
+
+    public static void main(String[] args) throws Exception {
+        int rounds = 500;
+        for (String arg : args) {
+            if (!arg.startsWith("rounds=")) {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+            rounds = Integer.parseInt(arg.substring("rounds=".length()));
+        }
+
+        Path directory = Path.of(requiredProperty("training.directory"));
+        int port = StartupBenchmark.freePort();
+        List<String> command = new ArrayList<>();
+        command.add(requiredProperty("training.java"));
+        command.addAll(Arrays.asList(requiredProperty("training.jvm-args").split(" ")));
+        command.addAll(List.of("-cp", requiredProperty("training.classpath"), requiredProperty("training.main-class"),
+                "--server.port=" + port,
+                "--spring.main.banner-mode=off",
+                "--checkout.journal.path=" + directory.resolve("agreements.journal"),
+                "--checkout.audit.path=" + directory.resolve("audit.log")));
+
+        Path log = directory.resolve("app.log");
+        Process process = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        URI base = URI.create("http://localhost:" + port);
+
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            awaitReady(client, base, process, log);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                round(client, base, i);
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("Training run of %d rounds took %d ms%n", rounds, millis);
+        } catch (Exception ex) {
+            process.destroyForcibly().waitFor();
+            throw ex;
+        }
+
+        // SIGTERM, so the JVM shuts down normally and writes the archive on its way out
+        process.destroy();
+        if (!process.waitFor(EXIT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly().waitFor();
+            throw new IllegalStateException("App did not exit within " + EXIT_TIMEOUT + ", see " + log);
+        }
+    }
+
+    private static void awaitReady(HttpClient client, URI base, Process process, Path log)
+            throws IOException, InterruptedException {
+        HttpRequest probe = HttpRequest.newBuilder(base.resolve("/api/ready")).timeout(Duration.ofSeconds(5)).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("App exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (ConnectException ex) {
+                // Not listening yet
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+        throw new IllegalStateException("App did not answer within " + STARTUP_TIMEOUT + ", see " + log);
+    }
+
+    // One of each hot request per round. Dates walk across two years so both holidays and weekends are priced,
+    // and every checkout is returned again so the calendars stay empty
+    private static void round(HttpClient client, URI base, int i) throws IOException, InterruptedException {
+        String toolCode = TOOL_CODES.get(i % TOOL_CODES.size());
+        String checkoutDate = LocalDate.of(2020, 1, 1).plusDays(i % 730).format(RequestMix.DATE_FMT);
+        String body = RequestMix.body(toolCode, 1 + i % 14, i % 101, checkoutDate);
+        String endpoint = i % 2 == 0 ? "/api/checkout" : "/api/checkout/async";
+
+        send(client, post(base.resolve(endpoint), body));
+        send(client, post(base.resolve("/api/checkout/" + toolCode + "/return?checkoutDate=" + checkoutDate), null));
+        send(client, HttpRequest.newBuilder(base.resolve("/api/checkout/" + toolCode
+                + "/availability?startDate=" + checkoutDate + "&rentalDayCount=3")).GET().build());
+        send(client, post(base.resolve("/api/checkout"),
+                RequestMix.INVALID_BODIES.get(i % RequestMix.INVALID_BODIES.size())));
+    }
+
+    private static HttpRequest post(URI uri, String body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri);
+        if (body == null) {
+            return request.POST(HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return request.header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static void send(HttpClient client, HttpRequest request) throws IOException, InterruptedException {
+        client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static String requiredProperty(String name) {
+        String value = System.getProperty(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException(name + " is not set, run this through ./gradlew trainAot");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,438 @@
+package com.toolstore.demo.codec;
+
+import com.toolstore.demo.dto.CheckoutRequest;
+import com.toolstore.demo.model.RentalAgreement;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Hand-written JSON for the checkout endpoint, no reflection or DateTimeFormatter involved.
+// Reading only handles the plain shape clients actually send and returns null for anything else,
+// so the caller can fall back to Jackson and keep its exact behaviour for unusual input.
+// Writing produces the same bytes Jackson does: properties in alphabetical order, no whitespace,
+// BigDecimal.toString() for money and MM/dd/yy dates.
+// An instance owns its output buffer and is not thread safe, readRequest is.
+public final class CheckoutJsonCodec {
+
+    private static final int INITIAL_CAPACITY = 512;
+    private static final int BASE_YEAR = 2000;
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] TOOL_CODE = "toolCode".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RENTAL_DAY_COUNT = "rentalDayCount".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DISCOUNT_PERCENT = "discountPercent".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CHECKOUT_DATE = "checkoutDate".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] REGION = "region".getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    // Encodes the agreement into this codec's buffer and returns the number of bytes written
+    public int writeAgreement(RentalAgreement agreement) {
+        size = 0;
+
+        writeRaw("{\"chargeDays\":");
+        writeInt(agreement.getChargeDays());
+        writeRaw(",\"checkoutDate\":");
+        writeDate(agreement.getCheckoutDate());
+        writeRaw(",\"dailyRentalCharge\":");
+        writeDecimal(agreement.getDailyRentalCharge());
+        writeRaw(",\"discountAmount\":");
+        writeDecimal(agreement.getDiscountAmount());
+        writeRaw(",\"discountPercent\":");
+        writeInt(agreement.getDiscountPercent());
+        writeRaw(",\"dueDate\":");
+        writeDate(agreement.getDueDate());
+        writeRaw(",\"finalCharge\":");
+        writeDecimal(agreement.getFinalCharge());
+        writeRaw(",\"preDiscountCharge\":");
+        writeDecimal(agreement.getPreDiscountCharge());
+        writeRaw(",\"rentalDays\":");
+        writeInt(agreement.getRentalDays());
+        writeRaw(",\"toolBrand\":");
+        writeString(agreement.getToolBrand());
+        writeRaw(",\"toolCode\":");
+        writeString(agreement.getToolCode());
+        writeRaw(",\"toolType\":");
+        writeString(agreement.getToolType());
+        writeByte('}');
+
+        return size;
+    }
+
+    // Valid up to the length returned by the last writeAgreement
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    // Parses {"toolCode":..,"rentalDayCount":..,"discountPercent":..,"checkoutDate":..,"region":..} in any order,
+    // region optional, null when the body needs Jackson (escapes, unknown or repeated keys, coercions, malformed JSON)
+    public static CheckoutRequest readRequest(byte[] json, int length) {
+        return new RequestParser(json, length).parse();
+    }
+
+    private void writeRaw(String ascii) {
+        ensureCapacity(ascii.length());
+        for (int i = 0; i < ascii.length(); i++) {
+            buffer[size++] = (byte) ascii.charAt(i);
+        }
+    }
+
+    private void writeByte(int b) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) b;
+    }
+
+    private void writeNull() {
+        ensureCapacity(NULL.length);
+        System.arraycopy(NULL, 0, buffer, size, NULL.length);
+        size += NULL.length;
+    }
+
+    private void writeInt(int value) {
+        if (value == Integer.MIN_VALUE) {
+            writeRaw(Integer.toString(value));
+            return;
+        }
+
+        ensureCapacity(11);
+        if (value < 0) {
+            buffer[size++] = '-';
+            value = -value;
+        }
+
+        int digits = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = size + digits - 1; i >= size; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+    }
+
+    private void writeDecimal(BigDecimal value) {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+
+        writeRaw(value.toString());
+    }
+
+    // MM/dd/yy, the year reduced to its last two digits
+    private void writeDate(LocalDate date) {
+        if (date == null) {
+            writeNull();
+            return;
+        }
+
+        int year = Math.abs(date.getYear() % 100);
+        ensureCapacity(10);
+        buffer[size++] = '"';
+        writeTwoDigits(date.getMonthValue());
+        buffer[size++] = '/';
+        writeTwoDigits(date.getDayOfMonth());
+        buffer[size++] = '/';
+        writeTwoDigits(year);
+        buffer[size++] = '"';
+    }
+
+    private void writeTwoDigits(int value) {
+        buffer[size++] = (byte) ('0' + value / 10);
+        buffer[size++] = (byte) ('0' + value % 10);
+    }
+
+    // Escapes the way Jackson does: short forms for the common control characters, \\u00XX for the rest,
+    // everything else as UTF-8
+    private void writeString(String value) {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+
+        ensureCapacity(value.length() * 6 + 2);
+        buffer[size++] = '"';
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                buffer[size++] = (byte) c;
+            } else if (c < 0x80) {
+                writeEscaped(c);
+            } else if (c < 0x800) {
+                buffer[size++] = (byte) (0xC0 | (c >> 6));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[size++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                buffer[size++] = (byte) (0xE0 | (c >> 12));
+                buffer[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        buffer[size++] = '"';
+    }
+
+    private void writeEscaped(char c) {
+        buffer[size++] = '\\';
+        switch (c) {
+            case '"' -> buffer[size++] = '"';
+            case '\\' -> buffer[size++] = '\\';
+            case '\b' -> buffer[size++] = 'b';
+            case '\t' -> buffer[size++] = 't';
+            case '\n' -> buffer[size++] = 'n';
+            case '\f' -> buffer[size++] = 'f';
+            case '\r' -> buffer[size++] = 'r';
+            default -> {
+                buffer[size++] = 'u';
+                buffer[size++] = '0';
+                buffer[size++] = '0';
+                buffer[size++] = HEX[c >> 4];
+                buffer[size++] = HEX[c & 0xF];
+            }
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+
+    private static final class RequestParser {
+
+        private final byte[] json;
+        private final int length;
+        private int position;
+
+        private String toolCode;
+        private Integer rentalDayCount;
+        private Integer discountPercent;
+        private LocalDate checkoutDate;
+        private String region;
+        private int seen;
+
+        private RequestParser(byte[] json, int length) {
+            this.json = json;
+            this.length = length;
+        }
+
+        private CheckoutRequest parse() {
+            skipWhitespace();
+            if (!consume('{')) {
+                return null;
+            }
+
+            skipWhitespace();
+            if (!consume('}')) {
+                do {
+                    skipWhitespace();
+                    if (!readField()) {
+                        return null;
+                    }
+                    skipWhitespace();
+                } while (consume(','));
+
+                if (!consume('}')) {
+                    return null;
+                }
+            }
+
+            skipWhitespace();
+            if (position != length) {
+                return null;
+            }
+
+            return new CheckoutRequest(toolCode, rentalDayCount, discountPercent, checkoutDate, region);
+        }
+
+        private boolean readField() {
+            int field = readKey();
+            if (field < 0 || (seen & (1 << field)) != 0) {
+                return false;
+            }
+            seen |= 1 << field;
+
+            skipWhitespace();
+            if (!consume(':')) {
+                return false;
+            }
+            skipWhitespace();
+
+            boolean isNull = consumeNull();
+            return switch (field) {
+                case 0 -> isNull || (toolCode = readPlainString()) != null;
+                case 1 -> isNull || (rentalDayCount = readInt()) != null;
+                case 2 -> isNull || (discountPercent = readInt()) != null;
+                case 3 -> isNull || (checkoutDate = readDate()) != null;
+                default -> isNull || (region = readPlainString()) != null;
+            };
+        }
+
+        // Index of the known key, -1 for anything else
+        private int readKey() {
+            if (!consume('"')) {
+                return -1;
+            }
+
+            int start = position;
+            while (position < length && json[position] != '"') {
+                if (json[position] == '\\') {
+                    return -1;
+                }
+                position++;
+            }
+            if (position == length) {
+                return -1;
+            }
+
+            int end = position++;
+            if (matches(TOOL_CODE, start, end)) {
+                return 0;
+            }
+            if (matches(RENTAL_DAY_COUNT, start, end)) {
+                return 1;
+            }
+            if (matches(DISCOUNT_PERCENT, start, end)) {
+                return 2;
+            }
+            if (matches(CHECKOUT_DATE, start, end)) {
+                return 3;
+            }
+            if (matches(REGION, start, end)) {
+                return 4;
+            }
+            return -1;
+        }
+
+        private boolean matches(byte[] key, int start, int end) {
+            return Arrays.equals(json, start, end, key, 0, key.length);
+        }
+
+        // Printable ASCII without escapes only
+        private String readPlainString() {
+            if (!consume('"')) {
+                return null;
+            }
+
+            int start = position;
+            while (position < length && json[position] != '"') {
+                byte b = json[position];
+                if (b < 0x20 || b == '\\') {
+                    return null;
+                }
+                position++;
+            }
+            if (position == length) {
+                return null;
+            }
+
+            return new String(json, start, position++ - start, StandardCharsets.US_ASCII);
+        }
+
+        // Plain JSON integers in int range, no fractions, exponents or leading zeros
+        private Integer readInt() {
+            boolean negative = consume('-');
+            int start = position;
+            long value = 0;
+
+            while (position < length && json[position] >= '0' && json[position] <= '9') {
+                value = value * 10 + (json[position++] - '0');
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    return null;
+                }
+            }
+
+            int digits = position - start;
+            if (digits == 0 || (digits > 1 && json[start] == '0') || isNumberContinuation()) {
+                return null;
+            }
+
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                return null;
+            }
+            return (int) value;
+        }
+
+        private boolean isNumberContinuation() {
+            if (position == length) {
+                return false;
+            }
+            byte b = json[position];
+            return b == '.' || b == 'e' || b == 'E';
+        }
+
+        // Exactly "MM/dd/yy" for a date that exists, the year in 2000-2099 like the two-digit pattern
+        private LocalDate readDate() {
+            if (position + 10 > length || json[position] != '"' || json[position + 9] != '"'
+                    || json[position + 3] != '/' || json[position + 6] != '/') {
+                return null;
+            }
+
+            int month = twoDigits(position + 1);
+            int day = twoDigits(position + 4);
+            int year = twoDigits(position + 7);
+            if (month < 1 || month > 12 || day < 1 || year < 0) {
+                return null;
+            }
+
+            // Days past the end of the month are left to Jackson's resolver
+            LocalDate firstOfMonth = LocalDate.of(BASE_YEAR + year, month, 1);
+            if (day > firstOfMonth.lengthOfMonth()) {
+                return null;
+            }
+
+            position += 10;
+            return firstOfMonth.withDayOfMonth(day);
+        }
+
+        private int twoDigits(int index) {
+            int tens = json[index] - '0';
+            int ones = json[index + 1] - '0';
+            if (tens < 0 || tens > 9 || ones < 0 || ones > 9) {
+                return -1;
+            }
+            return tens * 10 + ones;
+        }
+
+        private boolean consumeNull() {
+            if (position + NULL.length <= length && Arrays.equals(json, position, position + NULL.length,
+                    NULL, 0, NULL.length)) {
+                position += NULL.length;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean consume(char expected) {
+            if (position < length && json[position] == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (position < length) {
+                byte b = json[position];
+                if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                    return;
+                }
+                position++;
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.toolstore.demo.codec;
+
+import com.toolstore.demo.dto.CheckoutRequest;
+import com.toolstore.demo.model.RentalAgreement;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Reads CheckoutRequest and writes RentalAgreement with CheckoutJsonCodec, every other type is left to Jackson.
+// Bodies the codec does not handle are read with the application's JsonMapper, the same one the default
+// converter uses, so errors and coercions stay exactly as before.
+// Bodies are buffered whole before parsing, so one longer than maxBodyBytes is rejected instead of read to its end.
+public class CheckoutJsonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private static final int POOLED_CODECS = 64;
+
+    private final JsonMapper jsonMapper;
+    private final int maxBodyBytes;
+
+    // Codecs own their output buffers, so reusing them avoids a fresh buffer per response
+    private final BlockingQueue<CheckoutJsonCodec> codecs = new ArrayBlockingQueue<>(POOLED_CODECS);
+
+    public CheckoutJsonHttpMessageConverter(JsonMapper jsonMapper, int maxBodyBytes) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        if (maxBodyBytes < 1) {
+            throw new IllegalArgumentException("Request max body bytes must be positive");
+        }
+        this.jsonMapper = jsonMapper;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == CheckoutRequest.class || clazz == RentalAgreement.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return clazz == CheckoutRequest.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return clazz == RentalAgreement.class && canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        // A declared length is checked up front, a chunked body once one byte more than the limit has arrived
+        if (inputMessage.getHeaders().getContentLength() > maxBodyBytes) {
+            throw tooLarge(inputMessage);
+        }
+        byte[] body = inputMessage.getBody().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            throw tooLarge(inputMessage);
+        }
+
+        CheckoutRequest request = CheckoutJsonCodec.readRequest(body, body.length);
+        if (request != null) {
+            return request;
+        }
+
+        try {
+            return jsonMapper.readValue(body, CheckoutRequest.class);
+        } catch (JacksonException ex) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + ex.getOriginalMessage(), ex, inputMessage);
+        }
+    }
+
+    private HttpMessageNotReadableException tooLarge(HttpInputMessage inputMessage) {
+        return new HttpMessageNotReadableException("Request body is larger than " + maxBodyBytes + " bytes",
+                inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object agreement, HttpOutputMessage outputMessage) throws IOException {
+        CheckoutJsonCodec codec = codecs.poll();
+        if (codec == null) {
+            codec = new CheckoutJsonCodec();
+        }
+
+        try {
+            int length = codec.writeAgreement((RentalAgreement) agreement);
+            outputMessage.getBody().write(codec.buffer(), 0, length);
+        } finally {
+            codecs.offer(codec);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.toolstore.demo.config;
+
+import com.toolstore.demo.repository.AgreementStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AgreementStoreConfig {
+
+    @Bean(destroyMethod = "close")
+    public AgreementStore agreementStore(@Value("${checkout.agreement-store.enabled:true}") boolean enabled,
+                                         @Value("${checkout.agreement-store.chunk-records:65536}") int chunkRecords,
+                                         @Value("${checkout.agreement-store.max-records:16777216}") long maxRecords) {
+        if (!enabled) {
+            return AgreementStore.disabled();
+        }
+
+        return AgreementStore.open(chunkRecords, maxRecords);
+    }
+}
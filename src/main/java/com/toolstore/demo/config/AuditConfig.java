@@ -0,0 +1,32 @@
+package com.toolstore.demo.config;
+
+import com.toolstore.demo.metrics.CheckoutMetrics;
+import com.toolstore.demo.service.AuditLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+public class AuditConfig {
+
+    // Its counts are exported with the checkout metrics
+    @Bean(destroyMethod = "close")
+    public AuditLog auditLog(@Value("${checkout.audit.enabled:true}") boolean enabled,
+                             @Value("${checkout.audit.path:logs/audit.log}") Path path,
+                             @Value("${checkout.audit.capacity:4096}") int capacity,
+                             @Value("${checkout.audit.overflow-policy:drop}") AuditLog.OverflowPolicy overflowPolicy,
+                             @Value("${checkout.audit.sample-rate:10}") int sampleRate,
+                             @Value("${checkout.audit.max-batch:512}") int maxBatch,
+                             CheckoutMetrics checkoutMetrics,
+                             JsonMapper jsonMapper) throws IOException {
+        AuditLog auditLog = enabled
+                ? AuditLog.open(path, jsonMapper, capacity, overflowPolicy, sampleRate, maxBatch)
+                : AuditLog.disabled();
+        checkoutMetrics.exportAudit(auditLog::snapshot);
+        return auditLog;
+    }
+}
@@ -0,0 +1,25 @@
+package com.toolstore.demo.config;
+
+import com.toolstore.demo.repository.AgreementJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+public class JournalConfig {
+
+    @Bean(destroyMethod = "close")
+    public AgreementJournal agreementJournal(@Value("${checkout.journal.enabled:true}") boolean enabled,
+                                             @Value("${checkout.journal.path:data/agreements.journal}") Path path,
+                                             @Value("${checkout.journal.group-commit:true}") boolean groupCommit,
+                                             @Value("${checkout.journal.max-batch:256}") int maxBatch) throws IOException {
+        if (!enabled) {
+            return AgreementJournal.disabled();
+        }
+
+        return AgreementJournal.open(path, groupCommit, maxBatch);
+    }
+}
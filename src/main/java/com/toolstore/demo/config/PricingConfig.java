@@ -0,0 +1,48 @@
+package com.toolstore.demo.config;
+
+import com.toolstore.demo.service.HolidayCalendars;
+import com.toolstore.demo.service.PricingEngine;
+import com.toolstore.demo.service.PricingRulesReloader;
+import com.toolstore.demo.service.QuoteCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+public class PricingConfig {
+
+    // Loaded once, unlike the pricing rules holiday calendars are not reloaded while the app runs
+    @Bean
+    public HolidayCalendars holidayCalendars(@Value("${checkout.holidays.path:}") String calendarsPath)
+            throws IOException {
+        return HolidayCalendars.load(toPath(calendarsPath));
+    }
+
+    @Bean
+    public PricingEngine pricingEngine(HolidayCalendars holidayCalendars,
+                                       @Value("${checkout.pricing.rules-path:}") String rulesPath) throws IOException {
+        return new PricingEngine(holidayCalendars, PricingRulesReloader.loadInitial(toPath(rulesPath)));
+    }
+
+    @Bean(destroyMethod = "close")
+    public PricingRulesReloader pricingRulesReloader(PricingEngine pricingEngine,
+                                                     QuoteCache quoteCache,
+                                                     @Value("${checkout.pricing.rules-path:}") String rulesPath,
+                                                     @Value("${checkout.pricing.reload-interval:5s}") Duration interval) {
+        Path path = toPath(rulesPath);
+        if (path == null) {
+            return PricingRulesReloader.disabled();
+        }
+
+        return PricingRulesReloader.watch(path, pricingEngine, quoteCache, interval);
+    }
+
+    // Blank means the bundled file only, with nothing to watch
+    private static Path toPath(String path) {
+        return path.isBlank() ? null : Path.of(path);
+    }
+}
@@ -0,0 +1,26 @@
+package com.toolstore.demo.config;
+
+import com.toolstore.demo.codec.CheckoutJsonHttpMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.databind.json.JsonMapper;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final JsonMapper jsonMapper;
+    private final int maxBodyBytes;
+
+    public WebConfig(JsonMapper jsonMapper, @Value("${checkout.request.max-body-bytes:8192}") int maxBodyBytes) {
+        this.jsonMapper = jsonMapper;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    // Custom converters are consulted before the defaults, so the checkout types never reach Jackson
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        builder.addCustomConverter(new CheckoutJsonHttpMessageConverter(jsonMapper, maxBodyBytes));
+    }
+}
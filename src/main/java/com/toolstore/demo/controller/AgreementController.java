@@ -0,0 +1,52 @@
+package com.toolstore.demo.controller;
+
+import com.toolstore.demo.model.AgreementPage;
+import com.toolstore.demo.model.RentalAgreement;
+import com.toolstore.demo.repository.AgreementQuery;
+import com.toolstore.demo.repository.AgreementStore;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+// Lookups over the agreement store for operations, never on the checkout path, so created on first use
+@Lazy
+@RestController
+@RequestMapping("/api/agreements")
+public class AgreementController {
+
+    private final AgreementStore agreementStore;
+
+    public AgreementController(AgreementStore agreementStore) {
+        this.agreementStore = agreementStore;
+    }
+
+    // Every parameter is optional. Pass the previous page's next as after to get the page that follows
+    @GetMapping
+    public ResponseEntity<AgreementPage> find(
+            @RequestParam(required = false) String toolCode,
+            @RequestParam(required = false) String toolType,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "MM/dd/yy") LocalDate checkoutFrom,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "MM/dd/yy") LocalDate checkoutTo,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "MM/dd/yy") LocalDate dueFrom,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "MM/dd/yy") LocalDate dueTo,
+            @RequestParam(defaultValue = "-1") long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        AgreementQuery query = new AgreementQuery(toolCode, toolType, checkoutFrom, checkoutTo, dueFrom, dueTo);
+        return ResponseEntity.ok(agreementStore.query(query, after, limit));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<RentalAgreement> get(@PathVariable long id) {
+        if (id < 0 || id >= agreementStore.size()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(agreementStore.get(id).toAgreement());
+    }
+}
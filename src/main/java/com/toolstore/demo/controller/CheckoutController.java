@@ -1,36 +1,150 @@
 package com.toolstore.demo.controller;
 
+import com.toolstore.demo.dto.AvailabilityResponse;
+import com.toolstore.demo.dto.CartCheckoutRequest;
 import com.toolstore.demo.dto.CheckoutRequest;
+import com.toolstore.demo.dto.CheckoutResult;
+import com.toolstore.demo.exception.CheckoutException;
+import com.toolstore.demo.metrics.CheckoutMetrics;
+import com.toolstore.demo.model.CartAgreement;
 import com.toolstore.demo.model.RentalAgreement;
+import com.toolstore.demo.service.AuditLog;
+import com.toolstore.demo.service.BatchCheckoutService;
 import com.toolstore.demo.service.CheckoutService;
-import com.toolstore.demo.view.RentalAgreementFormatter;
-import jakarta.validation.Valid;
+import com.toolstore.demo.service.CheckoutValidator;
+import com.toolstore.demo.service.StreamingCheckoutService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/checkout")
 public class CheckoutController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final CheckoutService checkoutService;
+    private final BatchCheckoutService batchCheckoutService;
+    private final StreamingCheckoutService streamingCheckoutService;
+    private final AuditLog auditLog;
+    private final CheckoutMetrics checkoutMetrics;
 
-    public CheckoutController(CheckoutService checkoutService) {
+    // The batch and stream services are injected as lazy proxies, so they are not created until first used
+    public CheckoutController(CheckoutService checkoutService,
+                              @Lazy BatchCheckoutService batchCheckoutService,
+                              @Lazy StreamingCheckoutService streamingCheckoutService,
+                              AuditLog auditLog,
+                              CheckoutMetrics checkoutMetrics) {
         this.checkoutService = checkoutService;
+        this.batchCheckoutService = batchCheckoutService;
+        this.streamingCheckoutService = streamingCheckoutService;
+        this.auditLog = auditLog;
+        this.checkoutMetrics = checkoutMetrics;
     }
 
     @PostMapping
-    public ResponseEntity<RentalAgreement> checkout(@Valid @RequestBody CheckoutRequest request) {
-        System.out.println("Received Checkout Request: " + request);
+    public ResponseEntity<RentalAgreement> checkout(@RequestBody CheckoutRequest request) {
+        requireValid(request);
+
         RentalAgreement agreement = checkoutService.checkout(
                 request.toolCode(),
                 request.rentalDayCount(),
                 request.discountPercent(),
-                request.checkoutDate()
+                request.checkoutDate(),
+                request.region()
         );
 
-        System.out.println("Checkout Successful. Generated Agreement:");
-        System.out.println(RentalAgreementFormatter.format(agreement));
+        // Written to the audit log in the background, never on the request thread
+        auditLog.checkout(agreement);
 
         return ResponseEntity.ok(agreement);
     }
+
+    // Same as checkout, but the request thread is handed back to the server while the journal makes the
+    // agreement durable. The response is written once the returned future completes
+    @PostMapping("/async")
+    public CompletableFuture<RentalAgreement> checkoutAsync(@RequestBody CheckoutRequest request) {
+        requireValid(request);
+
+        return checkoutService.checkoutAsync(
+                request.toolCode(),
+                request.rentalDayCount(),
+                request.discountPercent(),
+                request.checkoutDate(),
+                request.region()
+        ).thenApply(agreement -> {
+            auditLog.checkout(agreement);
+            return agreement;
+        });
+    }
+
+    // All of the cart's tools are checked out or none are, an invalid or unavailable line rejects the whole cart
+    @PostMapping("/cart")
+    public ResponseEntity<CartAgreement> checkoutCart(@RequestBody CartCheckoutRequest request) {
+        CartAgreement cart = checkoutService.checkoutCart(request.checkoutRequests(), request.region());
+
+        cart.lines().forEach(auditLog::checkout);
+
+        return ResponseEntity.ok(cart);
+    }
+
+    // Items are validated individually, an invalid item gets an error entry instead of failing the batch
+    @PostMapping("/batch")
+    public ResponseEntity<List<CheckoutResult>> checkoutBatch(@RequestBody List<CheckoutRequest> requests) {
+        List<CheckoutResult> results = batchCheckoutService.checkoutAll(requests);
+
+        for (CheckoutResult result : results) {
+            if (result.agreement() != null) {
+                auditLog.checkout(result.agreement());
+            }
+        }
+
+        return ResponseEntity.ok(results);
+    }
+
+    // Newline-delimited JSON in and out, each line is answered as soon as it is priced
+    @PostMapping(path = "/stream", consumes = NDJSON, produces = NDJSON)
+    public void checkoutStream(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        streamingCheckoutService.checkoutAll(body, response.getOutputStream());
+    }
+
+    // Returned today unless returnDate says otherwise
+    @PostMapping("/{toolCode}/return")
+    public ResponseEntity<Void> returnTool(
+            @PathVariable String toolCode,
+            @RequestParam @DateTimeFormat(pattern = "MM/dd/yy") LocalDate checkoutDate,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "MM/dd/yy") LocalDate returnDate) {
+        checkoutService.returnTool(toolCode, checkoutDate, returnDate != null ? returnDate : LocalDate.now());
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{toolCode}/availability")
+    public ResponseEntity<AvailabilityResponse> availability(@PathVariable String toolCode,
+                                                             @RequestParam @DateTimeFormat(pattern = "MM/dd/yy") LocalDate startDate,
+                                                             @RequestParam int rentalDayCount) {
+        return ResponseEntity.ok(new AvailabilityResponse(
+                checkoutService.isAvailable(toolCode, startDate, rentalDayCount),
+                checkoutService.nextAvailableDate(toolCode, startDate, rentalDayCount)
+        ));
+    }
+
+    // Requests rejected here never reach the service, so their outcome is recorded here instead
+    private void requireValid(CheckoutRequest request) {
+        long start = System.nanoTime();
+        try {
+            CheckoutValidator.requireValid(request);
+        } catch (CheckoutException ex) {
+            checkoutMetrics.recordRejected(CheckoutMetrics.Operation.CHECKOUT, null, ex.getErrorCode(), start);
+            throw ex;
+        }
+    }
 }
\ No newline at end of file
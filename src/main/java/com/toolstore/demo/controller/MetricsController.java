@@ -0,0 +1,51 @@
+package com.toolstore.demo.controller;
+
+import com.toolstore.demo.metrics.AuditSnapshot;
+import com.toolstore.demo.metrics.CheckoutMetrics;
+import com.toolstore.demo.metrics.MetricSnapshot;
+import com.toolstore.demo.metrics.WarmupSnapshot;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// Only scraped now and then, so created on the first scrape rather than at startup
+@Lazy
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private static final MediaType PROMETHEUS_TEXT =
+            MediaType.parseMediaType("text/plain; version=0.0.4; charset=utf-8");
+
+    private final CheckoutMetrics checkoutMetrics;
+
+    public MetricsController(CheckoutMetrics checkoutMetrics) {
+        this.checkoutMetrics = checkoutMetrics;
+    }
+
+    // Latencies are in nanoseconds, one entry per operation, tool type and outcome seen since startup
+    @GetMapping
+    public ResponseEntity<List<MetricSnapshot>> metrics() {
+        return ResponseEntity.ok(checkoutMetrics.snapshot());
+    }
+
+    @GetMapping("/warmup")
+    public ResponseEntity<WarmupSnapshot> warmup() {
+        return ResponseEntity.ok(checkoutMetrics.warmup());
+    }
+
+    @GetMapping("/audit")
+    public ResponseEntity<AuditSnapshot> audit() {
+        return ResponseEntity.ok(checkoutMetrics.audit());
+    }
+
+    @GetMapping("/prometheus")
+    public ResponseEntity<String> prometheus() {
+        return ResponseEntity.ok().contentType(PROMETHEUS_TEXT).body(checkoutMetrics.prometheus());
+    }
+}
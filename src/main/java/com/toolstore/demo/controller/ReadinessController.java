@@ -0,0 +1,27 @@
+package com.toolstore.demo.controller;
+
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// For load balancer and orchestrator probes. The server is listening before startup warm-up has finished,
+// this only answers 200 once it has
+@RestController
+public class ReadinessController {
+
+    private final ApplicationAvailability applicationAvailability;
+
+    public ReadinessController(ApplicationAvailability applicationAvailability) {
+        this.applicationAvailability = applicationAvailability;
+    }
+
+    @GetMapping("/api/ready")
+    public ResponseEntity<ReadinessState> ready() {
+        ReadinessState state = applicationAvailability.getReadinessState();
+        HttpStatus status = state == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(state);
+    }
+}
@@ -0,0 +1,34 @@
+package com.toolstore.demo.controller;
+
+import com.toolstore.demo.dto.RevenueReport;
+import com.toolstore.demo.service.AgreementAnalytics;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+// Finance reports over the stored agreements, never on the checkout path, so created on first use
+@Lazy
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    private final AgreementAnalytics agreementAnalytics;
+
+    public ReportController(AgreementAnalytics agreementAnalytics) {
+        this.agreementAnalytics = agreementAnalytics;
+    }
+
+    // A single day when to is left out
+    @GetMapping("/revenue")
+    public ResponseEntity<RevenueReport> revenue(
+            @RequestParam @DateTimeFormat(pattern = "MM/dd/yy") LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "MM/dd/yy") LocalDate to) {
+        return ResponseEntity.ok(agreementAnalytics.report(from, to != null ? to : from));
+    }
+}
@@ -0,0 +1,12 @@
+package com.toolstore.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+
+// Whether a tool is free for the requested range, and the earliest start date that would be
+public record AvailabilityResponse(boolean available,
+                                   @JsonFormat(pattern = "MM/dd/yy")
+                                   LocalDate nextAvailableDate) {
+
+}
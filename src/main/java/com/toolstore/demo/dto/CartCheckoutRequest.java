@@ -0,0 +1,45 @@
+package com.toolstore.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Several tools checked out together. The cart's rental day count, discount and checkout date apply to every line
+// that leaves them out, a line that sets its own keeps it. The whole cart is priced in one region
+public record CartCheckoutRequest(Integer rentalDayCount,
+                                  Integer discountPercent,
+                                  @JsonFormat(pattern = "MM/dd/yy")
+                                  LocalDate checkoutDate,
+                                  String region,
+                                  List<Line> lines) {
+
+    public record Line(String toolCode,
+                       Integer rentalDayCount,
+                       Integer discountPercent,
+                       @JsonFormat(pattern = "MM/dd/yy")
+                       LocalDate checkoutDate) {
+    }
+
+    // Each line with the cart's values filled in, ready for CheckoutValidator. The region stays with the cart
+    public List<CheckoutRequest> checkoutRequests() {
+        if (lines == null) {
+            return List.of();
+        }
+
+        List<CheckoutRequest> requests = new ArrayList<>(lines.size());
+        for (Line line : lines) {
+            if (line == null) {
+                requests.add(null);
+                continue;
+            }
+            requests.add(new CheckoutRequest(
+                    line.toolCode(),
+                    line.rentalDayCount() != null ? line.rentalDayCount() : rentalDayCount,
+                    line.discountPercent() != null ? line.discountPercent() : discountPercent,
+                    line.checkoutDate() != null ? line.checkoutDate() : checkoutDate));
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,22 @@
+package com.toolstore.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.toolstore.demo.exception.ErrorResponse;
+import com.toolstore.demo.model.RentalAgreement;
+
+// Outcome of one item in a bulk checkout, exactly one of the two fields is set
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CheckoutResult(RentalAgreement agreement, ErrorResponse error) {
+
+    public static CheckoutResult success(RentalAgreement agreement) {
+        return new CheckoutResult(agreement, null);
+    }
+
+    public static CheckoutResult failure(String message) {
+        return failure(new ErrorResponse(message));
+    }
+
+    public static CheckoutResult failure(ErrorResponse error) {
+        return new CheckoutResult(null, error);
+    }
+}
@@ -0,0 +1,27 @@
+package com.toolstore.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// Revenue over the agreements checked out from..to, in total and by tool type, brand and week, and how many of
+// those days each tool code was out on rental. Weeks start on Monday and are keyed by that date
+public record RevenueReport(@JsonFormat(pattern = "MM/dd/yy")
+                            LocalDate from,
+                            @JsonFormat(pattern = "MM/dd/yy")
+                            LocalDate to,
+                            Line total,
+                            List<Line> byToolType,
+                            List<Line> byBrand,
+                            List<Line> byWeek,
+                            List<Utilization> utilization) {
+
+    public record Line(String key, long agreements, BigDecimal revenue, BigDecimal discount, long chargeDays) {
+    }
+
+    // rentedDays out of days, the length of the report period
+    public record Utilization(String toolCode, long rentedDays, long days, BigDecimal utilization) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.toolstore.demo.exception;
+
+// Expected business error. Invalid input is common enough that the stack trace would be most of the cost,
+// and it never points anywhere useful, so none is captured
+public class CheckoutException extends IllegalArgumentException {
+
+    private final ErrorCode errorCode;
+    private final ErrorResponse errorResponse;
+
+    public CheckoutException(ErrorCode errorCode, ErrorResponse errorResponse) {
+        super(errorResponse.message());
+        this.errorCode = errorCode;
+        this.errorResponse = errorResponse;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    // Shared instance, safe to hand to any number of responses
+    public ErrorResponse getErrorResponse() {
+        return errorResponse;
+    }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,62 @@
+package com.toolstore.demo.exception;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Expected business errors. A fixed message shares one ErrorResponse, a message naming a tool is cached per tool code
+public enum ErrorCode {
+
+    CHECKOUT_REQUEST_REQUIRED("Checkout request is required"),
+    MALFORMED_CHECKOUT_REQUEST("Malformed checkout request"),
+    TOOL_CODE_REQUIRED("Tool code is required"),
+    RENTAL_DAY_COUNT_REQUIRED("Rental day count is required"),
+    RENTAL_DAY_COUNT_TOO_LOW("Rental day count must be 1 or greater"),
+    RENTAL_DAY_COUNT_TOO_HIGH("Rental day count must be at most 3650"),
+    DISCOUNT_PERCENT_REQUIRED("Discount percent is required"),
+    DISCOUNT_PERCENT_OUT_OF_RANGE("Discount percent must be between 0 and 100"),
+    CHECKOUT_DATE_REQUIRED("Checkout date is required"),
+    TOOL_NOT_FOUND("Tool not found: "),
+    TOOL_NOT_AVAILABLE("Tool not available: "),
+    TOOL_NOT_CHECKED_OUT("Tool is not checked out: "),
+    UNKNOWN_REGION("Unknown region: "),
+    CART_EMPTY("Cart has no lines"),
+    CART_TOO_LARGE("Cart can have at most 100 lines"),
+    BATCH_TOO_LARGE("Batch has too many items");
+
+    // Unknown tool codes come straight from clients, so only this many are remembered per error
+    private static final int MAX_CACHED_TOOL_CODES = 1024;
+
+    private final String message;
+    private final ErrorResponse response;
+    private final Map<String, ErrorResponse> responsesByToolCode = new ConcurrentHashMap<>();
+
+    ErrorCode(String message) {
+        this.message = message;
+        this.response = new ErrorResponse(message);
+    }
+
+    public ErrorResponse response() {
+        return response;
+    }
+
+    public ErrorResponse response(String toolCode) {
+        ErrorResponse cached = toolCode != null ? responsesByToolCode.get(toolCode) : null;
+        if (cached != null) {
+            return cached;
+        }
+
+        ErrorResponse created = new ErrorResponse(message + toolCode);
+        if (toolCode != null && responsesByToolCode.size() < MAX_CACHED_TOOL_CODES) {
+            responsesByToolCode.putIfAbsent(toolCode, created);
+        }
+        return created;
+    }
+
+    public CheckoutException exception() {
+        return new CheckoutException(this, response);
+    }
+
+    public CheckoutException exception(String toolCode) {
+        return new CheckoutException(this, response(toolCode));
+    }
+}
@@ -4,38 +4,39 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.validation.FieldError;
-import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
-    // Handles Business Rule Validations (e.g., Rental days < 1, Discount % range)
+    // Expected rejections are logged at most once per interval, with a count of the ones skipped in between
+    private static final long REJECTION_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong nextRejectionLog = new AtomicLong(System.nanoTime());
+    private final LongAdder unloggedRejections = new LongAdder();
+
+    // Handles expected business errors (unknown tool, rental days < 1, discount % range), no stack trace and a shared body
+    @ExceptionHandler(CheckoutException.class)
+    public ResponseEntity<ErrorResponse> handleCheckoutRejected(CheckoutException ex) {
+        logRejection(ex.getErrorCode(), ex.getMessage());
+        return new ResponseEntity<>(ex.getErrorResponse(), HttpStatus.BAD_REQUEST);
+    }
+
+    // Handles other rejected input (e.g., a report range that ends before it starts), as rare and cheap to log as
+    // the business errors above
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleBusinessValidation(IllegalArgumentException ex) {
-        logger.error("Checkout Validation Failed: {}", ex.getMessage());
+        logRejection("INVALID_ARGUMENT", ex.getMessage());
         return buildResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
-    // Handles JSR-303 / Spring Boot Request Body Validations
-    @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ErrorResponse> handleMethodArgumentNotValid(MethodArgumentNotValidException ex) {
-        String message = ex.getBindingResult()
-                .getFieldErrors()
-                .stream()
-                .map(FieldError::getDefaultMessage)
-                .collect(Collectors.joining(", "));
-
-        logger.error("Request Body Invalid: {}", message);
-        return buildResponse(message, HttpStatus.BAD_REQUEST);
-    }
-
     // Catch-all for unexpected internal errors
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneralException(Exception ex) {
@@ -43,6 +44,22 @@ public class GlobalExceptionHandler {
         return buildResponse("An internal error occurred. Please contact support.", HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    private void logRejection(Object reason, String message) {
+        if (!logger.isDebugEnabled()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long next = nextRejectionLog.get();
+        if (now - next < 0 || !nextRejectionLog.compareAndSet(next, now + REJECTION_LOG_INTERVAL_NANOS)) {
+            unloggedRejections.increment();
+            return;
+        }
+
+        logger.debug("Checkout rejected ({}): {}, {} more since the last one logged",
+                reason, message, unloggedRejections.sumThenReset());
+    }
+
     // Helper method to centralize response creation (SRP)
     private ResponseEntity<ErrorResponse> buildResponse(String message, HttpStatus status) {
         ErrorResponse error = new ErrorResponse(
@@ -0,0 +1,7 @@
+package com.toolstore.demo.metrics;
+
+// Audit log entries written and dropped since startup, and how many are queued for the writer right now
+public record AuditSnapshot(long written,
+                            long dropped,
+                            int pending) {
+}
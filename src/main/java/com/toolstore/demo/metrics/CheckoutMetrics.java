@@ -0,0 +1,231 @@
+package com.toolstore.demo.metrics;
+
+import com.toolstore.demo.exception.ErrorCode;
+import com.toolstore.demo.model.ToolType;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+// In-process latency histograms and throughput counts, broken down by operation, tool type and outcome.
+// Every combination has a fixed slot, so recording is an array lookup and a few adder increments with no allocation.
+// Histograms are only created for combinations that actually occur.
+@Component
+public class CheckoutMetrics {
+
+    public enum Operation {
+        CHECKOUT("checkout"),
+        CHARGE_DAYS("charge_days"),
+        CART_CHECKOUT("cart_checkout");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    // Used when a request fails before its tool is known
+    private static final String NO_TOOL_TYPE = "none";
+    private static final String SUCCESS = "success";
+    private static final String FAILED = "error";
+
+    private static final ToolType[] TOOL_TYPES = ToolType.values();
+    private static final ErrorCode[] ERROR_CODES = ErrorCode.values();
+    private static final String[] OUTCOMES = outcomeLabels();
+
+    private static final int SUCCESS_OUTCOME = 0;
+    private static final int FAILED_OUTCOME = 1;
+    private static final int FIRST_REJECTED_OUTCOME = 2;
+
+    private static final int TOOL_TYPE_SLOTS = TOOL_TYPES.length + 1;
+    private static final int SLOTS_PER_OPERATION = TOOL_TYPE_SLOTS * OUTCOMES.length;
+
+    private final AtomicReferenceArray<LatencyHistogram> histograms =
+            new AtomicReferenceArray<>(Operation.values().length * SLOTS_PER_OPERATION);
+
+    // Set once each, -1 until then. The first checkout is whatever arrives first after startup, warmed up or not
+    private final AtomicLong warmupIterations = new AtomicLong(-1);
+    private final AtomicLong warmupNanos = new AtomicLong(-1);
+    private final AtomicLong firstCheckoutNanos = new AtomicLong(-1);
+
+    // The audit log counts its own entries, this only reads them when asked. Null until the audit log is created
+    private volatile Supplier<AuditSnapshot> audit;
+
+    public void recordSuccess(Operation operation, ToolType toolType, long startNanos) {
+        record(operation, toolType, SUCCESS_OUTCOME, startNanos);
+    }
+
+    public void recordRejected(Operation operation, ToolType toolType, ErrorCode errorCode, long startNanos) {
+        record(operation, toolType, FIRST_REJECTED_OUTCOME + errorCode.ordinal(), startNanos);
+    }
+
+    public void recordFailed(Operation operation, ToolType toolType, long startNanos) {
+        record(operation, toolType, FAILED_OUTCOME, startNanos);
+    }
+
+    public void recordWarmup(long iterations, long startNanos) {
+        warmupNanos.set(System.nanoTime() - startNanos);
+        warmupIterations.set(iterations);
+    }
+
+    public WarmupSnapshot warmup() {
+        return new WarmupSnapshot(warmupIterations.get(), warmupNanos.get(), firstCheckoutNanos.get());
+    }
+
+    public void exportAudit(Supplier<AuditSnapshot> audit) {
+        this.audit = audit;
+    }
+
+    // All zero while there is no audit log
+    public AuditSnapshot audit() {
+        Supplier<AuditSnapshot> source = audit;
+        return source != null ? source.get() : new AuditSnapshot(0, 0, 0);
+    }
+
+    public List<MetricSnapshot> snapshot() {
+        List<MetricSnapshot> snapshots = new ArrayList<>();
+
+        for (int slot = 0; slot < histograms.length(); slot++) {
+            LatencyHistogram histogram = histograms.get(slot);
+            if (histogram == null) {
+                continue;
+            }
+
+            LatencyHistogram.Snapshot values = histogram.snapshot();
+            int operation = slot / SLOTS_PER_OPERATION;
+            int toolType = slot % SLOTS_PER_OPERATION / OUTCOMES.length;
+            int outcome = slot % OUTCOMES.length;
+
+            snapshots.add(new MetricSnapshot(
+                    Operation.values()[operation].label(),
+                    toolType == 0 ? NO_TOOL_TYPE : TOOL_TYPES[toolType - 1].name(),
+                    OUTCOMES[outcome],
+                    values.count(),
+                    values.sumNanos(),
+                    values.p50Nanos(),
+                    values.p99Nanos(),
+                    values.p999Nanos(),
+                    values.maxNanos()));
+        }
+
+        return snapshots;
+    }
+
+    // Prometheus text exposition format, one summary per operation with latencies in seconds
+    public String prometheus() {
+        List<MetricSnapshot> snapshots = snapshot();
+        StringBuilder out = new StringBuilder(256 + snapshots.size() * 512);
+
+        for (Operation operation : Operation.values()) {
+            String name = "toolstore_" + operation.label() + "_duration_seconds";
+            out.append("# HELP ").append(name).append(' ').append(operation.label())
+                    .append(" latency by tool type and outcome\n");
+            out.append("# TYPE ").append(name).append(" summary\n");
+
+            for (MetricSnapshot snapshot : snapshots) {
+                if (!snapshot.operation().equals(operation.label())) {
+                    continue;
+                }
+
+                String labels = "tool_type=\"" + snapshot.toolType() + "\",outcome=\"" + snapshot.outcome() + "\"";
+                appendSample(out, name, labels + ",quantile=\"0.5\"", seconds(snapshot.p50Nanos()));
+                appendSample(out, name, labels + ",quantile=\"0.99\"", seconds(snapshot.p99Nanos()));
+                appendSample(out, name, labels + ",quantile=\"0.999\"", seconds(snapshot.p999Nanos()));
+                appendSample(out, name + "_sum", labels, seconds(snapshot.sumNanos()));
+                appendSample(out, name + "_count", labels, Long.toString(snapshot.count()));
+            }
+
+            String maxName = name + "_max";
+            out.append("# HELP ").append(maxName).append(" Slowest ").append(operation.label())
+                    .append(" since startup\n");
+            out.append("# TYPE ").append(maxName).append(" gauge\n");
+
+            for (MetricSnapshot snapshot : snapshots) {
+                if (snapshot.operation().equals(operation.label())) {
+                    appendSample(out, maxName,
+                            "tool_type=\"" + snapshot.toolType() + "\",outcome=\"" + snapshot.outcome() + "\"",
+                            seconds(snapshot.maxNanos()));
+                }
+            }
+        }
+
+        WarmupSnapshot warmup = warmup();
+        appendGauge(out, "toolstore_warmup_duration_seconds", "Time spent warming up before accepting traffic",
+                warmup.durationNanos() < 0 ? null : seconds(warmup.durationNanos()));
+        appendGauge(out, "toolstore_warmup_iterations", "Synthetic checkouts run during warm-up",
+                warmup.iterations() < 0 ? null : Long.toString(warmup.iterations()));
+        appendGauge(out, "toolstore_first_checkout_duration_seconds", "Latency of the first checkout after startup",
+                warmup.firstCheckoutNanos() < 0 ? null : seconds(warmup.firstCheckoutNanos()));
+
+        if (audit != null) {
+            AuditSnapshot counts = audit();
+            appendMetric(out, "toolstore_audit_entries_written_total", "counter",
+                    "Audit log entries written since startup", Long.toString(counts.written()));
+            appendMetric(out, "toolstore_audit_entries_dropped_total", "counter",
+                    "Audit log entries lost to overflow or write failures since startup",
+                    Long.toString(counts.dropped()));
+            appendGauge(out, "toolstore_audit_entries_pending", "Audit log entries waiting for the writer",
+                    Integer.toString(counts.pending()));
+        }
+
+        return out.toString();
+    }
+
+    private void record(Operation operation, ToolType toolType, int outcome, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        int toolTypeSlot = toolType == null ? 0 : toolType.ordinal() + 1;
+        int slot = operation.ordinal() * SLOTS_PER_OPERATION + toolTypeSlot * OUTCOMES.length + outcome;
+
+        LatencyHistogram histogram = histograms.get(slot);
+        if (histogram == null) {
+            histograms.compareAndSet(slot, null, new LatencyHistogram());
+            histogram = histograms.get(slot);
+        }
+        histogram.record(elapsed);
+
+        if (operation == Operation.CHECKOUT && firstCheckoutNanos.get() < 0) {
+            firstCheckoutNanos.compareAndSet(-1, elapsed);
+        }
+    }
+
+    // Left out entirely while the value is not known yet
+    private static void appendGauge(StringBuilder out, String name, String help, String value) {
+        if (value == null) {
+            return;
+        }
+        appendMetric(out, name, "gauge", help, value);
+    }
+
+    private static void appendMetric(StringBuilder out, String name, String type, String help, String value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void appendSample(StringBuilder out, String name, String labels, String value) {
+        out.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1_000_000_000.0);
+    }
+
+    private static String[] outcomeLabels() {
+        String[] labels = new String[FIRST_REJECTED_OUTCOME + ERROR_CODES.length];
+        labels[SUCCESS_OUTCOME] = SUCCESS;
+        labels[FAILED_OUTCOME] = FAILED;
+        for (ErrorCode errorCode : ERROR_CODES) {
+            labels[FIRST_REJECTED_OUTCOME + errorCode.ordinal()] = errorCode.name().toLowerCase(Locale.ROOT);
+        }
+        return labels;
+    }
+}
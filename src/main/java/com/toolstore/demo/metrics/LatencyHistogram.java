@@ -0,0 +1,97 @@
+package com.toolstore.demo.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Log-linear histogram of nanosecond latencies: every power of two is split into 32 buckets, so a reported
+// percentile is within about 3% of the true value. Buckets are striped adders, recording never blocks and
+// concurrent recorders only contend when they hit the same bucket cell.
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // 2^40 ns is about 18 minutes, anything longer lands in the last bucket
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+
+        buckets[indexOf(value)].increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    // Buckets are read one at a time while others may still be recording, close enough for monitoring
+    Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+
+        long maxNanos = max.get();
+        return new Snapshot(count, sum.sum(),
+                valueAt(counts, count, 0.5, maxNanos),
+                valueAt(counts, count, 0.99, maxNanos),
+                valueAt(counts, count, 0.999, maxNanos),
+                maxNanos);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    // Largest value that is counted in the bucket at index
+    static long highestValueIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    private static long valueAt(long[] counts, long count, double percentile, long maxNanos) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    record Snapshot(long count, long sumNanos, long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.toolstore.demo.metrics;
+
+// One operation, tool type and outcome. count is the throughput counter, latencies are in nanoseconds
+public record MetricSnapshot(String operation,
+                             String toolType,
+                             String outcome,
+                             long count,
+                             long sumNanos,
+                             long p50Nanos,
+                             long p99Nanos,
+                             long p999Nanos,
+                             long maxNanos) {
+}
@@ -0,0 +1,8 @@
+package com.toolstore.demo.metrics;
+
+// Startup warm-up and the latency of the first checkout after it, in nanoseconds. -1 while not known yet,
+// iterations and duration stay -1 when warm-up is turned off
+public record WarmupSnapshot(long iterations,
+                             long durationNanos,
+                             long firstCheckoutNanos) {
+}
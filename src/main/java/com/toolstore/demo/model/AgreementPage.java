@@ -0,0 +1,7 @@
+package com.toolstore.demo.model;
+
+import java.util.List;
+
+// One page of stored agreements in id order. next is the cursor for the following page, null on the last one
+public record AgreementPage(List<StoredAgreement> agreements, Long next) {
+}
@@ -0,0 +1,11 @@
+package com.toolstore.demo.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// One rental agreement per cart line, in the order the lines were given, and the charges summed over all of them
+public record CartAgreement(List<RentalAgreement> lines,
+                            BigDecimal preDiscountCharge,
+                            BigDecimal discountAmount,
+                            BigDecimal finalCharge) {
+}
@@ -0,0 +1,14 @@
+package com.toolstore.demo.model;
+
+// Charges for one rental in whole cents, kept as primitives so pricing allocates nothing
+public record PriceQuote(int chargeDays, long dailyChargeCents, long preDiscountCents, long discountCents, long finalCents) {
+
+    // preDiscountCents is summed by the caller, the days of one rental can be charged different rates
+    public static PriceQuote of(long dailyChargeCents, int chargeDays, long preDiscountCents, int discountPercent) {
+        // Same as BigDecimal HALF_UP to cents, amounts are never negative
+        long discountCents = (preDiscountCents * discountPercent + 50) / 100;
+
+        return new PriceQuote(chargeDays, dailyChargeCents, preDiscountCents, discountCents,
+                preDiscountCents - discountCents);
+    }
+}
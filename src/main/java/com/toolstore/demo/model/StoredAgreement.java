@@ -0,0 +1,5 @@
+package com.toolstore.demo.model;
+
+// An agreement and its id in the agreement store, the id GET /api/agreements/{id} takes
+public record StoredAgreement(long id, RentalAgreement agreement) {
+}
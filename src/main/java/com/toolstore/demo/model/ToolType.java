@@ -1,27 +1,8 @@
 package com.toolstore.demo.model;
 
-import lombok.Getter;
-
-import java.math.BigDecimal;
-
-@Getter
+// Rates and which days are charged come from the pricing rules, see PricingRules
 public enum ToolType {
-    LADDER(new BigDecimal("1.99"), true, true, false),
-    CHAINSAW(new BigDecimal("1.49"), true, false, true),
-    JACKHAMMER(new BigDecimal("2.99"), true, false, false);
-
-    private final BigDecimal dailyCharge;
-    private final boolean weekdayCharge;
-    private final boolean weekendCharge;
-    private final boolean holidayCharge;
-
-    ToolType(BigDecimal dailyCharge, boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
-        this.dailyCharge = dailyCharge;
-        this.weekdayCharge = weekdayCharge;
-        this.weekendCharge = weekendCharge;
-        this.holidayCharge = holidayCharge;
-    }
-
-    // TODO: Encapsulate charging logic
-    //public boolean isChargeableOn(boolean weekday, boolean holiday, boolean weekend) {
-}
\ No newline at end of file
+    LADDER,
+    CHAINSAW,
+    JACKHAMMER
+}
@@ -0,0 +1,510 @@
+package com.toolstore.demo.repository;
+
+import com.toolstore.demo.model.RentalAgreement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+// Append-only file of checkouts and returns, each record framed as [length][crc32][payload].
+// With group commit a single writer thread batches whatever records are waiting into one write and one fsync,
+// so concurrent checkouts share the cost of durability. append only returns once its record is on disk.
+public class AgreementJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgreementJournal.class);
+
+    private static final byte CHECKOUT_RECORD = 1;
+    private static final byte RETURN_RECORD = 2;
+    private static final byte CART_RECORD = 3;
+    private static final int FRAME_HEADER_BYTES = 8;
+    private static final int MAX_PAYLOAD_BYTES = 64 * 1024;
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final int CENTS_SCALE = 2;
+
+    // Callbacks on appendCheckoutAsync run on their own virtual thread, never on the writer thread,
+    // so a slow callback can't hold up the next fsync
+    private static final Executor CALLBACKS = Thread::startVirtualThread;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final boolean groupCommit;
+    private final int maxBatch;
+    private final BlockingQueue<PendingWrite> pending;
+    private final ReentrantLock directWriteLock = new ReentrantLock();
+    private final Thread writer;
+    // Only set to false under the write lock, and queueing holds the read lock, see enqueue
+    private final ReentrantReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private volatile boolean open;
+    // Set when a failed write could not be cut off again, every later write fails with it
+    private volatile IOException failure;
+
+    private AgreementJournal(Path path, FileChannel channel, boolean groupCommit, int maxBatch) {
+        this.path = path;
+        this.channel = channel;
+        this.groupCommit = groupCommit;
+        this.maxBatch = maxBatch;
+        this.open = channel != null;
+        this.pending = groupCommit ? new ArrayBlockingQueue<>(QUEUE_CAPACITY) : null;
+
+        if (open && groupCommit) {
+            this.writer = Thread.ofPlatform().name("agreement-journal").daemon().start(this::writeLoop);
+        } else {
+            this.writer = null;
+        }
+    }
+
+    // Opens or creates the journal, cutting off a torn or corrupt tail left by a crash
+    public static AgreementJournal open(Path path, boolean groupCommit, int maxBatch) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        return open(path, FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE), groupCommit, maxBatch);
+    }
+
+    // Takes over a channel already open on path
+    static AgreementJournal open(Path path, FileChannel channel, boolean groupCommit, int maxBatch)
+            throws IOException {
+        long validLength = readRecords(path, payload -> { });
+        if (channel.size() > validLength) {
+            logger.warn("Truncating journal {} from {} to {} bytes after an incomplete write",
+                    path, channel.size(), validLength);
+            channel.truncate(validLength);
+            channel.force(true);
+        }
+        channel.position(validLength);
+
+        return new AgreementJournal(path, channel, groupCommit, maxBatch);
+    }
+
+    // Journal that records nothing, for when durability is switched off
+    public static AgreementJournal disabled() {
+        return new AgreementJournal(null, null, false, 1);
+    }
+
+    public void appendCheckout(RentalAgreement agreement) {
+        append(encodeCheckout(agreement));
+    }
+
+    // Completes once the record is on disk, without a thread waiting for it. Without group commit the record
+    // is written before returning and the future is already complete
+    public CompletableFuture<Void> appendCheckoutAsync(RentalAgreement agreement) {
+        return appendAsync(encodeCheckout(agreement));
+    }
+
+    // Every agreement of a cart in one record, so after a crash either all of them are replayed or none are
+    public void appendCart(List<RentalAgreement> agreements) {
+        append(encodeCart(agreements));
+    }
+
+    public void appendReturn(String toolCode, LocalDate checkoutDate, LocalDate returnDate) {
+        append(encodeReturn(toolCode, checkoutDate, returnDate));
+    }
+
+    // Feeds every record in the journal, in write order, to the matching callback
+    public void replay(Consumer<RentalAgreement> checkouts, ReturnHandler returns) throws IOException {
+        if (path == null) {
+            return;
+        }
+
+        readRecords(path, payload -> decode(payload, checkouts, returns));
+    }
+
+    public boolean isEnabled() {
+        return channel != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            return;
+        }
+        stopAccepting();
+
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            failPending(new IOException("Agreement journal is closed"));
+        }
+        channel.close();
+    }
+
+    private void append(byte[] payload) {
+        if (channel == null) {
+            return;
+        }
+        if (!open) {
+            throw new IllegalStateException("Agreement journal is closed");
+        }
+
+        if (failure != null) {
+            throw new UncheckedIOException("Agreement journal failed", failure);
+        }
+
+        ByteBuffer frame = frame(payload);
+
+        if (!groupCommit) {
+            directWriteLock.lock();
+            long start = -1;
+            try {
+                start = channel.position();
+                writeFully(frame);
+                channel.force(false);
+            } catch (IOException ex) {
+                if (start >= 0) {
+                    rollBack(start, ex);
+                }
+                throw new UncheckedIOException("Failed to write agreement journal", ex);
+            } finally {
+                directWriteLock.unlock();
+            }
+            return;
+        }
+
+        PendingWrite write = new PendingWrite(frame);
+        try {
+            if (!enqueue(write)) {
+                throw new IllegalStateException("Agreement journal is closed");
+            }
+            write.durable.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the agreement journal", ex);
+        } catch (CompletionException ex) {
+            throw new UncheckedIOException("Failed to write agreement journal", (IOException) ex.getCause());
+        }
+    }
+
+    private CompletableFuture<Void> appendAsync(byte[] payload) {
+        if (channel == null || !groupCommit || !open) {
+            try {
+                append(payload);
+                return CompletableFuture.completedFuture(null);
+            } catch (RuntimeException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        }
+
+        PendingWrite write = new PendingWrite(frame(payload));
+        try {
+            // Only waits when QUEUE_CAPACITY writes are already queued
+            if (!enqueue(write)) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Agreement journal is closed"));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Interrupted while waiting for the agreement journal", ex));
+        }
+
+        return write.durable.handleAsync((ignored, ex) -> {
+            if (ex != null) {
+                throw new UncheckedIOException("Failed to write agreement journal", (IOException) ex);
+            }
+            return null;
+        }, CALLBACKS);
+    }
+
+    // Queues a write unless the journal has stopped taking them. open only turns false under the write lock, so a
+    // write is either queued before that, and then written or failed by whoever stops the writer, or not at all
+    private boolean enqueue(PendingWrite write) throws InterruptedException {
+        while (true) {
+            stateLock.readLock().lockInterruptibly();
+            try {
+                if (!open) {
+                    return false;
+                }
+                // A bounded wait, so a full queue never holds off close or the writer's exit for long
+                if (pending.offer(write, 10, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            } finally {
+                stateLock.readLock().unlock();
+            }
+        }
+    }
+
+    private void stopAccepting() {
+        stateLock.writeLock().lock();
+        try {
+            open = false;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    private void failPending(IOException cause) {
+        List<PendingWrite> left = new ArrayList<>();
+        pending.drainTo(left);
+        left.forEach(write -> write.durable.completeExceptionally(cause));
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatch);
+        try {
+            writeBatches(batch);
+        } finally {
+            // Nothing can be queued once open is false, so whatever is still waiting now never would be written
+            stopAccepting();
+            IOException stopped = new IOException("Agreement journal writer stopped");
+            batch.forEach(write -> write.durable.completeExceptionally(stopped));
+            failPending(stopped);
+        }
+    }
+
+    private void writeBatches(List<PendingWrite> batch) {
+        while (open || !pending.isEmpty()) {
+            try {
+                PendingWrite first = pending.poll(50, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pending.drainTo(batch, maxBatch - 1);
+
+                if (failure != null) {
+                    IOException failed = failure;
+                    batch.forEach(write -> write.durable.completeExceptionally(failed));
+                    batch.clear();
+                    continue;
+                }
+
+                // One gathering write and one fsync for the whole batch
+                long start = -1;
+                try {
+                    start = channel.position();
+                    ByteBuffer[] frames = new ByteBuffer[batch.size()];
+                    for (int i = 0; i < frames.length; i++) {
+                        frames[i] = batch.get(i).frame;
+                    }
+                    while (frames[frames.length - 1].hasRemaining()) {
+                        channel.write(frames);
+                    }
+                    channel.force(false);
+                    batch.forEach(write -> write.durable.complete(null));
+                } catch (IOException ex) {
+                    logger.error("Failed to write agreement journal", ex);
+                    if (start >= 0) {
+                        rollBack(start, ex);
+                    }
+                    batch.forEach(write -> write.durable.completeExceptionally(ex));
+                }
+                batch.clear();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Cuts off whatever part of a failed write reached the file. Left in place, it would be a torn frame that
+    // replay stops at, and open would truncate every acknowledged record written after it. If the file can't be
+    // cut back, the journal refuses every later write instead
+    private void rollBack(long position, IOException cause) {
+        try {
+            channel.truncate(position);
+            channel.position(position);
+        } catch (IOException ex) {
+            logger.error("Failed to roll back agreement journal {} to {} bytes, refusing further writes",
+                    path, position, ex);
+            cause.addSuppressed(ex);
+            failure = cause;
+        }
+    }
+
+    private void writeFully(ByteBuffer frame) throws IOException {
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    // Returns the length of the valid prefix, reading stops at the first incomplete or corrupt record
+    private static long readRecords(Path path, Consumer<byte[]> payloads) throws IOException {
+        long validLength = 0;
+
+        try (InputStream file = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+            while (true) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length <= 0 || length > MAX_PAYLOAD_BYTES) {
+                    break;
+                }
+
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                if (checksum != checksum(payload)) {
+                    break;
+                }
+
+                payloads.accept(payload);
+                validLength += FRAME_HEADER_BYTES + length;
+            }
+        } catch (EOFException ex) {
+            // Clean end of file or a record cut short by a crash
+        }
+
+        return validLength;
+    }
+
+    private static ByteBuffer frame(byte[] payload) {
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + payload.length);
+        frame.putInt(payload.length).putInt(checksum(payload)).put(payload).flip();
+        return frame;
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encodeCheckout(RentalAgreement agreement) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(CHECKOUT_RECORD);
+            writeAgreement(out, agreement);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeCart(List<RentalAgreement> agreements) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + 96 * agreements.size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(CART_RECORD);
+            out.writeShort(agreements.size());
+            for (RentalAgreement agreement : agreements) {
+                writeAgreement(out, agreement);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeReturn(String toolCode, LocalDate checkoutDate, LocalDate returnDate) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(RETURN_RECORD);
+            out.writeUTF(toolCode);
+            out.writeInt((int) checkoutDate.toEpochDay());
+            out.writeInt((int) returnDate.toEpochDay());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void decode(byte[] payload, Consumer<RentalAgreement> checkouts,
+                               ReturnHandler returns) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte type = in.readByte();
+
+            if (type == RETURN_RECORD) {
+                String toolCode = in.readUTF();
+                LocalDate checkoutDate = LocalDate.ofEpochDay(in.readInt());
+                returns.accept(toolCode, checkoutDate, LocalDate.ofEpochDay(in.readInt()));
+                return;
+            }
+            if (type == CART_RECORD) {
+                int count = in.readUnsignedShort();
+                for (int i = 0; i < count; i++) {
+                    checkouts.accept(readAgreement(in));
+                }
+                return;
+            }
+
+            checkouts.accept(readAgreement(in));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Dates as epoch days and money as cents
+    private static void writeAgreement(DataOutputStream out, RentalAgreement agreement) throws IOException {
+        out.writeUTF(agreement.getToolCode());
+        out.writeUTF(agreement.getToolType());
+        out.writeUTF(agreement.getToolBrand());
+        out.writeInt(agreement.getRentalDays());
+        out.writeInt((int) agreement.getCheckoutDate().toEpochDay());
+        out.writeInt((int) agreement.getDueDate().toEpochDay());
+        out.writeLong(toCents(agreement.getDailyRentalCharge()));
+        out.writeInt(agreement.getChargeDays());
+        out.writeLong(toCents(agreement.getPreDiscountCharge()));
+        out.writeByte(agreement.getDiscountPercent());
+        out.writeLong(toCents(agreement.getDiscountAmount()));
+        out.writeLong(toCents(agreement.getFinalCharge()));
+    }
+
+    private static RentalAgreement readAgreement(DataInputStream in) throws IOException {
+        return RentalAgreement.builder()
+                .toolCode(in.readUTF())
+                .toolType(in.readUTF())
+                .toolBrand(in.readUTF())
+                .rentalDays(in.readInt())
+                .checkoutDate(LocalDate.ofEpochDay(in.readInt()))
+                .dueDate(LocalDate.ofEpochDay(in.readInt()))
+                .dailyRentalCharge(BigDecimal.valueOf(in.readLong(), CENTS_SCALE))
+                .chargeDays(in.readInt())
+                .preDiscountCharge(BigDecimal.valueOf(in.readLong(), CENTS_SCALE))
+                .discountPercent(in.readByte())
+                .discountAmount(BigDecimal.valueOf(in.readLong(), CENTS_SCALE))
+                .finalCharge(BigDecimal.valueOf(in.readLong(), CENTS_SCALE))
+                .build();
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(CENTS_SCALE).longValueExact();
+    }
+
+    // A journaled return
+    @FunctionalInterface
+    public interface ReturnHandler {
+
+        void accept(String toolCode, LocalDate checkoutDate, LocalDate returnDate);
+    }
+
+    private static final class PendingWrite {
+
+        private final ByteBuffer frame;
+        private final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        private PendingWrite(ByteBuffer frame) {
+            this.frame = frame;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.toolstore.demo.repository;
+
+import java.time.LocalDate;
+
+// Conditions on stored agreements, all of which must hold. A null condition matches everything, date ranges are
+// inclusive on both ends and may be open on either
+public record AgreementQuery(String toolCode,
+                             String toolType,
+                             LocalDate checkoutFrom,
+                             LocalDate checkoutTo,
+                             LocalDate dueFrom,
+                             LocalDate dueTo) {
+
+    public static AgreementQuery all() {
+        return new AgreementQuery(null, null, null, null, null, null);
+    }
+}
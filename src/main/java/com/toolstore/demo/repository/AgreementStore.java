@@ -0,0 +1,441 @@
+package com.toolstore.demo.repository;
+
+import com.toolstore.demo.model.AgreementPage;
+import com.toolstore.demo.model.RentalAgreement;
+import com.toolstore.demo.model.StoredAgreement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Every recorded rental agreement, kept resident outside the heap so millions of them cost the garbage collector
+// nothing. Each agreement is one fixed-width record: money as cents, dates as epoch days, and tool code, type and
+// brand as ids into small dictionaries. Records live in chunks of off-heap memory allocated as the store grows,
+// never copied, and an agreement's id is its position, so finding one is a shift and a mask.
+// Tool code, tool type, checkout date and due date are indexed as agreements are appended, for queries that
+// don't scan the store. A single writer appends, any number of threads read what has been appended
+public class AgreementStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgreementStore.class);
+
+    // Record layout, every field aligned to its own size
+    static final long RECORD_BYTES = 56;
+    static final long DAILY_CHARGE_CENTS = 0;
+    static final long PRE_DISCOUNT_CENTS = 8;
+    static final long DISCOUNT_CENTS = 16;
+    static final long FINAL_CENTS = 24;
+    static final long CHECKOUT_EPOCH_DAY = 32;
+    static final long DUE_EPOCH_DAY = 36;
+    static final long CHARGE_DAYS = 40;
+    static final long RENTAL_DAYS = 44;
+    static final long TOOL_CODE_ID = 48;
+    static final long TOOL_TYPE_ID = 50;
+    static final long TOOL_BRAND_ID = 52;
+    static final long DISCOUNT_PERCENT = 54;
+
+    private static final int CENTS_SCALE = 2;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final AgreementPage EMPTY_PAGE = new AgreementPage(List.of(), null);
+
+    private final Arena arena;
+    private final int chunkShift;
+    private final long chunkMask;
+    private final long maxRecords;
+    private final StringDictionary toolCodes = new StringDictionary();
+    private final StringDictionary toolTypes = new StringDictionary();
+    private final StringDictionary toolBrands = new StringDictionary();
+
+    // Replaced, never modified, when a chunk is added. size is written last, so a reader that sees an id below
+    // it also sees the record, its chunk and its dictionary entries
+    private volatile MemorySegment[] chunks = new MemorySegment[0];
+    private volatile long size;
+    private boolean open;
+    private boolean reportedFull;
+
+    // Secondary indexes, added to only after size is published so every id in them can be read. Tool code and
+    // type lists are indexed by dictionary id, which is handed out in order, dates by epoch day
+    private volatile IdList[] byToolCode = new IdList[0];
+    private volatile IdList[] byToolType = new IdList[0];
+    private final ConcurrentSkipListMap<Integer, IdList> byCheckoutDay = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Integer, IdList> byDueDay = new ConcurrentSkipListMap<>();
+
+    // Returns in the order they were recorded: the returned agreement's id and the day it came back. The arrays are
+    // replaced when they grow and returnCount is written last, so a reader that sees a count sees its entries
+    private volatile long[] returnedIds = new long[8];
+    private volatile int[] returnDays = new int[8];
+    private volatile int returnCount;
+
+    private AgreementStore(Arena arena, int chunkRecords, long maxRecords) {
+        this.arena = arena;
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkRecords);
+        this.chunkMask = chunkRecords - 1;
+        this.maxRecords = maxRecords;
+        this.open = arena != null;
+    }
+
+    // chunkRecords agreements are allocated at a time, up to maxRecords in all
+    public static AgreementStore open(int chunkRecords, long maxRecords) {
+        if (chunkRecords < 1 || Integer.bitCount(chunkRecords) != 1) {
+            throw new IllegalArgumentException("Agreement store chunk size must be a power of two");
+        }
+        if (maxRecords < 1) {
+            throw new IllegalArgumentException("Agreement store capacity must be 1 or greater");
+        }
+
+        return new AgreementStore(Arena.ofShared(), chunkRecords, maxRecords);
+    }
+
+    // Store that keeps nothing, for services that should leave no history behind
+    public static AgreementStore disabled() {
+        return new AgreementStore(null, 1, 1);
+    }
+
+    // The new agreement's id, or -1 when the store is disabled, closed or full. A full store keeps what it has
+    public synchronized long append(RentalAgreement agreement) {
+        if (!open) {
+            return -1;
+        }
+        long id = size;
+        if (id == maxRecords) {
+            if (!reportedFull) {
+                reportedFull = true;
+                logger.warn("Agreement store is full at {} agreements, later agreements are not kept", maxRecords);
+            }
+            return -1;
+        }
+
+        int chunk = (int) (id >>> chunkShift);
+        MemorySegment[] current = chunks;
+        if (chunk == current.length) {
+            current = Arrays.copyOf(current, chunk + 1);
+            current[chunk] = arena.allocate(RECORD_BYTES << chunkShift, Long.BYTES);
+            chunks = current;
+        }
+
+        int toolCodeId = toolCodes.add(agreement.getToolCode());
+        int toolTypeId = toolTypes.add(agreement.getToolType());
+        int checkoutDay = (int) agreement.getCheckoutDate().toEpochDay();
+        int dueDay = (int) agreement.getDueDate().toEpochDay();
+
+        MemorySegment record = current[chunk];
+        long offset = (id & chunkMask) * RECORD_BYTES;
+        record.set(ValueLayout.JAVA_LONG, offset + DAILY_CHARGE_CENTS, toCents(agreement.getDailyRentalCharge()));
+        record.set(ValueLayout.JAVA_LONG, offset + PRE_DISCOUNT_CENTS, toCents(agreement.getPreDiscountCharge()));
+        record.set(ValueLayout.JAVA_LONG, offset + DISCOUNT_CENTS, toCents(agreement.getDiscountAmount()));
+        record.set(ValueLayout.JAVA_LONG, offset + FINAL_CENTS, toCents(agreement.getFinalCharge()));
+        record.set(ValueLayout.JAVA_INT, offset + CHECKOUT_EPOCH_DAY, checkoutDay);
+        record.set(ValueLayout.JAVA_INT, offset + DUE_EPOCH_DAY, dueDay);
+        record.set(ValueLayout.JAVA_INT, offset + CHARGE_DAYS, agreement.getChargeDays());
+        record.set(ValueLayout.JAVA_INT, offset + RENTAL_DAYS, agreement.getRentalDays());
+        record.set(ValueLayout.JAVA_SHORT, offset + TOOL_CODE_ID, (short) toolCodeId);
+        record.set(ValueLayout.JAVA_SHORT, offset + TOOL_TYPE_ID, (short) toolTypeId);
+        record.set(ValueLayout.JAVA_SHORT, offset + TOOL_BRAND_ID, (short) toolBrands.add(agreement.getToolBrand()));
+        record.set(ValueLayout.JAVA_BYTE, offset + DISCOUNT_PERCENT, (byte) agreement.getDiscountPercent());
+
+        size = id + 1;
+
+        byToolCode = index(byToolCode, toolCodeId, id);
+        byToolType = index(byToolType, toolTypeId, id);
+        byCheckoutDay.computeIfAbsent(checkoutDay, day -> new IdList()).add(id);
+        byDueDay.computeIfAbsent(dueDay, day -> new IdList()).add(id);
+        return id;
+    }
+
+    // Records that the agreement of toolCode checked out on checkoutDate came back on returnDate, the latest such
+    // agreement if the tool was booked from that day more than once. False when none is stored
+    public synchronized boolean recordReturn(String toolCode, LocalDate checkoutDate, LocalDate returnDate) {
+        if (!open) {
+            return false;
+        }
+        int toolCodeId = toolCodes.find(toolCode);
+        if (toolCodeId < 0) {
+            return false;
+        }
+
+        IdList list = list(byToolCode, toolCodeId);
+        long[] ids = list.ids();
+        int checkoutDay = (int) checkoutDate.toEpochDay();
+        AgreementView view = new AgreementView(this);
+        for (int i = list.size() - 1; i >= 0; i--) {
+            view.moveTo(ids[i]);
+            if (view.checkoutEpochDay() == checkoutDay) {
+                int count = returnCount;
+                if (count == returnedIds.length) {
+                    returnedIds = Arrays.copyOf(returnedIds, count * 2);
+                    returnDays = Arrays.copyOf(returnDays, count * 2);
+                }
+                returnedIds[count] = ids[i];
+                returnDays[count] = (int) returnDate.toEpochDay();
+                returnCount = count + 1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int returnCount() {
+        return returnCount;
+    }
+
+    // index must be below a returnCount() read earlier
+    public long returnedId(int index) {
+        return returnedIds[index];
+    }
+
+    public int returnEpochDay(int index) {
+        return returnDays[index];
+    }
+
+    // One page of the agreements that match, in id order, starting after the id given (-1 for the first page).
+    // Each condition's index says how many agreements it could match, the one with the fewest supplies the
+    // candidates and the rest are checked on the candidates' records. Intersecting costs the size of the smallest
+    // index result, however large the others or the store are
+    public AgreementPage query(AgreementQuery query, long after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (!isEnabled()) {
+            return EMPTY_PAGE;
+        }
+
+        Conditions conditions = new Conditions(
+                query.toolCode() != null ? toolCodes.find(query.toolCode()) : Conditions.ANY,
+                query.toolType() != null ? toolTypes.find(query.toolType()) : Conditions.ANY,
+                fromDay(query.checkoutFrom()), toDay(query.checkoutTo()),
+                fromDay(query.dueFrom()), toDay(query.dueTo()));
+        if (conditions.toolCodeId() == Conditions.UNKNOWN || conditions.toolTypeId() == Conditions.UNKNOWN) {
+            return EMPTY_PAGE;
+        }
+
+        // Only the smallest index result is ever copied, null candidates stand for every id in the store
+        long candidateCount = size;
+        Supplier<Candidates> candidates = null;
+        if (query.toolCode() != null) {
+            IdList list = list(byToolCode, conditions.toolCodeId());
+            int count = list.size();
+            if (count < candidateCount) {
+                candidateCount = count;
+                candidates = () -> Candidates.of(list);
+            }
+        }
+        if (query.toolType() != null) {
+            IdList list = list(byToolType, conditions.toolTypeId());
+            int count = list.size();
+            if (count < candidateCount) {
+                candidateCount = count;
+                candidates = () -> Candidates.of(list);
+            }
+        }
+        if (query.checkoutFrom() != null || query.checkoutTo() != null) {
+            Collection<IdList> days = days(byCheckoutDay, conditions.checkoutFrom(), conditions.checkoutTo());
+            long count = count(days, candidateCount);
+            if (count < candidateCount) {
+                candidateCount = count;
+                candidates = () -> Candidates.of(days);
+            }
+        }
+        if (query.dueFrom() != null || query.dueTo() != null) {
+            Collection<IdList> days = days(byDueDay, conditions.dueFrom(), conditions.dueTo());
+            long count = count(days, candidateCount);
+            if (count < candidateCount) {
+                candidates = () -> Candidates.of(days);
+            }
+        }
+
+        long[] ids = null;
+        long start = Math.max(after + 1, 0);
+        long end = size;
+        if (candidates != null) {
+            Candidates chosen = candidates.get();
+            int found = Arrays.binarySearch(chosen.ids(), 0, chosen.count(), after);
+            ids = chosen.ids();
+            start = found >= 0 ? found + 1 : -found - 1;
+            end = chosen.count();
+        }
+
+        AgreementView view = new AgreementView(this);
+        List<StoredAgreement> page = new ArrayList<>(Math.min(limit, 64));
+        long last = -1;
+        for (long i = start; i < end; i++) {
+            view.moveTo(ids == null ? i : ids[(int) i]);
+            if (!conditions.matches(view)) {
+                continue;
+            }
+            if (page.size() == limit) {
+                return new AgreementPage(page, last);
+            }
+            page.add(new StoredAgreement(view.id(), view.toAgreement()));
+            last = view.id();
+        }
+        return new AgreementPage(page, null);
+    }
+
+    // A view that reads the record in place, nothing is decoded until a getter is called
+    public AgreementView get(long id) {
+        AgreementView view = new AgreementView(this);
+        view.moveTo(id);
+        return view;
+    }
+
+    // Every agreement in id order through one reused view, so a scan allocates nothing per agreement.
+    // The view is only valid inside the callback
+    public void forEach(Consumer<AgreementView> action) {
+        forEach(0, size, action);
+    }
+
+    // Ids from fromId up to but not including toId, which must already be stored
+    public void forEach(long fromId, long toId, Consumer<AgreementView> action) {
+        AgreementView view = new AgreementView(this);
+        for (long id = fromId; id < toId; id++) {
+            view.moveTo(id);
+            action.accept(view);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    // Off-heap bytes allocated so far, whole chunks
+    public long allocatedBytes() {
+        return chunks.length * (RECORD_BYTES << chunkShift);
+    }
+
+    public boolean isEnabled() {
+        return arena != null;
+    }
+
+    // Frees the off-heap memory, views must not be read afterwards
+    @Override
+    public synchronized void close() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        arena.close();
+    }
+
+    MemorySegment chunk(long id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No agreement with id " + id);
+        }
+        return chunks[(int) (id >>> chunkShift)];
+    }
+
+    long offset(long id) {
+        return (id & chunkMask) * RECORD_BYTES;
+    }
+
+    // The values behind the dictionary ids a view reports
+    public String toolCode(int id) {
+        return toolCodes.value(id);
+    }
+
+    public String toolType(int id) {
+        return toolTypes.value(id);
+    }
+
+    public String toolBrand(int id) {
+        return toolBrands.value(id);
+    }
+
+    // Adds a list the first time a dictionary id is seen, dictionary ids only ever grow by one
+    private static IdList[] index(IdList[] lists, int key, long id) {
+        if (key == lists.length) {
+            lists = Arrays.copyOf(lists, key + 1);
+            lists[key] = new IdList();
+        }
+        lists[key].add(id);
+        return lists;
+    }
+
+    // An empty list for a dictionary id that has no agreements indexed yet
+    private static IdList list(IdList[] lists, int key) {
+        return key < lists.length ? lists[key] : new IdList();
+    }
+
+    private static Collection<IdList> days(ConcurrentSkipListMap<Integer, IdList> index, int from, int to) {
+        return from > to ? List.of() : index.subMap(from, true, to, true).values();
+    }
+
+    // Ids booked on the days, counting stops once it passes bound
+    private static long count(Collection<IdList> days, long bound) {
+        long count = 0;
+        for (IdList day : days) {
+            count += day.size();
+            if (count > bound) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private static int fromDay(LocalDate date) {
+        return date != null ? (int) date.toEpochDay() : Integer.MIN_VALUE;
+    }
+
+    private static int toDay(LocalDate date) {
+        return date != null ? (int) date.toEpochDay() : Integer.MAX_VALUE;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(CENTS_SCALE).longValueExact();
+    }
+
+    // Sorted ids, only the first count are valid
+    private record Candidates(long[] ids, int count) {
+
+        static Candidates of(IdList list) {
+            int count = list.size();
+            return new Candidates(list.ids(), count);
+        }
+
+        // Each day's ids are sorted, across days they are not
+        static Candidates of(Collection<IdList> days) {
+            long[] ids = new long[16];
+            int count = 0;
+            for (IdList day : days) {
+                int dayCount = day.size();
+                if (count + dayCount > ids.length) {
+                    ids = Arrays.copyOf(ids, Math.max(ids.length * 2, count + dayCount));
+                }
+                System.arraycopy(day.ids(), 0, ids, count, dayCount);
+                count += dayCount;
+            }
+            Arrays.sort(ids, 0, count);
+            return new Candidates(ids, count);
+        }
+    }
+
+    // A query's conditions in stored form, checked against one record at a time
+    private record Conditions(int toolCodeId, int toolTypeId, int checkoutFrom, int checkoutTo, int dueFrom,
+                              int dueTo) {
+
+        static final int ANY = -2;
+        static final int UNKNOWN = -1;
+
+        boolean matches(AgreementView view) {
+            if (toolCodeId != ANY && view.toolCodeId() != toolCodeId) {
+                return false;
+            }
+            if (toolTypeId != ANY && view.toolTypeId() != toolTypeId) {
+                return false;
+            }
+            int checkoutDay = view.checkoutEpochDay();
+            int dueDay = view.dueEpochDay();
+            return checkoutDay >= checkoutFrom && checkoutDay <= checkoutTo && dueDay >= dueFrom && dueDay <= dueTo;
+        }
+    }
+}
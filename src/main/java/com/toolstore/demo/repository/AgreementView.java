@@ -0,0 +1,124 @@
+package com.toolstore.demo.repository;
+
+import com.toolstore.demo.model.RentalAgreement;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One stored agreement read in place. The primitive getters and the dictionary strings allocate nothing,
+// toAgreement copies the whole record back onto the heap for callers that need a RentalAgreement
+public final class AgreementView {
+
+    private static final int CENTS_SCALE = 2;
+
+    private final AgreementStore store;
+    private long id;
+    private MemorySegment chunk;
+    private long offset;
+
+    AgreementView(AgreementStore store) {
+        this.store = store;
+    }
+
+    void moveTo(long id) {
+        this.chunk = store.chunk(id);
+        this.offset = store.offset(id);
+        this.id = id;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public String toolCode() {
+        return store.toolCode(toolCodeId());
+    }
+
+    public String toolType() {
+        return store.toolType(toolTypeId());
+    }
+
+    public String toolBrand() {
+        return store.toolBrand(toolBrandId());
+    }
+
+    public int rentalDays() {
+        return chunk.get(ValueLayout.JAVA_INT, offset + AgreementStore.RENTAL_DAYS);
+    }
+
+    public int checkoutEpochDay() {
+        return chunk.get(ValueLayout.JAVA_INT, offset + AgreementStore.CHECKOUT_EPOCH_DAY);
+    }
+
+    public int dueEpochDay() {
+        return chunk.get(ValueLayout.JAVA_INT, offset + AgreementStore.DUE_EPOCH_DAY);
+    }
+
+    public LocalDate checkoutDate() {
+        return LocalDate.ofEpochDay(checkoutEpochDay());
+    }
+
+    public LocalDate dueDate() {
+        return LocalDate.ofEpochDay(dueEpochDay());
+    }
+
+    public long dailyChargeCents() {
+        return chunk.get(ValueLayout.JAVA_LONG, offset + AgreementStore.DAILY_CHARGE_CENTS);
+    }
+
+    public int chargeDays() {
+        return chunk.get(ValueLayout.JAVA_INT, offset + AgreementStore.CHARGE_DAYS);
+    }
+
+    public long preDiscountCents() {
+        return chunk.get(ValueLayout.JAVA_LONG, offset + AgreementStore.PRE_DISCOUNT_CENTS);
+    }
+
+    public int discountPercent() {
+        return chunk.get(ValueLayout.JAVA_BYTE, offset + AgreementStore.DISCOUNT_PERCENT);
+    }
+
+    public long discountCents() {
+        return chunk.get(ValueLayout.JAVA_LONG, offset + AgreementStore.DISCOUNT_CENTS);
+    }
+
+    public long finalCents() {
+        return chunk.get(ValueLayout.JAVA_LONG, offset + AgreementStore.FINAL_CENTS);
+    }
+
+    public RentalAgreement toAgreement() {
+        return RentalAgreement.builder()
+                .toolCode(toolCode())
+                .toolType(toolType())
+                .toolBrand(toolBrand())
+                .rentalDays(rentalDays())
+                .checkoutDate(checkoutDate())
+                .dueDate(dueDate())
+                .dailyRentalCharge(BigDecimal.valueOf(dailyChargeCents(), CENTS_SCALE))
+                .chargeDays(chargeDays())
+                .preDiscountCharge(BigDecimal.valueOf(preDiscountCents(), CENTS_SCALE))
+                .discountPercent(discountPercent())
+                .discountAmount(BigDecimal.valueOf(discountCents(), CENTS_SCALE))
+                .finalCharge(BigDecimal.valueOf(finalCents(), CENTS_SCALE))
+                .build();
+    }
+
+    // Dictionary ids, small and dense, for grouping in arrays. AgreementStore maps them back to values
+    public int toolCodeId() {
+        return dictionaryId(AgreementStore.TOOL_CODE_ID);
+    }
+
+    public int toolTypeId() {
+        return dictionaryId(AgreementStore.TOOL_TYPE_ID);
+    }
+
+    public int toolBrandId() {
+        return dictionaryId(AgreementStore.TOOL_BRAND_ID);
+    }
+
+    private int dictionaryId(long field) {
+        return Short.toUnsignedInt(chunk.get(ValueLayout.JAVA_SHORT, offset + field));
+    }
+}
@@ -0,0 +1,32 @@
+package com.toolstore.demo.repository;
+
+import java.util.Arrays;
+
+// Agreement ids in ascending order, one list per index key. Appended by the store's single writer and read by any
+// thread: a reader takes size first, then the array. Both are volatile and the array is published before the size,
+// so the array a reader gets, even one grown since, holds at least size ids and its copied contents are visible
+final class IdList {
+
+    private volatile long[] ids = new long[8];
+    private volatile int size;
+
+    void add(long id) {
+        int count = size;
+        long[] current = ids;
+        if (count == current.length) {
+            current = Arrays.copyOf(current, count * 2);
+            ids = current;
+        }
+        current[count] = id;
+        size = count + 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Only the first size() ids are valid, size must be read before this
+    long[] ids() {
+        return ids;
+    }
+}
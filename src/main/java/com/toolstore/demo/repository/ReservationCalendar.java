@@ -0,0 +1,105 @@
+package com.toolstore.demo.repository;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Bookings of one tool, ordered by start day. Bookings never overlap, so the only candidates for
+// overlapping a new range are the booking starting at or before it and the first one starting after it,
+// which keeps overlap checks, inserts and cancellations at O(log n).
+// A booking covers its start date up to, not including, its end date, so a tool is free again on its due date.
+public class ReservationCalendar {
+
+    // Start epoch day to exclusive end epoch day
+    private final NavigableMap<Long, Long> bookings = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public boolean book(LocalDate startDate, LocalDate endDate) {
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+
+        lock.writeLock().lock();
+        try {
+            if (overlaps(start, end)) {
+                return false;
+            }
+            bookings.put(start, end);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean cancel(LocalDate startDate) {
+        lock.writeLock().lock();
+        try {
+            return bookings.remove(startDate.toEpochDay()) != null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean hasBookingStarting(LocalDate startDate) {
+        lock.readLock().lock();
+        try {
+            return bookings.containsKey(startDate.toEpochDay());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isFree(LocalDate startDate, LocalDate endDate) {
+        lock.readLock().lock();
+        try {
+            return !overlaps(startDate.toEpochDay(), endDate.toEpochDay());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Earliest start on or after fromDate with the given number of free days
+    public LocalDate nextAvailableStart(LocalDate fromDate, int days) {
+        lock.readLock().lock();
+        try {
+            long candidate = fromDate.toEpochDay();
+
+            Map.Entry<Long, Long> before = bookings.floorEntry(candidate);
+            if (before != null && before.getValue() > candidate) {
+                candidate = before.getValue();
+            }
+
+            // Jump to the end of every booking that starts inside the candidate window
+            for (Map.Entry<Long, Long> next = bookings.ceilingEntry(candidate);
+                 next != null && next.getKey() < candidate + days;
+                 next = bookings.ceilingEntry(candidate)) {
+                candidate = next.getValue();
+            }
+
+            return LocalDate.ofEpochDay(candidate);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return bookings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean overlaps(long start, long end) {
+        Map.Entry<Long, Long> before = bookings.floorEntry(start);
+        if (before != null && before.getValue() > start) {
+            return true;
+        }
+
+        Long after = bookings.higherKey(start);
+        return after != null && after < end;
+    }
+}
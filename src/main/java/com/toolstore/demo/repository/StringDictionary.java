@@ -0,0 +1,47 @@
+package com.toolstore.demo.repository;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The few distinct tool codes, types and brands, each given a small id in first-seen order so a stored agreement
+// holds two bytes per string instead of a reference. Ids are never reused. Adding is left to a single writer,
+// looking up is safe from any thread
+final class StringDictionary {
+
+    static final int MAX_SIZE = 1 << 16;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private int size;
+
+    // Only called by the store's writer
+    int add(String value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        if (size == MAX_SIZE) {
+            throw new IllegalStateException("More than " + MAX_SIZE + " distinct values");
+        }
+
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[size] = value;
+        values = current;
+        ids.put(value, size);
+        return size++;
+    }
+
+    // -1 when the value was never added
+    int find(String value) {
+        Integer id = ids.get(value);
+        return id != null ? id : -1;
+    }
+
+    String value(int id) {
+        return values[id];
+    }
+}
@@ -4,29 +4,67 @@ import com.toolstore.demo.model.Tool;
 import com.toolstore.demo.model.ToolType;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+// Tools and their booked date ranges. Every tool owns its own reservation calendar and lock,
+// so checkouts of different tools never contend.
 @Repository
 public class ToolRepository {
 
-    private final Map<String, Tool> tools = new HashMap<>();
+    private final Map<String, Tool> tools;
+    private final Map<String, ReservationCalendar> calendars;
 
     public ToolRepository() {
         // Pre-populate with the 4 tools from specification
-        tools.put("CHNS", new Tool("CHNS", ToolType.CHAINSAW, "Stihl"));
-        tools.put("LADW", new Tool("LADW", ToolType.LADDER, "Werner"));
-        tools.put("JAKD", new Tool("JAKD", ToolType.JACKHAMMER, "DeWalt"));
-        tools.put("JAKR", new Tool("JAKR", ToolType.JACKHAMMER, "Ridgid"));
+        this(List.of(
+                new Tool("CHNS", ToolType.CHAINSAW, "Stihl"),
+                new Tool("LADW", ToolType.LADDER, "Werner"),
+                new Tool("JAKD", ToolType.JACKHAMMER, "DeWalt"),
+                new Tool("JAKR", ToolType.JACKHAMMER, "Ridgid")
+        ));
+    }
+
+    public ToolRepository(List<Tool> inventory) {
+        Map<String, Tool> toolsByCode = new HashMap<>();
+        Map<String, ReservationCalendar> calendarsByCode = new HashMap<>();
+
+        for (Tool tool : inventory) {
+            toolsByCode.put(tool.code(), tool);
+            calendarsByCode.put(tool.code(), new ReservationCalendar());
+        }
+
+        // Never modified after construction, so plain maps are safe to share between threads
+        this.tools = Collections.unmodifiableMap(toolsByCode);
+        this.calendars = Collections.unmodifiableMap(calendarsByCode);
     }
 
     public Optional<Tool> findByCode(String code) {
         return Optional.ofNullable(tools.get(code));
     }
 
+    public Optional<ReservationCalendar> findCalendar(String code) {
+        return Optional.ofNullable(calendars.get(code));
+    }
+
+    // Books the tool from startDate up to endDate, false when the tool is unknown or already booked in that range
+    public boolean reserve(String code, LocalDate startDate, LocalDate endDate) {
+        ReservationCalendar calendar = calendars.get(code);
+        return calendar != null && calendar.book(startDate, endDate);
+    }
+
+    // Cancels the booking starting on startDate, false when there is none
+    public boolean release(String code, LocalDate startDate) {
+        ReservationCalendar calendar = calendars.get(code);
+        return calendar != null && calendar.cancel(startDate);
+    }
+
     // Could be useful?
 //    public Map<String, Tool> findAll() {
 //        return new HashMap<>(tools);
 //    }
-}
\ No newline at end of file
+}
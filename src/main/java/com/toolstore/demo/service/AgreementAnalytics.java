@@ -0,0 +1,302 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.dto.RevenueReport;
+import com.toolstore.demo.repository.AgreementStore;
+import com.toolstore.demo.repository.AgreementView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+
+// Revenue and utilization reports over the agreement store. Totals are rolled up per day into long arrays indexed
+// by the store's dictionary ids: revenue by checkout date, and for utilization how many of each tool go out and come
+// back that day, so a rental touches two days however long it is. A report first folds in only the agreements and
+// returns stored since the previous one, so the days they touch are updated and every other day is reused as is.
+// A backlog larger than leafSize, such as the whole history on the first report after a restart, is split into id
+// ranges that are summed in parallel on the common fork-join pool and merged.
+// Created on first use rather than at startup
+@Lazy
+@Service
+public class AgreementAnalytics {
+
+    private static final DateTimeFormatter WEEK_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yy");
+
+    private final AgreementStore agreementStore;
+    private final int leafSize;
+
+    // All guarded by this
+    private final NavigableMap<Integer, DayTotals> days = new TreeMap<>();
+    private long rolledUp;
+    private int returnsRolledUp;
+
+    public AgreementAnalytics(AgreementStore agreementStore,
+                              @Value("${checkout.analytics.leaf-size:65536}") int leafSize) {
+        if (leafSize < 1) {
+            throw new IllegalArgumentException("Analytics leaf size must be positive");
+        }
+        this.agreementStore = agreementStore;
+        this.leafSize = leafSize;
+    }
+
+    public synchronized RevenueReport report(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Report start must not be after its end");
+        }
+        catchUp();
+
+        Counters total = new Counters();
+        Counters byType = new Counters();
+        Counters byBrand = new Counters();
+        NavigableMap<LocalDate, Counters> byWeek = new TreeMap<>();
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        for (Map.Entry<Integer, DayTotals> entry : days.subMap(fromDay, true, toDay, true).entrySet()) {
+            DayTotals day = entry.getValue();
+            total.addTotal(day.byType);
+            byType.addAll(day.byType);
+            byBrand.addAll(day.byBrand);
+            // Days with only rentals still out have no revenue of their own
+            if (day.hasCheckouts()) {
+                LocalDate week = LocalDate.ofEpochDay(entry.getKey()).with(DayOfWeek.MONDAY);
+                byWeek.computeIfAbsent(week, monday -> new Counters()).addTotal(day.byType);
+            }
+        }
+        long[] rented = rentedDays(fromDay, toDay);
+
+        List<RevenueReport.Line> weeks = new ArrayList<>(byWeek.size());
+        byWeek.forEach((week, counters) -> weeks.add(counters.line(0, week.format(WEEK_FORMAT))));
+        long periodDays = to.toEpochDay() - from.toEpochDay() + 1;
+        List<RevenueReport.Utilization> utilization = new ArrayList<>();
+        for (int toolCodeId = 0; toolCodeId < rented.length; toolCodeId++) {
+            if (rented[toolCodeId] > 0) {
+                utilization.add(new RevenueReport.Utilization(agreementStore.toolCode(toolCodeId),
+                        rented[toolCodeId], periodDays, BigDecimal.valueOf(rented[toolCodeId])
+                        .divide(BigDecimal.valueOf(periodDays), 4, RoundingMode.HALF_UP)));
+            }
+        }
+        utilization.sort(Comparator.comparing(RevenueReport.Utilization::toolCode));
+
+        return new RevenueReport(from, to, total.line(0, "TOTAL"),
+                byType.lines(agreementStore::toolType), byBrand.lines(agreementStore::toolBrand), weeks, utilization);
+    }
+
+    // Days each tool was out from fromDay to toDay, indexed by tool code id. Tools out on a day are the sum of
+    // every earlier day's changes, so this walks each day with changes up to toDay, not each day of every rental
+    private long[] rentedDays(int fromDay, int toDay) {
+        long[] out = new long[0];
+        long[] rented = new long[0];
+        int counted = fromDay;
+        for (Map.Entry<Integer, DayTotals> entry : days.headMap(toDay, true).entrySet()) {
+            int day = entry.getKey();
+            if (day > counted) {
+                rented = plusTimes(rented, out, day - counted);
+                counted = day;
+            }
+            out = plus(out, entry.getValue().outByToolCode);
+        }
+        return plusTimes(rented, out, toDay + 1 - counted);
+    }
+
+    // Folds in the agreements stored since the last call and returns how many there were, then the returns
+    synchronized long catchUp() {
+        // Returns first, so every agreement they name is below end
+        int returnsEnd = agreementStore.returnCount();
+        long end = agreementStore.size();
+        long added = end - rolledUp;
+        if (added > 0) {
+            Map<Integer, DayTotals> totals = added <= leafSize
+                    ? sum(agreementStore, rolledUp, end)
+                    : ForkJoinPool.commonPool().invoke(new RollUp(agreementStore, rolledUp, end, leafSize));
+            totals.forEach((day, dayTotals) -> days.merge(day, dayTotals, DayTotals::merge));
+            rolledUp = end;
+        }
+
+        // An early return moves the day the tool comes back from the due date to the return date
+        for (int i = returnsRolledUp; i < returnsEnd; i++) {
+            AgreementView returned = agreementStore.get(agreementStore.returnedId(i));
+            int checkoutDay = returned.checkoutEpochDay();
+            int dueDay = returned.dueEpochDay();
+            int returnDay = Math.clamp(agreementStore.returnEpochDay(i), checkoutDay, dueDay);
+            if (returnDay < dueDay) {
+                days.computeIfAbsent(dueDay, day -> new DayTotals()).changeOut(returned.toolCodeId(), 1);
+                days.computeIfAbsent(returnDay, day -> new DayTotals()).changeOut(returned.toolCodeId(), -1);
+            }
+        }
+        returnsRolledUp = returnsEnd;
+        return added;
+    }
+
+    synchronized int dayCount() {
+        return days.size();
+    }
+
+    static Map<Integer, DayTotals> sum(AgreementStore store, long fromId, long toId) {
+        Map<Integer, DayTotals> totals = new HashMap<>();
+        store.forEach(fromId, toId, view -> {
+            DayTotals checkout = totals.computeIfAbsent(view.checkoutEpochDay(), day -> new DayTotals());
+            checkout.add(view);
+            checkout.changeOut(view.toolCodeId(), 1);
+            totals.computeIfAbsent(view.dueEpochDay(), day -> new DayTotals()).changeOut(view.toolCodeId(), -1);
+        });
+        return totals;
+    }
+
+    // Merges the smaller map into the larger
+    static Map<Integer, DayTotals> merge(Map<Integer, DayTotals> left, Map<Integer, DayTotals> right) {
+        if (left.size() < right.size()) {
+            return merge(right, left);
+        }
+        right.forEach((day, totals) -> left.merge(day, totals, DayTotals::merge));
+        return left;
+    }
+
+    private static long[] plus(long[] sums, long[] values) {
+        if (sums.length < values.length) {
+            sums = Arrays.copyOf(sums, values.length);
+        }
+        for (int i = 0; i < values.length; i++) {
+            sums[i] += values[i];
+        }
+        return sums;
+    }
+
+    private static long[] plusTimes(long[] sums, long[] values, long times) {
+        if (sums.length < values.length) {
+            sums = Arrays.copyOf(sums, values.length);
+        }
+        for (int i = 0; i < values.length; i++) {
+            sums[i] += values[i] * times;
+        }
+        return sums;
+    }
+
+    // Halves an id range until it is at most leafSize, sums each leaf on its own and merges the halves
+    private static final class RollUp extends RecursiveTask<Map<Integer, DayTotals>> {
+
+        private final AgreementStore store;
+        private final long fromId;
+        private final long toId;
+        private final int leafSize;
+
+        RollUp(AgreementStore store, long fromId, long toId, int leafSize) {
+            this.store = store;
+            this.fromId = fromId;
+            this.toId = toId;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected Map<Integer, DayTotals> compute() {
+            if (toId - fromId <= leafSize) {
+                return sum(store, fromId, toId);
+            }
+            long middle = (fromId + toId) >>> 1;
+            RollUp left = new RollUp(store, fromId, middle, leafSize);
+            left.fork();
+            Map<Integer, DayTotals> right = new RollUp(store, middle, toId, leafSize).compute();
+            return merge(left.join(), right);
+        }
+    }
+
+    // One day: revenue of the agreements checked out on it by tool type and by brand, and by how much the number
+    // of each tool out changes from that day on
+    static final class DayTotals {
+
+        final Counters byType = new Counters();
+        final Counters byBrand = new Counters();
+        long[] outByToolCode = new long[0];
+
+        void add(AgreementView view) {
+            byType.add(view.toolTypeId(), view.finalCents(), view.discountCents(), view.chargeDays());
+            byBrand.add(view.toolBrandId(), view.finalCents(), view.discountCents(), view.chargeDays());
+        }
+
+        boolean hasCheckouts() {
+            return byType.values.length > 0;
+        }
+
+        void changeOut(int toolCodeId, int change) {
+            if (toolCodeId >= outByToolCode.length) {
+                outByToolCode = Arrays.copyOf(outByToolCode, Math.max(toolCodeId + 1, outByToolCode.length * 2));
+            }
+            outByToolCode[toolCodeId] += change;
+        }
+
+        DayTotals merge(DayTotals other) {
+            byType.addAll(other.byType);
+            byBrand.addAll(other.byBrand);
+            outByToolCode = plus(outByToolCode, other.outByToolCode);
+            return this;
+        }
+    }
+
+    // Agreements, revenue cents, discount cents and charge days of each key, at key * FIELDS onwards
+    static final class Counters {
+
+        private static final int FIELDS = 4;
+
+        private long[] values = new long[0];
+
+        void add(int key, long revenueCents, long discountCents, long chargeDays) {
+            int base = key * FIELDS;
+            if (base >= values.length) {
+                values = Arrays.copyOf(values, Math.max(base + FIELDS, values.length * 2));
+            }
+            values[base]++;
+            values[base + 1] += revenueCents;
+            values[base + 2] += discountCents;
+            values[base + 3] += chargeDays;
+        }
+
+        void addAll(Counters other) {
+            values = plus(values, other.values);
+        }
+
+        // Every key of other summed into key 0
+        void addTotal(Counters other) {
+            if (values.length < FIELDS) {
+                values = new long[FIELDS];
+            }
+            for (int i = 0; i < other.values.length; i++) {
+                values[i % FIELDS] += other.values[i];
+            }
+        }
+
+        RevenueReport.Line line(int key, String name) {
+            int base = key * FIELDS;
+            if (base >= values.length) {
+                return new RevenueReport.Line(name, 0, BigDecimal.valueOf(0, 2), BigDecimal.valueOf(0, 2), 0);
+            }
+            return new RevenueReport.Line(name, values[base], BigDecimal.valueOf(values[base + 1], 2),
+                    BigDecimal.valueOf(values[base + 2], 2), values[base + 3]);
+        }
+
+        // One line per key with agreements, by name
+        List<RevenueReport.Line> lines(IntFunction<String> names) {
+            List<RevenueReport.Line> lines = new ArrayList<>();
+            for (int key = 0; key * FIELDS < values.length; key++) {
+                if (values[key * FIELDS] > 0) {
+                    lines.add(line(key, names.apply(key)));
+                }
+            }
+            lines.sort(Comparator.comparing(RevenueReport.Line::key));
+            return lines;
+        }
+    }
+}
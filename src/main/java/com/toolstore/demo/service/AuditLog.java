@@ -0,0 +1,225 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.metrics.AuditSnapshot;
+import com.toolstore.demo.model.RentalAgreement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Audit trail of completed checkouts as one JSON object per line. Request threads only drop the entry into a
+// bounded buffer, a background thread formats and writes whatever has queued up in one go.
+// Auditing never fails a checkout: when the buffer is full the overflow policy decides what happens to the entry.
+// Agreements are serialized with the application's JsonMapper, so they read exactly as the API returned them.
+// Every entry recorded ends up counted once, as written or as dropped.
+public class AuditLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+
+    private static final String CHECKOUT_EVENT = "checkout";
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    public enum OverflowPolicy {
+        // Discard the entry
+        DROP,
+        // Wait for the writer to make room
+        BLOCK,
+        // Wait for room for one in every sampleRate overflowing entries and discard the rest
+        SAMPLE
+    }
+
+    private final Writer out;
+    private final BlockingQueue<AuditEntry> buffer;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final int maxBatch;
+    private final JsonMapper jsonMapper;
+    private final Thread writer;
+    private final AtomicLong overflowed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private volatile boolean open;
+
+    AuditLog(Writer out, JsonMapper jsonMapper, int capacity, OverflowPolicy overflowPolicy, int sampleRate,
+             int maxBatch) {
+        this.out = out;
+        this.buffer = out != null ? new ArrayBlockingQueue<>(capacity) : null;
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.maxBatch = maxBatch;
+        this.jsonMapper = jsonMapper;
+        this.open = out != null;
+        this.writer = open ? Thread.ofPlatform().name("audit-log").daemon().start(this::writeLoop) : null;
+    }
+
+    // Appends to the file at path, creating it and its directory when missing
+    public static AuditLog open(Path path, JsonMapper jsonMapper, int capacity, OverflowPolicy overflowPolicy,
+                                int sampleRate, int maxBatch) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return new AuditLog(out, jsonMapper, capacity, overflowPolicy, sampleRate, maxBatch);
+    }
+
+    // Audit log that records nothing
+    public static AuditLog disabled() {
+        return new AuditLog(null, null, 0, OverflowPolicy.DROP, 1, 1);
+    }
+
+    public void checkout(RentalAgreement agreement) {
+        record(new AuditEntry(Instant.now(), CHECKOUT_EVENT, agreement));
+    }
+
+    // Entries lost to overflow, serialization or write failures, or arriving after close
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    public long writtenCount() {
+        return written.sum();
+    }
+
+    public int pendingCount() {
+        return buffer != null ? buffer.size() : 0;
+    }
+
+    public AuditSnapshot snapshot() {
+        return new AuditSnapshot(writtenCount(), droppedCount(), pendingCount());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+
+        // The writer drains what is already queued before it stops
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        // Whatever was queued after the writer saw the buffer empty, or is left over after an interrupt
+        List<AuditEntry> unwritten = new ArrayList<>();
+        buffer.drainTo(unwritten);
+        dropped.add(unwritten.size());
+        out.close();
+    }
+
+    private void record(AuditEntry entry) {
+        if (buffer == null) {
+            return;
+        }
+        if (!open) {
+            dropped.increment();
+            return;
+        }
+        if (buffer.offer(entry)) {
+            takeBackIfClosed(entry);
+            return;
+        }
+
+        boolean wait = switch (overflowPolicy) {
+            case DROP -> false;
+            case BLOCK -> true;
+            case SAMPLE -> overflowed.getAndIncrement() % sampleRate == 0;
+        };
+
+        if (!wait || !offerWhileOpen(entry)) {
+            dropped.increment();
+        }
+    }
+
+    // Waits in short steps so a caller is never left blocked once the writer has stopped
+    private boolean offerWhileOpen(AuditEntry entry) {
+        try {
+            while (open) {
+                if (buffer.offer(entry, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    takeBackIfClosed(entry);
+                    return true;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    // An entry can land in the buffer after close() stopped the writer. The writer, close() or this takes it out
+    // again, whichever comes first, and only that one counts it
+    private void takeBackIfClosed(AuditEntry entry) {
+        if (!open && buffer.remove(entry)) {
+            dropped.increment();
+        }
+    }
+
+    private void writeLoop() {
+        List<AuditEntry> batch = new ArrayList<>(maxBatch);
+
+        while (open || !buffer.isEmpty()) {
+            try {
+                AuditEntry first = buffer.poll(OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, maxBatch - 1);
+
+                writeBatch(batch);
+                batch.clear();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // One flush per batch, the file sees a single write however many entries queued up
+    private void writeBatch(List<AuditEntry> batch) {
+        int skipped = 0;
+
+        try {
+            for (AuditEntry entry : batch) {
+                String line;
+                try {
+                    line = jsonMapper.writeValueAsString(entry);
+                } catch (JacksonException ex) {
+                    logger.warn("Failed to serialize audit entry for {}", entry.agreement().getToolCode(), ex);
+                    skipped++;
+                    continue;
+                }
+                out.write(line);
+                out.write('\n');
+            }
+            out.flush();
+            written.add(batch.size() - skipped);
+            dropped.add(skipped);
+        } catch (IOException ex) {
+            logger.error("Failed to write audit log", ex);
+            dropped.add(batch.size());
+        }
+    }
+
+    private record AuditEntry(Instant timestamp, String event, RentalAgreement agreement) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.dto.CheckoutRequest;
+import com.toolstore.demo.dto.CheckoutResult;
+import com.toolstore.demo.exception.CheckoutException;
+import com.toolstore.demo.exception.ErrorCode;
+import com.toolstore.demo.exception.ErrorResponse;
+import com.toolstore.demo.model.RentalAgreement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+// Runs many checkouts concurrently on virtual threads, one failed item never fails the batch.
+// Created on first use rather than at startup
+@Lazy
+@Service
+public class BatchCheckoutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchCheckoutService.class);
+
+    private final CheckoutService checkoutService;
+    private final int parallelism;
+    private final int maxItems;
+
+    public BatchCheckoutService(CheckoutService checkoutService,
+                                @Value("${checkout.batch.parallelism:64}") int parallelism,
+                                @Value("${checkout.batch.max-items:1000}") int maxItems) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Batch parallelism must be 1 or greater");
+        }
+        if (maxItems < 1) {
+            throw new IllegalArgumentException("Batch max items must be 1 or greater");
+        }
+
+        this.checkoutService = checkoutService;
+        this.parallelism = parallelism;
+        this.maxItems = maxItems;
+    }
+
+    // Results come back in the same order as the requests. An oversized batch is rejected as a whole before any
+    // item is checked out, the parallelism cap alone would still let one request hold the service for its length
+    public List<CheckoutResult> checkoutAll(List<CheckoutRequest> requests) {
+        if (requests.size() > maxItems) {
+            throw ErrorCode.BATCH_TOO_LARGE.exception();
+        }
+
+        List<Future<CheckoutResult>> futures = new ArrayList<>(requests.size());
+        Semaphore permits = new Semaphore(parallelism);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (CheckoutRequest request : requests) {
+                // Waiting here caps the number of live checkouts instead of parking thousands of threads
+                permits.acquireUninterruptibly();
+                futures.add(executor.submit(() -> {
+                    try {
+                        return checkoutOne(request);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        // Closing the executor waited for every task, and checkoutOne never throws
+        return futures.stream()
+                .map(Future::resultNow)
+                .toList();
+    }
+
+    public CheckoutResult checkoutOne(CheckoutRequest request) {
+        return process(request, checkoutService::checkout);
+    }
+
+    // Prices the request without reserving the tool
+    public CheckoutResult previewOne(CheckoutRequest request) {
+        return process(request, checkoutService::preview);
+    }
+
+    private CheckoutResult process(CheckoutRequest request, CheckoutOperation operation) {
+        ErrorResponse invalid = CheckoutValidator.validate(request);
+        if (invalid != null) {
+            return CheckoutResult.failure(invalid);
+        }
+
+        try {
+            return CheckoutResult.success(operation.apply(
+                    request.toolCode(),
+                    request.rentalDayCount(),
+                    request.discountPercent(),
+                    request.checkoutDate(),
+                    request.region()
+            ));
+        } catch (CheckoutException ex) {
+            return CheckoutResult.failure(ex.getErrorResponse());
+        } catch (IllegalArgumentException ex) {
+            return CheckoutResult.failure(ex.getMessage());
+        } catch (RuntimeException ex) {
+            logger.error("An unexpected error occurred", ex);
+            return CheckoutResult.failure("An internal error occurred. Please contact support.");
+        }
+    }
+
+    @FunctionalInterface
+    private interface CheckoutOperation {
+        RentalAgreement apply(String toolCode, int rentalDayCount, int discountPercent, LocalDate checkoutDate,
+                              String region);
+    }
+}
@@ -1,82 +1,369 @@
 package com.toolstore.demo.service;
 
+import com.toolstore.demo.dto.CheckoutRequest;
+import com.toolstore.demo.exception.CheckoutException;
+import com.toolstore.demo.exception.ErrorCode;
+import com.toolstore.demo.metrics.CheckoutMetrics;
+import com.toolstore.demo.metrics.CheckoutMetrics.Operation;
+import com.toolstore.demo.model.CartAgreement;
+import com.toolstore.demo.model.PriceQuote;
 import com.toolstore.demo.model.RentalAgreement;
 import com.toolstore.demo.model.Tool;
+import com.toolstore.demo.model.ToolType;
+import com.toolstore.demo.repository.AgreementJournal;
+import com.toolstore.demo.repository.AgreementStore;
+import com.toolstore.demo.repository.ReservationCalendar;
 import com.toolstore.demo.repository.ToolRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class CheckoutService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutService.class);
+    private static final int CENTS_SCALE = 2;
+    private static final int MAX_CART_LINES = 100;
+
     private final ToolRepository toolRepository;
-    private final ChargeService chargeService;
+    private final PricingEngine pricingEngine;
+    private final QuoteCache quoteCache;
+    private final AgreementJournal agreementJournal;
+    private final AgreementStore agreementStore;
+    private final CheckoutMetrics checkoutMetrics;
 
-    public CheckoutService(ToolRepository toolRepository, ChargeService chargeService) {
+    public CheckoutService(ToolRepository toolRepository, PricingEngine pricingEngine, QuoteCache quoteCache,
+                           AgreementJournal agreementJournal, AgreementStore agreementStore,
+                           CheckoutMetrics checkoutMetrics) {
         this.toolRepository = toolRepository;
-        this.chargeService = chargeService;
+        this.pricingEngine = pricingEngine;
+        this.quoteCache = quoteCache;
+        this.agreementJournal = agreementJournal;
+        this.agreementStore = agreementStore;
+        this.checkoutMetrics = checkoutMetrics;
     }
 
     public RentalAgreement checkout(String toolCode, int rentalDayCount, int discountPercent, LocalDate checkoutDate) {
-        // Validation
-        validateRentalDayCount(rentalDayCount);
-        validateDiscountPercent(discountPercent);
+        return checkout(toolCode, rentalDayCount, discountPercent, checkoutDate, null);
+    }
 
-        // Get tool
-        Tool tool = toolRepository.findByCode(toolCode)
-                .orElseThrow(() -> new IllegalArgumentException("Tool not found: " + toolCode));
+    // Priced with the holidays of the region, the default region when it is null
+    public RentalAgreement checkout(String toolCode, int rentalDayCount, int discountPercent, LocalDate checkoutDate,
+                                    String region) {
+        long start = System.nanoTime();
+        ToolType toolType = null;
 
-        // Calculate due date
-        LocalDate dueDate = checkoutDate.plusDays(rentalDayCount);
+        try {
+            // Validation
+            CheckoutValidator.requireValid(rentalDayCount, discountPercent);
+            String pricingRegion = pricingEngine.resolveRegion(region);
+
+            // Get tool
+            Tool tool = findTool(toolCode);
+            toolType = tool.toolType();
+
+            RentalAgreement agreement = reserve(tool, pricingRegion, rentalDayCount, discountPercent, checkoutDate);
+
+            // Only hand out the agreement once it is durable
+            try {
+                agreementJournal.appendCheckout(agreement);
+            } catch (RuntimeException ex) {
+                toolRepository.release(tool.code(), checkoutDate);
+                throw ex;
+            }
+            agreementStore.append(agreement);
+
+            checkoutMetrics.recordSuccess(Operation.CHECKOUT, toolType, start);
+            return agreement;
+        } catch (RuntimeException ex) {
+            recordFailure(Operation.CHECKOUT, toolType, ex, start);
+            throw ex;
+        }
+    }
+
+    // Same as checkout, but no thread waits while the journal makes the agreement durable: the future completes
+    // once it has. Rejections complete the future exceptionally instead of being thrown
+    public CompletableFuture<RentalAgreement> checkoutAsync(String toolCode, int rentalDayCount, int discountPercent,
+                                                            LocalDate checkoutDate) {
+        return checkoutAsync(toolCode, rentalDayCount, discountPercent, checkoutDate, null);
+    }
+
+    public CompletableFuture<RentalAgreement> checkoutAsync(String toolCode, int rentalDayCount, int discountPercent,
+                                                            LocalDate checkoutDate, String region) {
+        long start = System.nanoTime();
+        ToolType toolType = null;
+        Tool tool;
+        RentalAgreement agreement;
+
+        try {
+            CheckoutValidator.requireValid(rentalDayCount, discountPercent);
+            String pricingRegion = pricingEngine.resolveRegion(region);
+
+            tool = findTool(toolCode);
+            toolType = tool.toolType();
+
+            agreement = reserve(tool, pricingRegion, rentalDayCount, discountPercent, checkoutDate);
+        } catch (RuntimeException ex) {
+            recordFailure(Operation.CHECKOUT, toolType, ex, start);
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        return agreementJournal.appendCheckoutAsync(agreement).handle((ignored, ex) -> {
+            if (ex != null) {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                toolRepository.release(tool.code(), checkoutDate);
+                recordFailure(Operation.CHECKOUT, tool.toolType(), cause, start);
+                throw new CompletionException(cause);
+            }
+            agreementStore.append(agreement);
+
+            checkoutMetrics.recordSuccess(Operation.CHECKOUT, tool.toolType(), start);
+            return agreement;
+        });
+    }
+
+    // Checks out every line or none of them, all lines in the one region. The lines are priced from a single
+    // RateTable, so each date they cover is classified once however many tools are rented over it, and no line
+    // sees newer rules than another. The agreements are journaled as one record
+    public CartAgreement checkoutCart(List<CheckoutRequest> lines, String region) {
+        long start = System.nanoTime();
+
+        try {
+            if (lines == null || lines.isEmpty()) {
+                throw ErrorCode.CART_EMPTY.exception();
+            }
+            if (lines.size() > MAX_CART_LINES) {
+                throw ErrorCode.CART_TOO_LARGE.exception();
+            }
+            for (CheckoutRequest line : lines) {
+                CheckoutValidator.requireValid(line);
+            }
+            RateTable rateTable = pricingEngine.table(region);
+
+            // Priced before anything is booked, the quote cache is skipped since a table read is as cheap
+            List<RentalAgreement> agreements = new ArrayList<>(lines.size());
+            for (CheckoutRequest line : lines) {
+                Tool tool = findTool(line.toolCode());
+                LocalDate checkoutDate = line.checkoutDate();
+                PriceQuote quote = rateTable.quote(tool.toolType(), checkoutDate.plusDays(1),
+                        checkoutDate.plusDays(line.rentalDayCount()), line.discountPercent());
+
+                agreements.add(agreement(tool, line.rentalDayCount(), line.discountPercent(), checkoutDate, quote));
+            }
+
+            reserveAll(agreements);
+            try {
+                agreementJournal.appendCart(agreements);
+            } catch (RuntimeException ex) {
+                releaseAll(agreements, agreements.size());
+                throw ex;
+            }
+            agreements.forEach(agreementStore::append);
+
+            checkoutMetrics.recordSuccess(Operation.CART_CHECKOUT, null, start);
+            return cartAgreement(agreements);
+        } catch (RuntimeException ex) {
+            recordFailure(Operation.CART_CHECKOUT, null, ex, start);
+            throw ex;
+        }
+    }
+
+    // Same agreement as checkout without reserving the tool, for what-if pricing
+    public RentalAgreement preview(String toolCode, int rentalDayCount, int discountPercent, LocalDate checkoutDate) {
+        return preview(toolCode, rentalDayCount, discountPercent, checkoutDate, null);
+    }
+
+    public RentalAgreement preview(String toolCode, int rentalDayCount, int discountPercent, LocalDate checkoutDate,
+                                   String region) {
+        CheckoutValidator.requireValid(rentalDayCount, discountPercent);
+        String pricingRegion = pricingEngine.resolveRegion(region);
+
+        return buildAgreement(findTool(toolCode), pricingRegion, rentalDayCount, discountPercent, checkoutDate);
+    }
+
+    // Ends the rental that started on checkoutDate today, freeing the rest of its booked range
+    public void returnTool(String toolCode, LocalDate checkoutDate) {
+        returnTool(toolCode, checkoutDate, LocalDate.now());
+    }
+
+    public void returnTool(String toolCode, LocalDate checkoutDate, LocalDate returnDate) {
+        Tool tool = findTool(toolCode);
+
+        if (!calendarOf(toolCode).hasBookingStarting(checkoutDate)) {
+            throw ErrorCode.TOOL_NOT_CHECKED_OUT.exception(toolCode);
+        }
+
+        // Journaled first, a duplicate return record from a concurrent return is harmless on replay
+        agreementJournal.appendReturn(tool.code(), checkoutDate, returnDate);
+        if (toolRepository.release(tool.code(), checkoutDate)) {
+            agreementStore.recordReturn(tool.code(), checkoutDate, returnDate);
+        }
+    }
 
-        // Calculate charge days
-        int chargeDays = chargeService.calculateChargeDays(
-                tool.toolType(),
-                checkoutDate.plusDays(1), // Start from day after checkout
-                dueDate
-        );
+    // Re-applies a journaled checkout on startup, no validation or pricing is repeated
+    public void replayCheckout(RentalAgreement agreement) {
+        if (!toolRepository.reserve(agreement.getToolCode(), agreement.getCheckoutDate(), agreement.getDueDate())) {
+            logger.warn("Journaled checkout of {} on {} overlaps another booking, skipping",
+                    agreement.getToolCode(), agreement.getCheckoutDate());
+            return;
+        }
+        agreementStore.append(agreement);
+    }
+
+    public void replayReturn(String toolCode, LocalDate checkoutDate, LocalDate returnDate) {
+        if (toolRepository.release(toolCode, checkoutDate)) {
+            agreementStore.recordReturn(toolCode, checkoutDate, returnDate);
+        }
+    }
+
+    public boolean isAvailable(String toolCode, LocalDate startDate, int rentalDayCount) {
+        CheckoutValidator.requireValid(rentalDayCount);
+
+        return calendarOf(toolCode).isFree(startDate, startDate.plusDays(rentalDayCount));
+    }
+
+    public LocalDate nextAvailableDate(String toolCode, LocalDate fromDate, int rentalDayCount) {
+        CheckoutValidator.requireValid(rentalDayCount);
+
+        return calendarOf(toolCode).nextAvailableStart(fromDate, rentalDayCount);
+    }
+
+    // Same pricing as checkout, for callers that only need the raw cents
+    public PriceQuote quote(String toolCode, int rentalDayCount, int discountPercent, LocalDate checkoutDate) {
+        return quote(toolCode, rentalDayCount, discountPercent, checkoutDate, null);
+    }
 
-        // Calculate charges
-        BigDecimal dailyCharge = tool.toolType().getDailyCharge();
-        BigDecimal preDiscountCharge = dailyCharge
-                .multiply(BigDecimal.valueOf(chargeDays))
-                .setScale(2, RoundingMode.HALF_UP);
+    public PriceQuote quote(String toolCode, int rentalDayCount, int discountPercent, LocalDate checkoutDate,
+                            String region) {
+        CheckoutValidator.requireValid(rentalDayCount, discountPercent);
+        String pricingRegion = pricingEngine.resolveRegion(region);
+
+        Tool tool = findTool(toolCode);
+        return price(tool, pricingRegion, checkoutDate, rentalDayCount, discountPercent);
+    }
 
-        BigDecimal discountAmount = preDiscountCharge
-                .multiply(BigDecimal.valueOf(discountPercent))
-                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+    private RentalAgreement buildAgreement(Tool tool, String region, int rentalDayCount, int discountPercent,
+                                           LocalDate checkoutDate) {
+        // Calculate charges, BigDecimal is only created for the agreement itself
+        PriceQuote quote = price(tool, region, checkoutDate, rentalDayCount, discountPercent);
 
-        BigDecimal finalCharge = preDiscountCharge.subtract(discountAmount);
+        return agreement(tool, rentalDayCount, discountPercent, checkoutDate, quote);
+    }
 
-        // Build rental agreement
+    private RentalAgreement agreement(Tool tool, int rentalDayCount, int discountPercent, LocalDate checkoutDate,
+                                      PriceQuote quote) {
         return RentalAgreement.builder()
                 .toolCode(tool.code())
                 .toolType(tool.toolType().name())
                 .toolBrand(tool.brand())
                 .rentalDays(rentalDayCount)
                 .checkoutDate(checkoutDate)
-                .dueDate(dueDate)
-                .dailyRentalCharge(dailyCharge)
-                .chargeDays(chargeDays)
-                .preDiscountCharge(preDiscountCharge)
+                .dueDate(checkoutDate.plusDays(rentalDayCount))
+                .dailyRentalCharge(toMoney(quote.dailyChargeCents()))
+                .chargeDays(quote.chargeDays())
+                .preDiscountCharge(toMoney(quote.preDiscountCents()))
                 .discountPercent(discountPercent)
-                .discountAmount(discountAmount)
-                .finalCharge(finalCharge)
+                .discountAmount(toMoney(quote.discountCents()))
+                .finalCharge(toMoney(quote.finalCents()))
                 .build();
     }
 
-    private void validateRentalDayCount(int rentalDayCount) {
-        if (rentalDayCount < 1) {
-            throw new IllegalArgumentException("Rental day count must be 1 or greater");
+    // Books the tool for the rental period and prices it, the booking is cancelled again if pricing fails
+    private RentalAgreement reserve(Tool tool, String region, int rentalDayCount, int discountPercent,
+                                    LocalDate checkoutDate) {
+        LocalDate dueDate = checkoutDate.plusDays(rentalDayCount);
+        if (!toolRepository.reserve(tool.code(), checkoutDate, dueDate)) {
+            throw ErrorCode.TOOL_NOT_AVAILABLE.exception(tool.code());
+        }
+
+        try {
+            return buildAgreement(tool, region, rentalDayCount, discountPercent, checkoutDate);
+        } catch (RuntimeException ex) {
+            toolRepository.release(tool.code(), checkoutDate);
+            throw ex;
+        }
+    }
+
+    // Books each line's tool in order, releasing the ones already booked as soon as one can't be.
+    // A cart that names the same tool twice for overlapping dates is refused here
+    private void reserveAll(List<RentalAgreement> agreements) {
+        for (int i = 0; i < agreements.size(); i++) {
+            RentalAgreement agreement = agreements.get(i);
+            if (!toolRepository.reserve(agreement.getToolCode(), agreement.getCheckoutDate(), agreement.getDueDate())) {
+                releaseAll(agreements, i);
+                throw ErrorCode.TOOL_NOT_AVAILABLE.exception(agreement.getToolCode());
+            }
+        }
+    }
+
+    // The first count agreements, newest booking first
+    private void releaseAll(List<RentalAgreement> agreements, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            toolRepository.release(agreements.get(i).getToolCode(), agreements.get(i).getCheckoutDate());
         }
     }
 
-    private void validateDiscountPercent(int discountPercent) {
-        if (discountPercent < 0 || discountPercent > 100) {
-            throw new IllegalArgumentException("Discount percent must be between 0 and 100");
+    private CartAgreement cartAgreement(List<RentalAgreement> agreements) {
+        BigDecimal preDiscountCharge = BigDecimal.ZERO.setScale(CENTS_SCALE);
+        BigDecimal discountAmount = preDiscountCharge;
+        BigDecimal finalCharge = preDiscountCharge;
+
+        for (RentalAgreement agreement : agreements) {
+            preDiscountCharge = preDiscountCharge.add(agreement.getPreDiscountCharge());
+            discountAmount = discountAmount.add(agreement.getDiscountAmount());
+            finalCharge = finalCharge.add(agreement.getFinalCharge());
+        }
+
+        return new CartAgreement(List.copyOf(agreements), preDiscountCharge, discountAmount, finalCharge);
+    }
+
+    private void recordFailure(Operation operation, ToolType toolType, Throwable ex, long start) {
+        if (ex instanceof CheckoutException rejected) {
+            checkoutMetrics.recordRejected(operation, toolType, rejected.getErrorCode(), start);
+        } else {
+            checkoutMetrics.recordFailed(operation, toolType, start);
         }
     }
-}
\ No newline at end of file
+
+    private ReservationCalendar calendarOf(String toolCode) {
+        return toolRepository.findCalendar(toolCode)
+                .orElseThrow(() -> ErrorCode.TOOL_NOT_FOUND.exception(toolCode));
+    }
+
+    private Tool findTool(String toolCode) {
+        return toolRepository.findByCode(toolCode)
+                .orElseThrow(() -> ErrorCode.TOOL_NOT_FOUND.exception(toolCode));
+    }
+
+    // Region already resolved
+    private PriceQuote price(Tool tool, String region, LocalDate checkoutDate, int rentalDayCount,
+                             int discountPercent) {
+        ToolType toolType = tool.toolType();
+
+        // Only cache misses reach the pricing rules, so that is all its latency covers
+        return quoteCache.get(toolType, region, checkoutDate, rentalDayCount, discountPercent, () -> {
+            long start = System.nanoTime();
+            PriceQuote quote = pricingEngine.quote(
+                    toolType,
+                    region,
+                    checkoutDate.plusDays(1), // Start from day after checkout
+                    checkoutDate.plusDays(rentalDayCount),
+                    discountPercent
+            );
+            checkoutMetrics.recordSuccess(Operation.CHARGE_DAYS, toolType, start);
+
+            return quote;
+        });
+    }
+
+    private BigDecimal toMoney(long cents) {
+        return BigDecimal.valueOf(cents, CENTS_SCALE);
+    }
+}
@@ -0,0 +1,125 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.dto.CheckoutRequest;
+import com.toolstore.demo.exception.CheckoutException;
+import com.toolstore.demo.exception.ErrorCode;
+import com.toolstore.demo.exception.ErrorResponse;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// The only validation of checkout input, in place of Bean Validation on CheckoutRequest.
+// Each failed check sets one bit, and the response for every combination of bits is built when the class loads,
+// so rejecting a request costs a few comparisons and allocates nothing
+public final class CheckoutValidator {
+
+    private static final ErrorCode[] CHECKS = {
+            ErrorCode.TOOL_CODE_REQUIRED,
+            ErrorCode.RENTAL_DAY_COUNT_REQUIRED,
+            ErrorCode.RENTAL_DAY_COUNT_TOO_LOW,
+            ErrorCode.DISCOUNT_PERCENT_REQUIRED,
+            ErrorCode.DISCOUNT_PERCENT_OUT_OF_RANGE,
+            ErrorCode.CHECKOUT_DATE_REQUIRED,
+            ErrorCode.RENTAL_DAY_COUNT_TOO_HIGH
+    };
+
+    private static final int TOOL_CODE_REQUIRED = 1;
+    private static final int RENTAL_DAY_COUNT_REQUIRED = 1 << 1;
+    private static final int RENTAL_DAY_COUNT_TOO_LOW = 1 << 2;
+    private static final int DISCOUNT_PERCENT_REQUIRED = 1 << 3;
+    private static final int DISCOUNT_PERCENT_OUT_OF_RANGE = 1 << 4;
+    private static final int CHECKOUT_DATE_REQUIRED = 1 << 5;
+    private static final int RENTAL_DAY_COUNT_TOO_HIGH = 1 << 6;
+
+    // Ten years, far beyond any real rental, so one request can't book a tool out for millennia
+    private static final int MAX_RENTAL_DAY_COUNT = 3650;
+
+    // Indexed by the failed checks, messages sorted and joined the way the batch endpoint always reported them
+    private static final ErrorResponse[] RESPONSES = new ErrorResponse[1 << CHECKS.length];
+    private static final ErrorCode[] FIRST_ERRORS = new ErrorCode[1 << CHECKS.length];
+
+    static {
+        for (int failed = 1; failed < RESPONSES.length; failed++) {
+            int mask = failed;
+            ErrorCode[] errors = IntStream.range(0, CHECKS.length)
+                    .filter(bit -> (mask & (1 << bit)) != 0)
+                    .mapToObj(bit -> CHECKS[bit])
+                    .sorted(Comparator.comparing(error -> error.response().message()))
+                    .toArray(ErrorCode[]::new);
+
+            FIRST_ERRORS[failed] = errors[0];
+            RESPONSES[failed] = errors.length == 1
+                    ? errors[0].response()
+                    : new ErrorResponse(Arrays.stream(errors)
+                            .map(error -> error.response().message())
+                            .collect(Collectors.joining(", ")));
+        }
+    }
+
+    // Null when the request is valid
+    public static ErrorResponse validate(CheckoutRequest request) {
+        if (request == null) {
+            return ErrorCode.CHECKOUT_REQUEST_REQUIRED.response();
+        }
+
+        return RESPONSES[check(request)];
+    }
+
+    public static void requireValid(CheckoutRequest request) {
+        if (request == null) {
+            throw ErrorCode.CHECKOUT_REQUEST_REQUIRED.exception();
+        }
+
+        throwIfFailed(check(request));
+    }
+
+    public static void requireValid(int rentalDayCount, int discountPercent) {
+        throwIfFailed(checkRentalDayCount(rentalDayCount) | checkDiscountPercent(discountPercent));
+    }
+
+    public static void requireValid(int rentalDayCount) {
+        throwIfFailed(checkRentalDayCount(rentalDayCount));
+    }
+
+    private static int check(CheckoutRequest request) {
+        int failed = 0;
+
+        if (request.toolCode() == null) {
+            failed |= TOOL_CODE_REQUIRED;
+        }
+        if (request.rentalDayCount() == null) {
+            failed |= RENTAL_DAY_COUNT_REQUIRED;
+        } else {
+            failed |= checkRentalDayCount(request.rentalDayCount());
+        }
+        if (request.discountPercent() == null) {
+            failed |= DISCOUNT_PERCENT_REQUIRED;
+        } else {
+            failed |= checkDiscountPercent(request.discountPercent());
+        }
+        if (request.checkoutDate() == null) {
+            failed |= CHECKOUT_DATE_REQUIRED;
+        }
+
+        return failed;
+    }
+
+    private static int checkRentalDayCount(int rentalDayCount) {
+        if (rentalDayCount < 1) {
+            return RENTAL_DAY_COUNT_TOO_LOW;
+        }
+        return rentalDayCount > MAX_RENTAL_DAY_COUNT ? RENTAL_DAY_COUNT_TOO_HIGH : 0;
+    }
+
+    private static int checkDiscountPercent(int discountPercent) {
+        return discountPercent < 0 || discountPercent > 100 ? DISCOUNT_PERCENT_OUT_OF_RANGE : 0;
+    }
+
+    private static void throwIfFailed(int failed) {
+        if (failed != 0) {
+            throw new CheckoutException(FIRST_ERRORS[failed], RESPONSES[failed]);
+        }
+    }
+}
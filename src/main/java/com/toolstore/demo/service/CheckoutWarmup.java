@@ -0,0 +1,152 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.codec.CheckoutJsonCodec;
+import com.toolstore.demo.dto.CheckoutRequest;
+import com.toolstore.demo.exception.CheckoutException;
+import com.toolstore.demo.metrics.CheckoutMetrics;
+import com.toolstore.demo.model.RentalAgreement;
+import com.toolstore.demo.repository.AgreementJournal;
+import com.toolstore.demo.repository.AgreementStore;
+import com.toolstore.demo.repository.ToolRepository;
+import com.toolstore.demo.view.RentalAgreementFormatter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+// Runs synthetic checkouts through the real pricing, reservation, JSON and formatting code at startup so the JIT
+// has compiled them before the first customer arrives. Readiness only switches to ACCEPTING_TRAFFIC once every
+// runner has finished, so traffic is held back until this is done.
+// Checkouts go to a private CheckoutService over its own tools, a disabled journal, an uncached quote cache and
+// throwaway metrics, so no booking, journal record, cached quote or latency sample is left behind
+@Component
+public class CheckoutWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutWarmup.class);
+
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("MM/dd/yy");
+    private static final List<String> TOOL_CODES = List.of("CHNS", "LADW", "JAKD", "JAKR");
+    private static final RentalAgreementFormatter.Format[] FORMATS = RentalAgreementFormatter.Format.values();
+
+    private final PricingEngine pricingEngine;
+    private final CheckoutMetrics checkoutMetrics;
+    private final JsonMapper jsonMapper;
+    private final boolean enabled;
+    private final int iterations;
+    private final Duration maxDuration;
+
+    public CheckoutWarmup(PricingEngine pricingEngine,
+                          CheckoutMetrics checkoutMetrics,
+                          JsonMapper jsonMapper,
+                          @Value("${checkout.warmup.enabled:true}") boolean enabled,
+                          @Value("${checkout.warmup.iterations:10000}") int iterations,
+                          @Value("${checkout.warmup.max-duration:5s}") Duration maxDuration) {
+        if (iterations < 0) {
+            throw new IllegalArgumentException("Warm-up iterations must be 0 or greater");
+        }
+
+        this.pricingEngine = pricingEngine;
+        this.checkoutMetrics = checkoutMetrics;
+        this.jsonMapper = jsonMapper;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxDuration = maxDuration;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long completed = warmUp();
+        checkoutMetrics.recordWarmup(completed, start);
+
+        logger.info("Warmed up with {} synthetic checkouts in {} ms", completed,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Returns the number of iterations run, fewer than configured when maxDuration ran out first
+    long warmUp() {
+        CheckoutService checkoutService = new CheckoutService(new ToolRepository(), pricingEngine,
+                new QuoteCache(0, Duration.ofMinutes(1)), AgreementJournal.disabled(), AgreementStore.disabled(),
+                new CheckoutMetrics());
+        CheckoutJsonCodec codec = new CheckoutJsonCodec();
+        List<LocalDate> checkoutDates = edgeCaseDates();
+        // Every region's rate table is built here rather than on its first real checkout
+        List<String> regions = List.copyOf(pricingEngine.regions());
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+
+        for (int i = 0; i < iterations; i++) {
+            if (System.nanoTime() - deadline > 0) {
+                return i;
+            }
+
+            String toolCode = TOOL_CODES.get(i % TOOL_CODES.size());
+            LocalDate checkoutDate = checkoutDates.get(i % checkoutDates.size());
+            int rentalDays = 1 + i % 14;
+            int discount = i % 101;
+            String region = regions.get(i % regions.size());
+
+            byte[] body = requestJson(toolCode, rentalDays, discount, checkoutDate, region);
+            CheckoutRequest request = CheckoutJsonCodec.readRequest(body, body.length);
+
+            RentalAgreement agreement = checkoutService.checkout(request.toolCode(), request.rentalDayCount(),
+                    request.discountPercent(), request.checkoutDate(), request.region());
+            checkoutService.returnTool(toolCode, checkoutDate);
+            checkoutService.preview(toolCode, rentalDays, discount, checkoutDate);
+
+            codec.writeAgreement(agreement);
+            RentalAgreementFormatter.format(agreement, FORMATS[i % FORMATS.length]);
+
+            // Rejections take a different path and are answered through Jackson
+            try {
+                checkoutService.checkout(toolCode, rentalDays, 101 + discount, checkoutDate);
+            } catch (CheckoutException ex) {
+                jsonMapper.writeValueAsBytes(ex.getErrorResponse());
+            }
+        }
+
+        return iterations;
+    }
+
+    // The days around both holidays in the years the charge calendar keeps indexed, so weekend-observed
+    // Independence Days and Labor Day weeks are priced, plus the turn of each year
+    private static List<LocalDate> edgeCaseDates() {
+        List<LocalDate> dates = new ArrayList<>();
+        int currentYear = Year.now().getValue();
+
+        for (int year = currentYear - 1; year <= currentYear + 1; year++) {
+            for (int day = 0; day < 7; day++) {
+                dates.add(LocalDate.of(year, Month.JUNE, 29).plusDays(day));
+                dates.add(LocalDate.of(year, Month.AUGUST, 29).plusDays(day));
+                dates.add(LocalDate.of(year, Month.DECEMBER, 26).plusDays(day));
+            }
+        }
+
+        return dates;
+    }
+
+    private static byte[] requestJson(String toolCode, int rentalDays, int discount, LocalDate checkoutDate,
+                                      String region) {
+        String json = "{\"toolCode\":\"" + toolCode + "\""
+                + ",\"rentalDayCount\":" + rentalDays
+                + ",\"discountPercent\":" + discount
+                + ",\"checkoutDate\":\"" + checkoutDate.format(DATE_FMT) + "\""
+                + ",\"region\":\"" + region + "\"}";
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
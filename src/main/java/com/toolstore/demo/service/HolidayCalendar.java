@@ -0,0 +1,150 @@
+package com.toolstore.demo.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// One region's holidays, compiled from its HolidayRules.Region once when the calendars are loaded.
+//
+// Fixed-date and nth-weekday holidays repeat every 400 years like the weekdays do, so their dates are kept as one
+// bitmap per year of that cycle, built the first time a year is asked about. The few years with one-off dates
+// get their own bitmap up front. Either way checking a day is a single bitmap read. Two holidays observed on the
+// same day count as one, nothing is moved to make room for the second
+public final class HolidayCalendar {
+
+    private static final int CYCLE_YEARS = 400;
+    private static final int BASE_YEAR = 2000;
+
+    private final String region;
+    private final MonthDay[] fixedDates;
+    private final HolidayRules.Observance[] observances;
+    private final List<HolidayRules.WeekdayOfMonth> weekdaysOfMonth;
+    private final List<LocalDate> oneOffDates;
+
+    private final AtomicReferenceArray<long[]> cycleYears = new AtomicReferenceArray<>(CYCLE_YEARS);
+
+    // Sorted years with one-off dates, and their bitmaps including the recurring holidays
+    private final int[] oneOffYears;
+    private final long[][] oneOffYearBits;
+
+    HolidayCalendar(String region, HolidayRules.Region rules) {
+        this.region = region;
+        this.fixedDates = rules.fixedDates().stream().map(HolidayRules.FixedDate::monthDay).toArray(MonthDay[]::new);
+        this.observances = rules.fixedDates().stream().map(HolidayRules.FixedDate::observance)
+                .toArray(HolidayRules.Observance[]::new);
+        this.weekdaysOfMonth = rules.weekdaysOfMonth();
+        this.oneOffDates = rules.oneOffDates().stream().map(HolidayRules.OneOffDate::localDate)
+                .distinct().sorted().toList();
+
+        this.oneOffYears = oneOffDates.stream().mapToInt(LocalDate::getYear).distinct().toArray();
+        this.oneOffYearBits = new long[oneOffYears.length][];
+        for (int i = 0; i < oneOffYears.length; i++) {
+            oneOffYearBits[i] = toBits(oneOffYears[i], holidaysOf(oneOffYears[i]));
+        }
+    }
+
+    public String region() {
+        return region;
+    }
+
+    public boolean isHoliday(LocalDate date) {
+        return isSet(bits(date.getYear()), date.getDayOfYear());
+    }
+
+    // Every holiday observed in the year, sorted
+    public List<LocalDate> holidaysOf(int year) {
+        TreeSet<LocalDate> holidays = new TreeSet<>(recurringHolidays(year));
+        for (LocalDate date : oneOffDates) {
+            if (date.getYear() == year) {
+                holidays.add(date);
+            }
+        }
+        return List.copyOf(holidays);
+    }
+
+    // The holidays that repeat with the 400-year cycle, observed in the year, sorted
+    List<LocalDate> recurringHolidays(int year) {
+        TreeSet<LocalDate> holidays = new TreeSet<>();
+
+        // An observance can move a holiday across the turn of the year, either way
+        for (int i = 0; i < fixedDates.length; i++) {
+            for (int dateYear = year - 1; dateYear <= year + 1; dateYear++) {
+                if (fixedDates[i].isValidYear(dateYear)) {
+                    LocalDate observed = observe(fixedDates[i].atYear(dateYear), observances[i]);
+                    if (observed.getYear() == year) {
+                        holidays.add(observed);
+                    }
+                }
+            }
+        }
+
+        for (HolidayRules.WeekdayOfMonth holiday : weekdaysOfMonth) {
+            holidays.add(LocalDate.of(year, holiday.month(), 1)
+                    .with(TemporalAdjusters.dayOfWeekInMonth(holiday.week(), holiday.dayOfWeek())));
+        }
+
+        return new ArrayList<>(holidays);
+    }
+
+    boolean isRecurringHoliday(LocalDate date) {
+        return isSet(cycleYear(date.getYear()), date.getDayOfYear());
+    }
+
+    // Sorted, each date once
+    List<LocalDate> oneOffHolidays() {
+        return oneOffDates;
+    }
+
+    private long[] bits(int year) {
+        if (oneOffYears.length > 0) {
+            int index = Arrays.binarySearch(oneOffYears, year);
+            if (index >= 0) {
+                return oneOffYearBits[index];
+            }
+        }
+        return cycleYear(year);
+    }
+
+    private long[] cycleYear(int year) {
+        int cycleYear = Math.floorMod(year - BASE_YEAR, CYCLE_YEARS);
+        long[] bits = cycleYears.get(cycleYear);
+        if (bits == null) {
+            // Any year in the same position of the cycle has the same holidays on the same days of the year
+            int builtYear = BASE_YEAR + cycleYear;
+            cycleYears.compareAndSet(cycleYear, null, toBits(builtYear, recurringHolidays(builtYear)));
+            bits = cycleYears.get(cycleYear);
+        }
+        return bits;
+    }
+
+    private static LocalDate observe(LocalDate date, HolidayRules.Observance observance) {
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        return switch (observance) {
+            case NONE -> date;
+            case NEAREST_WEEKDAY -> dayOfWeek == DayOfWeek.SATURDAY ? date.minusDays(1)
+                    : dayOfWeek == DayOfWeek.SUNDAY ? date.plusDays(1) : date;
+            case NEXT_WEEKDAY -> dayOfWeek == DayOfWeek.SATURDAY ? date.plusDays(2)
+                    : dayOfWeek == DayOfWeek.SUNDAY ? date.plusDays(1) : date;
+        };
+    }
+
+    private static long[] toBits(int year, List<LocalDate> holidays) {
+        long[] bits = new long[(LocalDate.of(year, 1, 1).lengthOfYear() + Long.SIZE - 1) / Long.SIZE];
+        for (LocalDate holiday : holidays) {
+            int day = holiday.getDayOfYear() - 1;
+            bits[day / Long.SIZE] |= 1L << day;
+        }
+        return bits;
+    }
+
+    private static boolean isSet(long[] bits, int dayOfYear) {
+        int day = dayOfYear - 1;
+        return (bits[day / Long.SIZE] & (1L << day)) != 0;
+    }
+}
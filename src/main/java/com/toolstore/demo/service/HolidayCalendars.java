@@ -0,0 +1,59 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.exception.ErrorCode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Every region's HolidayCalendar, each compiled once when the calendars are loaded.
+// Checkouts name their region, or get the default region when they don't
+public class HolidayCalendars {
+
+    private final Map<String, HolidayCalendar> calendars = new TreeMap<>();
+    private final HolidayCalendar defaultCalendar;
+
+    public HolidayCalendars(HolidayRules rules) {
+        rules.regions().forEach((region, regionRules) ->
+                calendars.put(region, new HolidayCalendar(region, regionRules)));
+        this.defaultCalendar = calendars.get(rules.defaultRegion());
+    }
+
+    // The calendars bundled with the application
+    public static HolidayCalendars defaults() {
+        return new HolidayCalendars(HolidayRules.defaults());
+    }
+
+    // The file when there is one, the bundled calendars otherwise. A broken file fails startup
+    public static HolidayCalendars load(Path path) throws IOException {
+        if (path == null || !Files.exists(path)) {
+            return defaults();
+        }
+
+        return new HolidayCalendars(HolidayRules.load(path));
+    }
+
+    // Null for the default region, a region without a calendar is rejected
+    public HolidayCalendar calendar(String region) {
+        if (region == null) {
+            return defaultCalendar;
+        }
+
+        HolidayCalendar calendar = calendars.get(region);
+        if (calendar == null) {
+            throw ErrorCode.UNKNOWN_REGION.exception(region);
+        }
+        return calendar;
+    }
+
+    public HolidayCalendar defaultCalendar() {
+        return defaultCalendar;
+    }
+
+    public Set<String> regions() {
+        return calendars.keySet();
+    }
+}
@@ -0,0 +1,159 @@
+package com.toolstore.demo.service;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+// Holiday calendars as written in the calendars file, see src/main/resources/holiday-calendars.json.
+// Validated on load, HolidayCalendar compiles a region's rules into the dates it observes.
+//
+// A region observes fixed dates (MM-dd, moved off the weekend as its observance says), the nth weekday of a month
+// (week 1 to 4, or -1 for the last one), and one-off dates (yyyy-MM-dd) that only apply in the year they name
+public record HolidayRules(String defaultRegion, Map<String, Region> regions) {
+
+    private static final DateTimeFormatter MONTH_DAY = DateTimeFormatter.ofPattern("MM-dd");
+    private static final String DEFAULT_RULES = "/holiday-calendars.json";
+
+    // Typos in a hand-edited file are rejected instead of silently ignored
+    private static final JsonMapper JSON = JsonMapper.builder()
+            .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    public HolidayRules {
+        if (regions == null || regions.isEmpty()) {
+            throw new IllegalArgumentException("Holiday calendars need at least one region");
+        }
+        regions = Map.copyOf(regions);
+        if (defaultRegion == null || !regions.containsKey(defaultRegion)) {
+            throw new IllegalArgumentException(
+                    "Default region " + defaultRegion + " is not one of " + regions.keySet());
+        }
+    }
+
+    public record Region(List<FixedDate> fixedDates,
+                         List<WeekdayOfMonth> weekdaysOfMonth,
+                         List<OneOffDate> oneOffDates) {
+
+        public Region {
+            fixedDates = fixedDates == null ? List.of() : List.copyOf(fixedDates);
+            weekdaysOfMonth = weekdaysOfMonth == null ? List.of() : List.copyOf(weekdaysOfMonth);
+            oneOffDates = oneOffDates == null ? List.of() : List.copyOf(oneOffDates);
+        }
+    }
+
+    // Where a holiday that falls on a weekend is observed instead
+    public enum Observance {
+        // Not moved
+        NONE,
+        // Saturday on the Friday before, Sunday on the Monday after
+        NEAREST_WEEKDAY,
+        // Saturday and Sunday on the Monday after
+        NEXT_WEEKDAY
+    }
+
+    public record FixedDate(String name, String date, Observance observance) {
+
+        public FixedDate {
+            requireName(name);
+            monthDay(name, date);
+            observance = observance == null ? Observance.NONE : observance;
+        }
+
+        MonthDay monthDay() {
+            return monthDay(name, date);
+        }
+
+        private static MonthDay monthDay(String holiday, String value) {
+            try {
+                return MonthDay.parse(value, MONTH_DAY);
+            } catch (DateTimeParseException | NullPointerException ex) {
+                throw new IllegalArgumentException(holiday + " needs its date as MM-dd, got " + value);
+            }
+        }
+    }
+
+    public record WeekdayOfMonth(String name, Integer month, DayOfWeek dayOfWeek, Integer week) {
+
+        public WeekdayOfMonth {
+            requireName(name);
+            if (month == null || month < 1 || month > 12) {
+                throw new IllegalArgumentException(name + " needs a month from 1 to 12, got " + month);
+            }
+            if (dayOfWeek == null) {
+                throw new IllegalArgumentException(name + " needs a dayOfWeek");
+            }
+            // A fifth week does not exist in every month
+            if (week == null || week == 0 || week < -1 || week > 4) {
+                throw new IllegalArgumentException(name + " needs a week from 1 to 4, or -1 for the last, got " + week);
+            }
+        }
+    }
+
+    public record OneOffDate(String name, String date) {
+
+        public OneOffDate {
+            requireName(name);
+            localDate(name, date);
+        }
+
+        LocalDate localDate() {
+            return localDate(name, date);
+        }
+
+        private static LocalDate localDate(String holiday, String value) {
+            try {
+                return LocalDate.parse(value);
+            } catch (DateTimeParseException | NullPointerException ex) {
+                throw new IllegalArgumentException(holiday + " needs its date as yyyy-MM-dd, got " + value);
+            }
+        }
+    }
+
+    private static void requireName(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Holidays need a name");
+        }
+    }
+
+    // Any problem with the file, including a rule that fails validation, is reported as IllegalArgumentException
+    public static HolidayRules load(Path path) throws IOException {
+        try {
+            return JSON.readValue(Files.readAllBytes(path), HolidayRules.class);
+        } catch (JacksonException ex) {
+            throw new IllegalArgumentException("Invalid holiday calendars in " + path + ": " + rootMessage(ex), ex);
+        }
+    }
+
+    // The calendars bundled with the application, the US calendar being the specification's two holidays
+    public static HolidayRules defaults() {
+        try (InputStream in = HolidayRules.class.getResourceAsStream(DEFAULT_RULES)) {
+            if (in == null) {
+                throw new IllegalStateException(DEFAULT_RULES + " is missing from the classpath");
+            }
+            return JSON.readValue(in, HolidayRules.class);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String rootMessage(Throwable ex) {
+        Throwable cause = ex;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+}
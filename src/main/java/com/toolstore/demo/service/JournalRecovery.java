@@ -0,0 +1,49 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.repository.AgreementJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Rebuilds tool bookings from the journal once every bean exists, before the web server starts taking requests
+@Component
+public class JournalRecovery implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalRecovery.class);
+
+    private final AgreementJournal agreementJournal;
+    private final CheckoutService checkoutService;
+
+    public JournalRecovery(AgreementJournal agreementJournal, CheckoutService checkoutService) {
+        this.agreementJournal = agreementJournal;
+        this.checkoutService = checkoutService;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!agreementJournal.isEnabled()) {
+            return;
+        }
+
+        long[] counts = new long[2];
+        try {
+            agreementJournal.replay(
+                    agreement -> {
+                        checkoutService.replayCheckout(agreement);
+                        counts[0]++;
+                    },
+                    (toolCode, checkoutDate, returnDate) -> {
+                        checkoutService.replayReturn(toolCode, checkoutDate, returnDate);
+                        counts[1]++;
+                    });
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to replay agreement journal", ex);
+        }
+
+        logger.info("Replayed {} checkouts and {} returns from the agreement journal", counts[0], counts[1]);
+    }
+}
@@ -0,0 +1,90 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.model.PriceQuote;
+import com.toolstore.demo.model.ToolType;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Prices rentals from the current pricing rules and the holidays of the rental's region. A new rule set is
+// compiled off to the side and swapped in with a single reference write, so a quote in flight is priced entirely
+// by the old rules or entirely by the new ones. Quotes cached under the old rules are the caller's to invalidate,
+// see PricingRulesReloader
+public class PricingEngine {
+
+    private final HolidayCalendars holidayCalendars;
+    private final AtomicReference<CompiledRules> compiledRules;
+
+    public PricingEngine(HolidayCalendars holidayCalendars, PricingRules rules) {
+        this.holidayCalendars = holidayCalendars;
+        this.compiledRules = new AtomicReference<>(compile(rules));
+    }
+
+    // The bundled rules, which are the specification's rates and flags
+    public static PricingEngine withDefaultRules(HolidayCalendars holidayCalendars) {
+        return new PricingEngine(holidayCalendars, PricingRules.defaults());
+    }
+
+    // Both days inclusive, priced with the default region's holidays
+    public PriceQuote quote(ToolType toolType, LocalDate firstDay, LocalDate lastDay, int discountPercent) {
+        return quote(toolType, null, firstDay, lastDay, discountPercent);
+    }
+
+    // Both days inclusive, a null region is the default region
+    public PriceQuote quote(ToolType toolType, String region, LocalDate firstDay, LocalDate lastDay,
+                            int discountPercent) {
+        return table(region).quote(toolType, firstDay, lastDay, discountPercent);
+    }
+
+    // The current rules compiled for the region, for pricing several rentals against exactly the same rules
+    RateTable table(String region) {
+        return compiledRules.get().table(holidayCalendars.calendar(region));
+    }
+
+    // The region a request is priced in, the default region for null. Rejects regions without a calendar
+    public String resolveRegion(String region) {
+        return holidayCalendars.calendar(region).region();
+    }
+
+    public Set<String> regions() {
+        return holidayCalendars.regions();
+    }
+
+    public String rulesVersion() {
+        return compiledRules.get().rules.version();
+    }
+
+    // Compiling happens before the swap, rules that fail to compile leave the current ones in place
+    public void update(PricingRules rules) {
+        compiledRules.set(compile(rules));
+    }
+
+    // Only the default region is compiled up front, the others the first time they are priced
+    private CompiledRules compile(PricingRules rules) {
+        CompiledRules compiled = new CompiledRules(rules);
+        compiled.table(holidayCalendars.defaultCalendar());
+        return compiled;
+    }
+
+    // One rule set with a RateTable per region, each built once
+    private static final class CompiledRules {
+
+        private final PricingRules rules;
+        private final Map<String, RateTable> tables = new ConcurrentHashMap<>();
+
+        private CompiledRules(PricingRules rules) {
+            this.rules = rules;
+        }
+
+        private RateTable table(HolidayCalendar calendar) {
+            RateTable table = tables.get(calendar.region());
+            if (table == null) {
+                table = tables.computeIfAbsent(calendar.region(), region -> new RateTable(rules, calendar));
+            }
+            return table;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.model.ToolType;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.MonthDay;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Pricing as written in the rules file, see src/main/resources/pricing-rules.json. Validated on load, RateTable
+// compiles it into the tables checkouts are priced from.
+//
+// A day is charged by the tool type's weekday, weekend and holiday flags, a holiday that is not charged wins over
+// the weekday/weekend rule. A charged day costs the daily charge of the first season it falls in, or the base daily
+// charge outside every season, times the multiplier for its day of the week. A rental never costs less than the
+// minimum charge of its tool type.
+public record PricingRules(String version, List<Season> seasons, Map<ToolType, ToolRules> toolTypes) {
+
+    private static final DateTimeFormatter MONTH_DAY = DateTimeFormatter.ofPattern("MM-dd");
+    private static final String DEFAULT_RULES = "/pricing-rules.json";
+
+    // Typos in a hand-edited file are rejected instead of silently ignored
+    private static final JsonMapper JSON = JsonMapper.builder()
+            .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    public PricingRules {
+        seasons = seasons == null ? List.of() : List.copyOf(seasons);
+        if (toolTypes == null || !toolTypes.keySet().containsAll(List.of(ToolType.values()))) {
+            throw new IllegalArgumentException("Pricing rules must cover every tool type " + List.of(ToolType.values()));
+        }
+        toolTypes = new EnumMap<>(toolTypes);
+
+        Set<String> seasonNames = new HashSet<>();
+        for (Season season : seasons) {
+            if (!seasonNames.add(season.name())) {
+                throw new IllegalArgumentException("Season " + season.name() + " is defined twice");
+            }
+        }
+        for (Map.Entry<ToolType, ToolRules> entry : toolTypes.entrySet()) {
+            for (String season : entry.getValue().seasonalDailyCharges().keySet()) {
+                if (!seasonNames.contains(season)) {
+                    throw new IllegalArgumentException(entry.getKey() + " has a rate for undefined season " + season);
+                }
+            }
+        }
+    }
+
+    // MM-dd, inclusive on both ends. A season whose from is after its to wraps around the new year
+    public record Season(String name, String from, String to) {
+
+        public Season {
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("Seasons need a name");
+            }
+            monthDay(name, from);
+            monthDay(name, to);
+        }
+
+        MonthDay start() {
+            return monthDay(name, from);
+        }
+
+        MonthDay end() {
+            return monthDay(name, to);
+        }
+
+        private static MonthDay monthDay(String season, String value) {
+            try {
+                return MonthDay.parse(value, MONTH_DAY);
+            } catch (DateTimeParseException | NullPointerException ex) {
+                throw new IllegalArgumentException("Season " + season + " needs from and to as MM-dd, got " + value);
+            }
+        }
+    }
+
+    public record ToolRules(BigDecimal dailyCharge,
+                            Boolean chargeWeekdays,
+                            Boolean chargeWeekends,
+                            Boolean chargeHolidays,
+                            Map<String, BigDecimal> seasonalDailyCharges,
+                            Map<DayOfWeek, BigDecimal> dayOfWeekMultipliers,
+                            BigDecimal minimumCharge) {
+
+        public ToolRules {
+            requireNonNegative("dailyCharge", dailyCharge);
+            if (chargeWeekdays == null || chargeWeekends == null || chargeHolidays == null) {
+                throw new IllegalArgumentException("chargeWeekdays, chargeWeekends and chargeHolidays are required");
+            }
+            seasonalDailyCharges = seasonalDailyCharges == null ? Map.of() : Map.copyOf(seasonalDailyCharges);
+            dayOfWeekMultipliers = dayOfWeekMultipliers == null ? Map.of() : Map.copyOf(dayOfWeekMultipliers);
+            minimumCharge = minimumCharge == null ? BigDecimal.ZERO : minimumCharge;
+
+            seasonalDailyCharges.forEach(ToolRules::requireNonNegative);
+            dayOfWeekMultipliers.forEach((day, multiplier) -> requireNonNegative(day.name(), multiplier));
+            requireNonNegative("minimumCharge", minimumCharge);
+        }
+
+        // A holiday that is not charged wins over the weekday/weekend rule
+        boolean isChargeableOn(boolean weekend, boolean holiday) {
+            if (weekend && !chargeWeekends) {
+                return false;
+            }
+
+            if (holiday && !chargeHolidays) {
+                return false;
+            }
+
+            return weekend || chargeWeekdays;
+        }
+
+        private static void requireNonNegative(String name, BigDecimal value) {
+            if (value == null || value.signum() < 0) {
+                throw new IllegalArgumentException(name + " must be 0 or greater, got " + value);
+            }
+        }
+    }
+
+    // Any problem with the file, including a rule that fails validation, is reported as IllegalArgumentException
+    public static PricingRules load(Path path) throws IOException {
+        try {
+            return JSON.readValue(Files.readAllBytes(path), PricingRules.class);
+        } catch (JacksonException ex) {
+            throw new IllegalArgumentException("Invalid pricing rules in " + path + ": " + rootMessage(ex), ex);
+        }
+    }
+
+    // The rules bundled with the application, the rates and flags given by the specification
+    public static PricingRules defaults() {
+        try (InputStream in = PricingRules.class.getResourceAsStream(DEFAULT_RULES)) {
+            if (in == null) {
+                throw new IllegalStateException(DEFAULT_RULES + " is missing from the classpath");
+            }
+            return JSON.readValue(in, PricingRules.class);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String rootMessage(Throwable ex) {
+        Throwable cause = ex;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+}
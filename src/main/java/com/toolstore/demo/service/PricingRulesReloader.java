@@ -0,0 +1,127 @@
+package com.toolstore.demo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+
+// Watches the pricing rules file and swaps in every valid new version while the app keeps serving. A file that
+// fails to parse or validate is logged and skipped, the rules in use stay until a good version appears.
+// Cached quotes are invalidated after each swap, so no quote priced under the old rules is served again
+public class PricingRulesReloader implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingRulesReloader.class);
+
+    private final Path path;
+    private final PricingEngine pricingEngine;
+    private final QuoteCache quoteCache;
+    private final Duration interval;
+    private final Thread watcher;
+
+    // Modification time and size of the last file looked at, a change in either triggers a reload
+    private FileVersion seen;
+
+    private volatile boolean open = true;
+
+    private PricingRulesReloader(Path path, PricingEngine pricingEngine, QuoteCache quoteCache, Duration interval) {
+        this.path = path;
+        this.pricingEngine = pricingEngine;
+        this.quoteCache = quoteCache;
+        this.interval = interval;
+        this.seen = path != null ? FileVersion.of(path) : null;
+        this.watcher = path != null ? Thread.ofPlatform().name("pricing-rules").daemon().start(this::watchLoop) : null;
+    }
+
+    // The file is only polled, it is not loaded up front, see loadInitial
+    public static PricingRulesReloader watch(Path path, PricingEngine pricingEngine, QuoteCache quoteCache,
+                                             Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Pricing rules reload interval must be positive");
+        }
+
+        return new PricingRulesReloader(path, pricingEngine, quoteCache, interval);
+    }
+
+    public static PricingRulesReloader disabled() {
+        return new PricingRulesReloader(null, null, null, null);
+    }
+
+    // The rules to start with: the file when there is one, the bundled defaults otherwise.
+    // Unlike a reload, a broken file fails startup rather than quietly pricing with the defaults
+    public static PricingRules loadInitial(Path path) throws IOException {
+        if (path == null || !Files.exists(path)) {
+            return PricingRules.defaults();
+        }
+
+        return PricingRules.load(path);
+    }
+
+    // Returns true when new rules were swapped in
+    public boolean reload() {
+        try {
+            PricingRules rules = PricingRules.load(path);
+            pricingEngine.update(rules);
+            quoteCache.invalidateAll();
+
+            logger.info("Pricing rules {} loaded from {}", rules.version(), path);
+            return true;
+        } catch (NoSuchFileException ex) {
+            logger.warn("Pricing rules file {} is gone, keeping rules {}", path, pricingEngine.rulesVersion());
+        } catch (IOException | IllegalArgumentException ex) {
+            logger.warn("Pricing rules in {} rejected, keeping rules {}: {}", path, pricingEngine.rulesVersion(),
+                    ex.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        if (watcher == null || !open) {
+            return;
+        }
+        open = false;
+
+        watcher.interrupt();
+        try {
+            watcher.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void watchLoop() {
+        while (open) {
+            try {
+                Thread.sleep(interval);
+            } catch (InterruptedException ex) {
+                return;
+            }
+
+            FileVersion current = FileVersion.of(path);
+            if (current != null && !current.equals(seen)) {
+                reload();
+            }
+            // Remembered even when the reload was rejected, so a broken file is reported once rather than every poll
+            seen = current;
+        }
+    }
+
+    private record FileVersion(long modifiedMillis, long size) {
+
+        // Null while there is no file
+        static FileVersion of(Path path) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                return new FileVersion(attributes.lastModifiedTime().toMillis(), attributes.size());
+            } catch (IOException ex) {
+                return null;
+            }
+        }
+    }
+}
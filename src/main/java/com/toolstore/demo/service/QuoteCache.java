@@ -0,0 +1,56 @@
+package com.toolstore.demo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.toolstore.demo.model.PriceQuote;
+import com.toolstore.demo.model.ToolType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Memoizes pricing, which only depends on the tool type, the region and the request, so every tool of a type
+// shares entries
+@Component
+public class QuoteCache {
+
+    private final Cache<QuoteKey, PriceQuote> cache;
+
+    // Part of every key, so a quote computed under old rules can never be read after invalidateAll
+    private final AtomicLong rulesVersion = new AtomicLong();
+
+    public QuoteCache(@Value("${checkout.quote-cache.maximum-size:10000}") long maximumSize,
+                      @Value("${checkout.quote-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    // Region as resolved by PricingEngine, so the default region is never cached under two names
+    public PriceQuote get(ToolType toolType, String region, LocalDate checkoutDate, int rentalDayCount,
+                          int discountPercent, Supplier<PriceQuote> pricing) {
+        QuoteKey key = new QuoteKey(toolType, region, checkoutDate, rentalDayCount, discountPercent,
+                rulesVersion.get());
+        return cache.get(key, k -> pricing.get());
+    }
+
+    // Call whenever pricing or holiday rules change
+    public void invalidateAll() {
+        rulesVersion.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private record QuoteKey(ToolType toolType, String region, LocalDate checkoutDate, int rentalDayCount,
+                            int discountPercent, long rulesVersion) {
+    }
+}
@@ -0,0 +1,239 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.model.PriceQuote;
+import com.toolstore.demo.model.ToolType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// PricingRules compiled against one region's holidays, for pricing a whole rental with a handful of array reads.
+//
+// Every day falls in one day class: its season, whether it is a holiday and its day of the week. The rules are
+// compiled into a flat rate per tool type and day class. Weekdays, recurring holidays and seasons repeat every
+// 400 years, so per year of that cycle there are running totals of cents and charged days, built the first time
+// a year is priced, plus running totals over whole cycle years. A rental is the difference of two running totals,
+// whatever its length. One-off holidays don't repeat, they are running totals of corrections on top.
+// Immutable apart from the lazily built years, a new rule set gets a new table
+final class RateTable {
+
+    // The Gregorian calendar is exactly 20871 weeks every 400 years, so weekdays and holidays repeat with it
+    private static final int CYCLE_YEARS = 400;
+    private static final int BASE_YEAR = 2000;
+
+    private static final ToolType[] TOOL_TYPES = ToolType.values();
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int CLASSES_PER_SEASON = 2 * DAYS_PER_WEEK;
+    private static final int CENTS_SCALE = 2;
+
+    private final String version;
+    private final MonthDay[] seasonStarts;
+    private final MonthDay[] seasonEnds;
+    private final HolidayCalendar holidayCalendar;
+
+    private final long[] dailyChargeCents;
+    private final long[] minimumChargeCents;
+
+    // [tool type][day class], 0 for days that are not charged
+    private final long[][] rateCents;
+    private final int[][] charged;
+
+    // [tool type][n], totals over the first n years of the cycle
+    private final long[][] cycleCents;
+    private final long[][] cycleChargeDays;
+
+    private final AtomicReferenceArray<Year> years = new AtomicReferenceArray<>(CYCLE_YEARS);
+
+    // Sorted epoch days of the one-off holidays that are not also recurring ones, and [tool type][n] the
+    // difference the first n of them make against pricing them as ordinary days
+    private final long[] oneOffDays;
+    private final long[][] oneOffCents;
+    private final int[][] oneOffChargeDays;
+
+    RateTable(PricingRules rules, HolidayCalendar holidayCalendar) {
+        List<PricingRules.Season> seasons = rules.seasons();
+        this.version = rules.version();
+        this.seasonStarts = seasons.stream().map(PricingRules.Season::start).toArray(MonthDay[]::new);
+        this.seasonEnds = seasons.stream().map(PricingRules.Season::end).toArray(MonthDay[]::new);
+        this.holidayCalendar = holidayCalendar;
+
+        int dayClasses = (seasons.size() + 1) * CLASSES_PER_SEASON;
+        this.dailyChargeCents = new long[TOOL_TYPES.length];
+        this.minimumChargeCents = new long[TOOL_TYPES.length];
+        this.rateCents = new long[TOOL_TYPES.length][dayClasses];
+        this.charged = new int[TOOL_TYPES.length][dayClasses];
+
+        for (ToolType toolType : TOOL_TYPES) {
+            PricingRules.ToolRules toolRules = rules.toolTypes().get(toolType);
+            int type = toolType.ordinal();
+            dailyChargeCents[type] = cents(toolRules.dailyCharge());
+            minimumChargeCents[type] = cents(toolRules.minimumCharge());
+
+            for (int dayClass = 0; dayClass < dayClasses; dayClass++) {
+                int season = dayClass / CLASSES_PER_SEASON;
+                boolean holiday = dayClass % CLASSES_PER_SEASON >= DAYS_PER_WEEK;
+                DayOfWeek dayOfWeek = DayOfWeek.of(dayClass % DAYS_PER_WEEK + 1);
+                boolean weekend = dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+
+                if (!toolRules.isChargeableOn(weekend, holiday)) {
+                    continue;
+                }
+
+                BigDecimal daily = season == 0 ? toolRules.dailyCharge()
+                        : toolRules.seasonalDailyCharges().getOrDefault(seasons.get(season - 1).name(),
+                                toolRules.dailyCharge());
+                BigDecimal multiplier = toolRules.dayOfWeekMultipliers().getOrDefault(dayOfWeek, BigDecimal.ONE);
+
+                rateCents[type][dayClass] = cents(daily.multiply(multiplier));
+                charged[type][dayClass] = 1;
+            }
+        }
+
+        this.cycleCents = new long[TOOL_TYPES.length][CYCLE_YEARS + 1];
+        this.cycleChargeDays = new long[TOOL_TYPES.length][CYCLE_YEARS + 1];
+        // Only the year totals are kept from this pass, a year's running totals are built again when it is priced
+        for (int cycleYear = 0; cycleYear < CYCLE_YEARS; cycleYear++) {
+            Year year = build(BASE_YEAR + cycleYear);
+            for (int type = 0; type < TOOL_TYPES.length; type++) {
+                cycleCents[type][cycleYear + 1] = cycleCents[type][cycleYear] + year.cents[type][year.length];
+                cycleChargeDays[type][cycleYear + 1] =
+                        cycleChargeDays[type][cycleYear] + year.chargeDays[type][year.length];
+            }
+        }
+
+        List<LocalDate> oneOffs = holidayCalendar.oneOffHolidays().stream()
+                .filter(day -> !holidayCalendar.isRecurringHoliday(day))
+                .toList();
+        this.oneOffDays = oneOffs.stream().mapToLong(LocalDate::toEpochDay).toArray();
+        this.oneOffCents = new long[TOOL_TYPES.length][oneOffs.size() + 1];
+        this.oneOffChargeDays = new int[TOOL_TYPES.length][oneOffs.size() + 1];
+        for (int i = 0; i < oneOffs.size(); i++) {
+            int holiday = dayClass(oneOffs.get(i), true);
+            int ordinary = dayClass(oneOffs.get(i), false);
+            for (int type = 0; type < TOOL_TYPES.length; type++) {
+                oneOffCents[type][i + 1] = oneOffCents[type][i]
+                        + rateCents[type][holiday] - rateCents[type][ordinary];
+                oneOffChargeDays[type][i + 1] = oneOffChargeDays[type][i]
+                        + charged[type][holiday] - charged[type][ordinary];
+            }
+        }
+    }
+
+    String version() {
+        return version;
+    }
+
+    // Both days inclusive, a range ending before it starts charges nothing
+    PriceQuote quote(ToolType toolType, LocalDate firstDay, LocalDate lastDay, int discountPercent) {
+        int type = toolType.ordinal();
+        long cents = 0;
+        long chargeDays = 0;
+
+        if (!lastDay.isBefore(firstDay)) {
+            cents = centsThrough(type, lastDay) - centsThrough(type, firstDay.minusDays(1));
+            chargeDays = chargeDaysThrough(type, lastDay) - chargeDaysThrough(type, firstDay.minusDays(1));
+
+            if (oneOffDays.length > 0) {
+                int from = oneOffsBefore(firstDay.toEpochDay());
+                int to = oneOffsBefore(lastDay.toEpochDay() + 1);
+                cents += oneOffCents[type][to] - oneOffCents[type][from];
+                chargeDays += oneOffChargeDays[type][to] - oneOffChargeDays[type][from];
+            }
+        }
+
+        return PriceQuote.of(dailyChargeCents[type], Math.toIntExact(chargeDays),
+                Math.max(cents, minimumChargeCents[type]), discountPercent);
+    }
+
+    // Running totals from the start of the cycle BASE_YEAR falls in, negative before it
+    private long centsThrough(int type, LocalDate day) {
+        int cycles = Math.floorDiv(day.getYear() - BASE_YEAR, CYCLE_YEARS);
+        int cycleYear = Math.floorMod(day.getYear() - BASE_YEAR, CYCLE_YEARS);
+        return cycles * cycleCents[type][CYCLE_YEARS] + cycleCents[type][cycleYear]
+                + year(cycleYear).cents[type][day.getDayOfYear()];
+    }
+
+    private long chargeDaysThrough(int type, LocalDate day) {
+        int cycles = Math.floorDiv(day.getYear() - BASE_YEAR, CYCLE_YEARS);
+        int cycleYear = Math.floorMod(day.getYear() - BASE_YEAR, CYCLE_YEARS);
+        return cycles * cycleChargeDays[type][CYCLE_YEARS] + cycleChargeDays[type][cycleYear]
+                + year(cycleYear).chargeDays[type][day.getDayOfYear()];
+    }
+
+    // Number of one-off holidays before the epoch day
+    private int oneOffsBefore(long epochDay) {
+        int index = Arrays.binarySearch(oneOffDays, epochDay);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private Year year(int cycleYear) {
+        Year year = years.get(cycleYear);
+        if (year == null) {
+            years.compareAndSet(cycleYear, null, build(BASE_YEAR + cycleYear));
+            year = years.get(cycleYear);
+        }
+        return year;
+    }
+
+    private Year build(int year) {
+        LocalDate firstDay = LocalDate.of(year, 1, 1);
+        int length = firstDay.lengthOfYear();
+
+        Set<Integer> holidays = new HashSet<>();
+        for (LocalDate holiday : holidayCalendar.recurringHolidays(year)) {
+            holidays.add(holiday.getDayOfYear());
+        }
+
+        long[][] cents = new long[TOOL_TYPES.length][length + 1];
+        int[][] chargeDays = new int[TOOL_TYPES.length][length + 1];
+        LocalDate day = firstDay;
+
+        for (int dayOfYear = 1; dayOfYear <= length; dayOfYear++) {
+            int dayClass = dayClass(day, holidays.contains(dayOfYear));
+
+            for (int type = 0; type < TOOL_TYPES.length; type++) {
+                cents[type][dayOfYear] = cents[type][dayOfYear - 1] + rateCents[type][dayClass];
+                chargeDays[type][dayOfYear] = chargeDays[type][dayOfYear - 1] + charged[type][dayClass];
+            }
+
+            day = day.plusDays(1);
+        }
+
+        return new Year(length, cents, chargeDays);
+    }
+
+    private int dayClass(LocalDate day, boolean holiday) {
+        MonthDay monthDay = MonthDay.from(day);
+        int season = 0;
+        for (int i = 0; i < seasonStarts.length; i++) {
+            if (inSeason(monthDay, seasonStarts[i], seasonEnds[i])) {
+                season = i + 1;
+                break;
+            }
+        }
+
+        return season * CLASSES_PER_SEASON + (holiday ? DAYS_PER_WEEK : 0) + day.getDayOfWeek().getValue() - 1;
+    }
+
+    // Inclusive on both ends, a season that starts after it ends wraps around the new year
+    private static boolean inSeason(MonthDay day, MonthDay start, MonthDay end) {
+        return start.isAfter(end)
+                ? !day.isBefore(start) || !day.isAfter(end)
+                : !day.isBefore(start) && !day.isAfter(end);
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.setScale(CENTS_SCALE, RoundingMode.HALF_UP).movePointRight(CENTS_SCALE).longValueExact();
+    }
+
+    // cents[type][n] and chargeDays[type][n] are the totals over the first n days of the year
+    private record Year(int length, long[][] cents, int[][] chargeDays) {
+    }
+}
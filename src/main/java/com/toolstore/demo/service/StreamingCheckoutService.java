@@ -0,0 +1,179 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.codec.CheckoutJsonCodec;
+import com.toolstore.demo.dto.CheckoutRequest;
+import com.toolstore.demo.dto.CheckoutResult;
+import com.toolstore.demo.exception.ErrorCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+// Prices newline-delimited checkout requests one line at a time without reserving tools. Nothing is collected,
+// so memory stays flat, and writes block when the client reads slowly, which in turn stops us reading more input.
+// Lines are read and written exactly as POST /api/checkout does: CheckoutJsonCodec first, then the application's
+// JsonMapper for requests the codec leaves to it and for errors.
+// Not on the checkout path, so it is only built on the first streamed request.
+@Lazy
+@Service
+public class StreamingCheckoutService {
+
+    private static final int FLUSH_EVERY_LINES = 256;
+    private static final int CHUNK_SIZE = 8192;
+
+    private final BatchCheckoutService batchCheckoutService;
+    private final JsonMapper jsonMapper;
+    private final int maxLineBytes;
+
+    public StreamingCheckoutService(BatchCheckoutService batchCheckoutService,
+                                    JsonMapper jsonMapper,
+                                    @Value("${checkout.stream.max-line-bytes:8192}") int maxLineBytes) {
+        if (maxLineBytes < 1) {
+            throw new IllegalArgumentException("Stream max line bytes must be positive");
+        }
+        this.batchCheckoutService = batchCheckoutService;
+        this.jsonMapper = jsonMapper;
+        this.maxLineBytes = maxLineBytes;
+    }
+
+    // Writes one agreement, or one error, per non-blank input line and returns the number of lines written
+    public long checkoutAll(InputStream input, OutputStream output) throws IOException {
+        LineReader lines = new LineReader(input, maxLineBytes);
+        CheckoutJsonCodec codec = new CheckoutJsonCodec();
+        // Not closed, the caller owns output
+        OutputStream out = new BufferedOutputStream(output, CHUNK_SIZE);
+        long written = 0;
+        int unflushed = 0;
+
+        while (lines.next()) {
+            if (lines.isBlank()) {
+                continue;
+            }
+
+            CheckoutRequest request = lines.tooLong ? null : readRequest(lines.line, lines.length);
+            CheckoutResult result = request != null
+                    ? batchCheckoutService.previewOne(request)
+                    : CheckoutResult.failure(ErrorCode.MALFORMED_CHECKOUT_REQUEST.response());
+            if (result.agreement() != null) {
+                out.write(codec.buffer(), 0, codec.writeAgreement(result.agreement()));
+            } else {
+                out.write(jsonMapper.writeValueAsBytes(result.error()));
+            }
+            out.write('\n');
+            written++;
+
+            // Flush in batches, or straight away when the client has nothing more queued up
+            if (++unflushed >= FLUSH_EVERY_LINES || !lines.ready()) {
+                out.flush();
+                unflushed = 0;
+            }
+        }
+        out.flush();
+
+        return written;
+    }
+
+    // Null when the line is not a checkout request
+    private CheckoutRequest readRequest(byte[] line, int length) {
+        CheckoutRequest request = CheckoutJsonCodec.readRequest(line, length);
+        if (request != null) {
+            return request;
+        }
+
+        try {
+            return jsonMapper.readValue(line, 0, length, CheckoutRequest.class);
+        } catch (JacksonException ex) {
+            return null;
+        }
+    }
+
+    // Splits the input on '\n' without decoding it. A line longer than maxLength is skipped up to its end and only
+    // flagged as too long, so one runaway line can't make us buffer the whole stream
+    private static final class LineReader {
+
+        private final InputStream in;
+        private final byte[] chunk = new byte[CHUNK_SIZE];
+        private int position;
+        private int limit;
+
+        // The current line, without its line terminator
+        final byte[] line;
+        int length;
+        boolean tooLong;
+
+        LineReader(InputStream in, int maxLength) {
+            this.in = in;
+            this.line = new byte[maxLength];
+        }
+
+        // False once the input is used up
+        boolean next() throws IOException {
+            length = 0;
+            tooLong = false;
+            boolean started = false;
+
+            while (true) {
+                if (position == limit) {
+                    int read = in.read(chunk);
+                    if (read < 0) {
+                        return started;
+                    }
+                    position = 0;
+                    limit = read;
+                    continue;
+                }
+
+                started = true;
+                int start = position;
+                while (position < limit && chunk[position] != '\n') {
+                    position++;
+                }
+                append(start, position);
+                if (position < limit) {
+                    position++;
+                    break;
+                }
+            }
+
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            return true;
+        }
+
+        boolean isBlank() {
+            if (tooLong) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (!Character.isWhitespace(line[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Whether another line can be read without waiting on the client
+        boolean ready() throws IOException {
+            return position < limit || in.available() > 0;
+        }
+
+        private void append(int start, int end) {
+            if (tooLong) {
+                return;
+            }
+            if (length + end - start > line.length) {
+                tooLong = true;
+                return;
+            }
+            System.arraycopy(chunk, start, line, length, end - start);
+            length += end - start;
+        }
+    }
+}
@@ -3,32 +3,249 @@ package com.toolstore.demo.view;
 import com.toolstore.demo.model.RentalAgreement;
 import org.springframework.stereotype.Component;
 
-import java.text.NumberFormat;
-import java.time.format.DateTimeFormatter;
-import java.util.Locale;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.function.BiConsumer;
 
-// Displays a rental agreement, mainly for console output
-// Can easily be extended for multiple formats
+// Displays a rental agreement as text, CSV or a fixed-width receipt
+// Templates are built once and hold no formatter state, so one formatter can be used from any number of threads
 @Component
 public class RentalAgreementFormatter {
-    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("MM/dd/yy");
-    private static final NumberFormat CURRENCY_FMT = NumberFormat.getCurrencyInstance(Locale.US);
+
+    public enum Format {
+        // Format given by specification, one "Label: value" line per field
+        TEXT,
+        // One comma separated record of plain values, see csvHeader for the column names
+        CSV,
+        // Labels left and values right aligned to a fixed width, between two rules
+        RECEIPT
+    }
+
+    private static final int RECEIPT_WIDTH = 40;
+    private static final String RECEIPT_RULE = "-".repeat(RECEIPT_WIDTH);
+    private static final String RECEIPT_PADDING = " ".repeat(RECEIPT_WIDTH);
+    private static final int CENTS_SCALE = 2;
+
+    private static final Field[] FIELDS = Field.values();
+    private static final String[] TEXT_LABELS = compileLabels(": ");
+    private static final String[] RECEIPT_LABELS = compileLabels(":");
+    private static final String CSV_HEADER = compileCsvHeader();
 
     // Format given by specification
     public static String format(RentalAgreement a) {
-        return String.join("\n",
-                "Tool code: " + a.getToolCode(),
-                "Tool type: " + a.getToolType(),
-                "Tool brand: " + a.getToolBrand(),
-                "Rental days: " + a.getRentalDays(),
-                "Check out date: " + a.getCheckoutDate().format(DATE_FMT),
-                "Due date: " + a.getDueDate().format(DATE_FMT),
-                "Daily rental charge: " + CURRENCY_FMT.format(a.getDailyRentalCharge()),
-                "Charge days: " + a.getChargeDays(),
-                "Pre-discount charge: " + CURRENCY_FMT.format(a.getPreDiscountCharge()),
-                "Discount percent: " + a.getDiscountPercent() + "%",
-                "Discount amount: " + CURRENCY_FMT.format(a.getDiscountAmount()),
-                "Final charge: " + CURRENCY_FMT.format(a.getFinalCharge())
-        );
-    }
-}
\ No newline at end of file
+        return format(a, Format.TEXT);
+    }
+
+    public static String format(RentalAgreement a, Format format) {
+        StringBuilder out = new StringBuilder(format == Format.RECEIPT ? 640 : 384);
+        render(a, format, out);
+        return out.toString();
+    }
+
+    // Appends the agreement without a trailing line break. A StringBuilder is written to directly,
+    // any other Appendable receives the whole agreement in a single append
+    public static void render(RentalAgreement a, Format format, Appendable out) throws IOException {
+        if (out instanceof StringBuilder builder) {
+            render(a, format, builder);
+            return;
+        }
+
+        StringBuilder buffer = new StringBuilder(384);
+        render(a, format, buffer);
+        out.append(buffer);
+    }
+
+    public static String csvHeader() {
+        return CSV_HEADER;
+    }
+
+    private static void render(RentalAgreement a, Format format, StringBuilder out) {
+        switch (format) {
+            case TEXT -> renderText(a, out);
+            case CSV -> renderCsv(a, out);
+            case RECEIPT -> renderReceipt(a, out);
+        }
+    }
+
+    private static void renderText(RentalAgreement a, StringBuilder out) {
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (i > 0) {
+                out.append('\n');
+            }
+            out.append(TEXT_LABELS[i]);
+            FIELDS[i].display.accept(a, out);
+        }
+    }
+
+    private static void renderCsv(RentalAgreement a, StringBuilder out) {
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+
+            int start = out.length();
+            FIELDS[i].plain.accept(a, out);
+            quoteIfNeeded(out, start);
+        }
+    }
+
+    private static void renderReceipt(RentalAgreement a, StringBuilder out) {
+        out.append(RECEIPT_RULE);
+
+        for (int i = 0; i < FIELDS.length; i++) {
+            out.append('\n').append(RECEIPT_LABELS[i]);
+
+            // Value is written first, then pushed right by however much room is left on the line
+            int valueStart = out.length();
+            FIELDS[i].display.accept(a, out);
+            int padding = RECEIPT_WIDTH - RECEIPT_LABELS[i].length() - (out.length() - valueStart);
+            out.insert(valueStart, RECEIPT_PADDING, 0, Math.max(1, padding));
+        }
+
+        out.append('\n').append(RECEIPT_RULE);
+    }
+
+    // RFC 4180: values holding a comma, quote or line break are quoted with inner quotes doubled
+    private static void quoteIfNeeded(StringBuilder out, int start) {
+        boolean needsQuotes = false;
+        for (int i = start; i < out.length() && !needsQuotes; i++) {
+            char c = out.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            return;
+        }
+
+        for (int i = out.length() - 1; i >= start; i--) {
+            if (out.charAt(i) == '"') {
+                out.insert(i, '"');
+            }
+        }
+        out.insert(start, '"').append('"');
+    }
+
+    private static String[] compileLabels(String separator) {
+        String[] labels = new String[FIELDS.length];
+        for (int i = 0; i < FIELDS.length; i++) {
+            labels[i] = FIELDS[i].label + separator;
+        }
+        return labels;
+    }
+
+    private static String compileCsvHeader() {
+        StringBuilder header = new StringBuilder();
+        for (Field field : FIELDS) {
+            if (!header.isEmpty()) {
+                header.append(',');
+            }
+            header.append(field.label);
+        }
+        return header.toString();
+    }
+
+    // Same output as NumberFormat.getCurrencyInstance(Locale.US): $1,234.56 and -$3.58, rounded half-even
+    private static void appendCurrency(BigDecimal amount, StringBuilder out) {
+        long cents = amount.setScale(CENTS_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+        if (cents < 0) {
+            out.append('-');
+            cents = -cents;
+        }
+
+        out.append('$');
+        appendGrouped(cents / 100, out);
+        out.append('.');
+        appendTwoDigits((int) (cents % 100), out);
+    }
+
+    // Same as toPlainString, without building a string for the usual two-decimal amounts
+    private static void appendPlain(BigDecimal amount, StringBuilder out) {
+        if (amount.scale() != CENTS_SCALE || amount.precision() > 18) {
+            out.append(amount.toPlainString());
+            return;
+        }
+
+        long cents = amount.unscaledValue().longValue();
+        if (cents < 0) {
+            out.append('-');
+            cents = -cents;
+        }
+
+        out.append(cents / 100).append('.');
+        appendTwoDigits((int) (cents % 100), out);
+    }
+
+    private static void appendGrouped(long value, StringBuilder out) {
+        if (value < 1000) {
+            out.append(value);
+            return;
+        }
+
+        appendGrouped(value / 1000, out);
+        int group = (int) (value % 1000);
+        out.append(',');
+        if (group < 100) {
+            out.append('0');
+        }
+        if (group < 10) {
+            out.append('0');
+        }
+        out.append(group);
+    }
+
+    // MM/dd/yy
+    private static void appendDate(LocalDate date, StringBuilder out) {
+        appendTwoDigits(date.getMonthValue(), out);
+        out.append('/');
+        appendTwoDigits(date.getDayOfMonth(), out);
+        out.append('/');
+        appendTwoDigits(Math.abs(date.getYear() % 100), out);
+    }
+
+    private static void appendTwoDigits(int value, StringBuilder out) {
+        out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    // Fields in display order, each with its label and how to write its value for people (display)
+    // and for machines (plain)
+    private enum Field {
+        TOOL_CODE("Tool code", (a, out) -> out.append(a.getToolCode())),
+        TOOL_TYPE("Tool type", (a, out) -> out.append(a.getToolType())),
+        TOOL_BRAND("Tool brand", (a, out) -> out.append(a.getToolBrand())),
+        RENTAL_DAYS("Rental days", (a, out) -> out.append(a.getRentalDays())),
+        CHECKOUT_DATE("Check out date", (a, out) -> appendDate(a.getCheckoutDate(), out)),
+        DUE_DATE("Due date", (a, out) -> appendDate(a.getDueDate(), out)),
+        DAILY_RENTAL_CHARGE("Daily rental charge",
+                (a, out) -> appendCurrency(a.getDailyRentalCharge(), out),
+                (a, out) -> appendPlain(a.getDailyRentalCharge(), out)),
+        CHARGE_DAYS("Charge days", (a, out) -> out.append(a.getChargeDays())),
+        PRE_DISCOUNT_CHARGE("Pre-discount charge",
+                (a, out) -> appendCurrency(a.getPreDiscountCharge(), out),
+                (a, out) -> appendPlain(a.getPreDiscountCharge(), out)),
+        DISCOUNT_PERCENT("Discount percent",
+                (a, out) -> out.append(a.getDiscountPercent()).append('%'),
+                (a, out) -> out.append(a.getDiscountPercent())),
+        DISCOUNT_AMOUNT("Discount amount",
+                (a, out) -> appendCurrency(a.getDiscountAmount(), out),
+                (a, out) -> appendPlain(a.getDiscountAmount(), out)),
+        FINAL_CHARGE("Final charge",
+                (a, out) -> appendCurrency(a.getFinalCharge(), out),
+                (a, out) -> appendPlain(a.getFinalCharge(), out));
+
+        private final String label;
+        private final BiConsumer<RentalAgreement, StringBuilder> display;
+        private final BiConsumer<RentalAgreement, StringBuilder> plain;
+
+        Field(String label, BiConsumer<RentalAgreement, StringBuilder> value) {
+            this(label, value, value);
+        }
+
+        Field(String label, BiConsumer<RentalAgreement, StringBuilder> display,
+              BiConsumer<RentalAgreement, StringBuilder> plain) {
+            this.label = label;
+            this.display = display;
+            this.plain = plain;
+        }
+    }
+}
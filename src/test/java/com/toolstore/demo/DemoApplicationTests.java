@@ -1,11 +1,26 @@
 package com.toolstore.demo;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
 
 @SpringBootTest
 class DemoApplicationTests {
 
+    // The journal and audit log stay enabled, but write here instead of to data/ and logs/ in the working directory
+    @TempDir
+    static Path files;
+
+    @DynamicPropertySource
+    static void filesInTempDir(DynamicPropertyRegistry registry) {
+        registry.add("checkout.journal.path", () -> files.resolve("agreements.journal").toString());
+        registry.add("checkout.audit.path", () -> files.resolve("audit.log").toString());
+    }
+
     @Test
     void contextLoads() {
     }
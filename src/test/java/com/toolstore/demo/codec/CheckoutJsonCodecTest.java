@@ -0,0 +1,134 @@
+package com.toolstore.demo.codec;
+
+import com.toolstore.demo.dto.CheckoutRequest;
+import com.toolstore.demo.model.RentalAgreement;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Compared against the JsonMapper Spring Boot configures for the app, the one the codec has to match
+@JsonTest
+class CheckoutJsonCodecTest {
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Test
+    void writeAgreement_MatchesJacksonByteForByte_OverRandomAgreements() {
+        // Fixed seed so a failure can be reproduced
+        Random random = new Random(20200702L);
+        CheckoutJsonCodec codec = new CheckoutJsonCodec();
+        String[] brands = {"Werner", "DeWalt", "Ridgid \"Pro\"", "Back\\slash", "Tab\tNew\nLine\u0001",
+                "Stihl Ü", "斧头", "Emoji 🔨", ""};
+
+        for (int i = 0; i < 2_000; i++) {
+            LocalDate checkoutDate = LocalDate.of(1950 + random.nextInt(150), 1, 1).plusDays(random.nextInt(366));
+            int rentalDays = 1 + random.nextInt(400);
+            long preDiscountCents = random.nextLong(10_000_000);
+            long discountCents = preDiscountCents * random.nextInt(101) / 100;
+
+            RentalAgreement agreement = RentalAgreement.builder()
+                    .toolCode("T" + random.nextInt(1000))
+                    .toolType("LADDER")
+                    .toolBrand(brands[random.nextInt(brands.length)])
+                    .rentalDays(rentalDays)
+                    .checkoutDate(checkoutDate)
+                    .dueDate(checkoutDate.plusDays(rentalDays))
+                    .dailyRentalCharge(BigDecimal.valueOf(random.nextInt(1000), 2))
+                    .chargeDays(random.nextInt(rentalDays + 1))
+                    .preDiscountCharge(BigDecimal.valueOf(preDiscountCents, 2))
+                    .discountPercent(random.nextInt(101))
+                    .discountAmount(BigDecimal.valueOf(discountCents, 2))
+                    .finalCharge(BigDecimal.valueOf(preDiscountCents - discountCents, 2))
+                    .build();
+
+            byte[] expected = jsonMapper.writeValueAsBytes(agreement);
+            int length = codec.writeAgreement(agreement);
+
+            assertArrayEquals(expected, Arrays.copyOf(codec.buffer(), length),
+                    () -> new String(expected, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void writeAgreement_NullFields_MatchJackson() {
+        RentalAgreement agreement = RentalAgreement.builder().rentalDays(3).build();
+        CheckoutJsonCodec codec = new CheckoutJsonCodec();
+
+        int length = codec.writeAgreement(agreement);
+
+        assertEquals(jsonMapper.writeValueAsString(agreement),
+                new String(codec.buffer(), 0, length, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void readRequest_PlainBody_MatchesJackson() {
+        String[] bodies = {
+                "{\"toolCode\":\"LADW\",\"rentalDayCount\":3,\"discountPercent\":10,\"checkoutDate\":\"07/02/20\"}",
+                " {\n  \"checkoutDate\" : \"09/03/15\",\r\n\t\"toolCode\": \"JAKD\", \"discountPercent\":0, \"rentalDayCount\":6 } ",
+                "{\"toolCode\":null,\"rentalDayCount\":-1,\"discountPercent\":101,\"checkoutDate\":null}",
+                "{\"toolCode\":\"CHNS\",\"checkoutDate\":\"02/29/24\"}",
+                "{\"toolCode\":\"CHNS\",\"rentalDayCount\":5,\"region\":\"CA\",\"checkoutDate\":\"07/01/20\"}",
+                "{\"toolCode\":\"CHNS\",\"region\":null}",
+                "{}"
+        };
+
+        for (String body : bodies) {
+            byte[] json = body.getBytes(StandardCharsets.UTF_8);
+
+            assertEquals(jsonMapper.readValue(json, CheckoutRequest.class), CheckoutJsonCodec.readRequest(json, json.length),
+                    body);
+        }
+    }
+
+    @Test
+    void readRequest_AnythingUnusual_LeftToJackson() {
+        String[] bodies = {
+                "",
+                "null",
+                "[]",
+                "garbage",
+                "{\"toolCode\":\"LADW\"",
+                "{\"toolCode\":\"LADW\",}",
+                "{\"toolCode\":\"LADW\"} {}",
+                "{\"toolCode\":\"LA\\u0044W\"}",
+                "{\"toolCode\":\"LADW\",\"toolCode\":\"JAKD\"}",
+                "{\"toolCode\":\"LADW\",\"notes\":\"fragile\"}",
+                "{\"rentalDayCount\":\"3\"}",
+                "{\"rentalDayCount\":3.0}",
+                "{\"rentalDayCount\":3e0}",
+                "{\"rentalDayCount\":03}",
+                "{\"rentalDayCount\":2147483648}",
+                "{\"checkoutDate\":\"7/2/20\"}",
+                "{\"checkoutDate\":\"07/02/2020\"}",
+                "{\"checkoutDate\":\"02/30/15\"}",
+                "{\"checkoutDate\":\"13/01/15\"}",
+                "{\"checkoutDate\":\"\"}"
+        };
+
+        for (String body : bodies) {
+            byte[] json = body.getBytes(StandardCharsets.UTF_8);
+
+            assertNull(CheckoutJsonCodec.readRequest(json, json.length), body);
+        }
+    }
+
+    @Test
+    void readRequest_IntegerBounds() {
+        byte[] json = "{\"rentalDayCount\":2147483647,\"discountPercent\":-2147483648}".getBytes(StandardCharsets.UTF_8);
+
+        CheckoutRequest request = CheckoutJsonCodec.readRequest(json, json.length);
+
+        assertEquals(Integer.MAX_VALUE, request.rentalDayCount());
+        assertEquals(Integer.MIN_VALUE, request.discountPercent());
+    }
+}
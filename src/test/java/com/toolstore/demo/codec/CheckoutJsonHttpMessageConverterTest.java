@@ -0,0 +1,114 @@
+package com.toolstore.demo.codec;
+
+import com.toolstore.demo.dto.CheckoutRequest;
+import com.toolstore.demo.exception.ErrorResponse;
+import com.toolstore.demo.model.RentalAgreement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Built on the JsonMapper Spring Boot configures for the app, as WebConfig builds it
+@JsonTest
+class CheckoutJsonHttpMessageConverterTest {
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    private CheckoutJsonHttpMessageConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        converter = new CheckoutJsonHttpMessageConverter(jsonMapper, 256);
+    }
+
+    @Test
+    void canReadAndWrite_OnlyTheCheckoutTypes() {
+        assertTrue(converter.canRead(CheckoutRequest.class, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canWrite(RentalAgreement.class, MediaType.APPLICATION_JSON));
+
+        assertFalse(converter.canWrite(CheckoutRequest.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(RentalAgreement.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(ErrorResponse.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(List.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(CheckoutRequest.class, MediaType.APPLICATION_XML));
+    }
+
+    @Test
+    void read_PlainAndUnusualBodies() throws IOException {
+        assertEquals(new CheckoutRequest("LADW", 3, 10, LocalDate.of(2020, 7, 2)),
+                read("{\"toolCode\":\"LADW\",\"rentalDayCount\":3,\"discountPercent\":10,\"checkoutDate\":\"07/02/20\"}"));
+
+        // Handled by Jackson, which coerces the string and ignores the unknown field
+        assertEquals(new CheckoutRequest("LADW", 3, 10, LocalDate.of(2020, 7, 2)),
+                read("{\"toolCode\":\"LADW\",\"rentalDayCount\":\"3\",\"discountPercent\":10,\"checkoutDate\":\"07/02/20\",\"x\":1}"));
+    }
+
+    @Test
+    void read_MalformedBody_ThrowsNotReadable() {
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"checkoutDate\":\"7/2/2015\"}"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read("garbage"));
+    }
+
+    @Test
+    void read_BodyOverLimit_ThrowsNotReadable() throws IOException {
+        String json = "{\"toolCode\":\"LADW\",\"rentalDayCount\":3,\"checkoutDate\":\"07/02/20\"}";
+        String atLimit = json + " ".repeat(256 - json.length());
+
+        assertEquals(new CheckoutRequest("LADW", 3, null, LocalDate.of(2020, 7, 2)), read(atLimit));
+        assertThrows(HttpMessageNotReadableException.class, () -> read(atLimit + " "));
+
+        // Turned away on its declared length alone
+        MockHttpInputMessage input = new MockHttpInputMessage(new byte[0]);
+        input.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        input.getHeaders().setContentLength(10_000);
+        assertThrows(HttpMessageNotReadableException.class, () -> converter.read(CheckoutRequest.class, input));
+    }
+
+    @Test
+    void write_SameBytesAsJackson() throws IOException {
+        RentalAgreement agreement = RentalAgreement.builder()
+                .toolCode("LADW")
+                .toolType("LADDER")
+                .toolBrand("Werner")
+                .rentalDays(3)
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .dueDate(LocalDate.of(2020, 7, 5))
+                .dailyRentalCharge(new BigDecimal("1.99"))
+                .chargeDays(2)
+                .preDiscountCharge(new BigDecimal("3.98"))
+                .discountPercent(10)
+                .discountAmount(new BigDecimal("0.40"))
+                .finalCharge(new BigDecimal("3.58"))
+                .build();
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        converter.write(agreement, MediaType.APPLICATION_JSON, output);
+
+        assertEquals("{\"chargeDays\":2,\"checkoutDate\":\"07/02/20\",\"dailyRentalCharge\":1.99,"
+                        + "\"discountAmount\":0.40,\"discountPercent\":10,\"dueDate\":\"07/05/20\",\"finalCharge\":3.58,"
+                        + "\"preDiscountCharge\":3.98,\"rentalDays\":3,\"toolBrand\":\"Werner\",\"toolCode\":\"LADW\","
+                        + "\"toolType\":\"LADDER\"}",
+                output.getBodyAsString(StandardCharsets.UTF_8));
+        assertEquals(MediaType.APPLICATION_JSON, output.getHeaders().getContentType());
+    }
+
+    private Object read(String body) throws IOException {
+        MockHttpInputMessage input = new MockHttpInputMessage(body.getBytes(StandardCharsets.UTF_8));
+        input.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return converter.read(CheckoutRequest.class, input);
+    }
+}
@@ -0,0 +1,81 @@
+package com.toolstore.demo.controller;
+
+import com.toolstore.demo.exception.GlobalExceptionHandler;
+import com.toolstore.demo.repository.AgreementStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+
+import static com.toolstore.demo.model.TestAgreements.agreement;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AgreementControllerTest {
+
+    private AgreementStore agreementStore;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        agreementStore = AgreementStore.open(16, 100);
+        agreementStore.append(agreement("LADW", "LADDER", LocalDate.of(2020, 7, 2)));
+        agreementStore.append(agreement("JAKR", "JACKHAMMER", LocalDate.of(2020, 9, 3)));
+        agreementStore.append(agreement("JAKD", "JACKHAMMER", LocalDate.of(2020, 9, 8)));
+
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new AgreementController(agreementStore))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        agreementStore.close();
+    }
+
+    @Test
+    void find_FiltersAndPages() throws Exception {
+        mockMvc.perform(get("/api/agreements")
+                        .param("toolType", "JACKHAMMER")
+                        .param("dueFrom", "09/01/20")
+                        .param("dueTo", "09/15/20")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.agreements.length()").value(1))
+                .andExpect(jsonPath("$.agreements[0].id").value(1))
+                .andExpect(jsonPath("$.agreements[0].agreement.toolCode").value("JAKR"))
+                .andExpect(jsonPath("$.agreements[0].agreement.dueDate").value("09/06/20"))
+                .andExpect(jsonPath("$.next").value(1));
+
+        mockMvc.perform(get("/api/agreements")
+                        .param("toolType", "JACKHAMMER")
+                        .param("after", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.agreements[0].id").value(2))
+                .andExpect(jsonPath("$.agreements[0].agreement.toolCode").value("JAKD"))
+                .andExpect(jsonPath("$.next").isEmpty());
+    }
+
+    @Test
+    void find_BadPageSize_Returns400() throws Exception {
+        mockMvc.perform(get("/api/agreements").param("limit", "5000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Page size must be between 1 and 1000"));
+    }
+
+    @Test
+    void get_ById() throws Exception {
+        mockMvc.perform(get("/api/agreements/2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.toolCode").value("JAKD"))
+                .andExpect(jsonPath("$.finalCharge").value(3.58));
+
+        mockMvc.perform(get("/api/agreements/3"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -3,8 +3,14 @@ package com.toolstore.demo.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.toolstore.demo.dto.CheckoutRequest;
+import com.toolstore.demo.dto.CheckoutResult;
+import com.toolstore.demo.exception.ErrorCode;
 import com.toolstore.demo.exception.GlobalExceptionHandler;
+import com.toolstore.demo.metrics.CheckoutMetrics;
+import com.toolstore.demo.model.CartAgreement;
 import com.toolstore.demo.model.RentalAgreement;
+import com.toolstore.demo.service.AuditLog;
+import com.toolstore.demo.service.BatchCheckoutService;
 import com.toolstore.demo.service.CheckoutService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,11 +27,15 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +48,15 @@ class CheckoutControllerTest {
     @Mock
     private CheckoutService checkoutService;
 
+    @Mock
+    private BatchCheckoutService batchCheckoutService;
+
+    @Mock
+    private AuditLog auditLog;
+
+    @Mock
+    private CheckoutMetrics checkoutMetrics;
+
     @InjectMocks
     private CheckoutController checkoutController;
 
@@ -65,7 +84,7 @@ class CheckoutControllerTest {
                 new BigDecimal("1.99"), 2, new BigDecimal("3.98"),
                 10, new BigDecimal("0.40"), new BigDecimal("3.58"));
 
-        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class)))
+        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class), isNull()))
                 .thenReturn(mockAgreement);
 
         mockMvc.perform(post("/api/checkout")
@@ -83,7 +102,8 @@ class CheckoutControllerTest {
                 .andExpect(jsonPath("$.finalCharge").value(3.58));
 
         verify(checkoutService, times(1))
-                .checkout("LADW", 3, 10, LocalDate.of(2020, 7, 2));
+                .checkout("LADW", 3, 10, LocalDate.of(2020, 7, 2), null);
+        verify(auditLog, times(1)).checkout(mockAgreement);
     }
 
     @Test
@@ -95,7 +115,7 @@ class CheckoutControllerTest {
                 new BigDecimal("2.99"), 3, new BigDecimal("8.97"),
                 0, new BigDecimal("0.00"), new BigDecimal("8.97"));
 
-        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class)))
+        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class), isNull()))
                 .thenReturn(mockAgreement);
 
         mockMvc.perform(post("/api/checkout")
@@ -117,7 +137,7 @@ class CheckoutControllerTest {
                 new BigDecimal("1.99"), 2, new BigDecimal("3.98"),
                 100, new BigDecimal("3.98"), new BigDecimal("0.00"));
 
-        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class)))
+        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class), isNull()))
                 .thenReturn(mockAgreement);
 
         mockMvc.perform(post("/api/checkout")
@@ -173,7 +193,7 @@ class CheckoutControllerTest {
         // Specification test 2 - modified to be invalid
         CheckoutRequest request = new CheckoutRequest("INVALID", 3, 10, LocalDate.of(2020, 7, 2));
 
-        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class)))
+        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class), isNull()))
                 .thenThrow(new IllegalArgumentException("Tool not found: INVALID"));
 
         mockMvc.perform(post("/api/checkout")
@@ -183,6 +203,68 @@ class CheckoutControllerTest {
                 .andExpect(jsonPath("$.message").value("Tool not found: INVALID"));
     }
 
+    // -------------------------------------------------------
+    // Async Checkout Tests
+    // -------------------------------------------------------
+
+    @Test
+    void checkoutAsync_ValidRequest_Returns200WithRentalAgreement() throws Exception {
+        CheckoutRequest request = new CheckoutRequest("LADW", 3, 10, LocalDate.of(2020, 7, 2));
+        RentalAgreement mockAgreement = buildMockAgreement("LADW", "LADDER", "Werner", 3,
+                LocalDate.of(2020, 7, 2), LocalDate.of(2020, 7, 5),
+                new BigDecimal("1.99"), 2, new BigDecimal("3.98"),
+                10, new BigDecimal("0.40"), new BigDecimal("3.58"));
+
+        when(checkoutService.checkoutAsync("LADW", 3, 10, LocalDate.of(2020, 7, 2), null))
+                .thenReturn(CompletableFuture.completedFuture(mockAgreement));
+
+        MvcResult result = mockMvc.perform(post("/api/checkout/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.toolCode").value("LADW"))
+                .andExpect(jsonPath("$.finalCharge").value(3.58));
+
+        verify(auditLog, times(1)).checkout(mockAgreement);
+    }
+
+    @Test
+    void checkoutAsync_ToolNotAvailable_Returns400WithMessage() throws Exception {
+        CheckoutRequest request = new CheckoutRequest("LADW", 3, 10, LocalDate.of(2020, 7, 2));
+
+        when(checkoutService.checkoutAsync(anyString(), anyInt(), anyInt(), any(LocalDate.class), isNull()))
+                .thenReturn(CompletableFuture.failedFuture(ErrorCode.TOOL_NOT_AVAILABLE.exception("LADW")));
+
+        MvcResult result = mockMvc.perform(post("/api/checkout/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Tool not available: LADW"));
+
+        verify(auditLog, never()).checkout(any());
+    }
+
+    @Test
+    void checkoutAsync_InvalidRequest_Returns400WithoutCallingService() throws Exception {
+        CheckoutRequest request = new CheckoutRequest("LADW", 0, 10, LocalDate.of(2020, 7, 2));
+
+        mockMvc.perform(post("/api/checkout/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Rental day count must be 1 or greater"));
+
+        verifyNoInteractions(checkoutService);
+    }
+
     // -------------------------------------------------------
     // Malformed Request Tests
     // -------------------------------------------------------
@@ -245,6 +327,25 @@ class CheckoutControllerTest {
         System.out.println("Response body: " + response.getContentAsString());
     }
 
+    @Test
+    void checkout_WithRegion_PassesRegionToService() throws Exception {
+        CheckoutRequest request = new CheckoutRequest("JAKD", 6, 0, LocalDate.of(2015, 7, 2), "CA");
+
+        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class), eq("CA")))
+                .thenReturn(buildMockAgreement("JAKD", "JACKHAMMER", "DeWalt", 6,
+                        LocalDate.of(2015, 7, 2), LocalDate.of(2015, 7, 8),
+                        new BigDecimal("2.99"), 4, new BigDecimal("11.96"),
+                        0, new BigDecimal("0.00"), new BigDecimal("11.96")));
+
+        mockMvc.perform(post("/api/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.chargeDays").value(4));
+
+        verify(checkoutService).checkout("JAKD", 6, 0, LocalDate.of(2015, 7, 2), "CA");
+    }
+
     // -------------------------------------------------------
     // Specification Tests
     // -------------------------------------------------------
@@ -253,7 +354,7 @@ class CheckoutControllerTest {
     void specification_test_2() throws Exception {
         CheckoutRequest request = new CheckoutRequest("LADW", 3, 10, LocalDate.of(2020, 7, 2));
 
-        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class)))
+        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class), isNull()))
                 .thenReturn(buildMockAgreement("LADW", "LADDER", "Werner", 3,
                         LocalDate.of(2020, 7, 2), LocalDate.of(2020, 7, 5),
                         new BigDecimal("1.99"), 2, new BigDecimal("3.98"),
@@ -264,14 +365,14 @@ class CheckoutControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk());
 
-        verify(checkoutService).checkout("LADW", 3, 10, LocalDate.of(2020, 7, 2));
+        verify(checkoutService).checkout("LADW", 3, 10, LocalDate.of(2020, 7, 2), null);
     }
 
     @Test
     void specification_test_3() throws Exception {
         CheckoutRequest request = new CheckoutRequest("CHNS", 5, 25, LocalDate.of(2015, 7, 2));
 
-        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class)))
+        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class), isNull()))
                 .thenReturn(buildMockAgreement("CHNS", "CHAINSAW", "Stihl", 5,
                         LocalDate.of(2015, 7, 2), LocalDate.of(2015, 7, 7),
                         new BigDecimal("1.49"), 4, new BigDecimal("5.96"),
@@ -282,14 +383,14 @@ class CheckoutControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk());
 
-        verify(checkoutService).checkout("CHNS", 5, 25, LocalDate.of(2015, 7, 2));
+        verify(checkoutService).checkout("CHNS", 5, 25, LocalDate.of(2015, 7, 2), null);
     }
 
     @Test
     void specification_test_4() throws Exception {
         CheckoutRequest request = new CheckoutRequest("JAKD", 6, 0, LocalDate.of(2015, 9, 3));
 
-        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class)))
+        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class), isNull()))
                 .thenReturn(buildMockAgreement("JAKD", "JACKHAMMER", "DeWalt", 6,
                         LocalDate.of(2015, 9, 3), LocalDate.of(2015, 9, 9),
                         new BigDecimal("2.99"), 3, new BigDecimal("8.97"),
@@ -300,14 +401,14 @@ class CheckoutControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk());
 
-        verify(checkoutService).checkout("JAKD", 6, 0, LocalDate.of(2015, 9, 3));
+        verify(checkoutService).checkout("JAKD", 6, 0, LocalDate.of(2015, 9, 3), null);
     }
 
     @Test
     void specification_test_5() throws Exception {
         CheckoutRequest request = new CheckoutRequest("JAKR", 9, 0, LocalDate.of(2015, 7, 2));
 
-        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class)))
+        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class), isNull()))
                 .thenReturn(buildMockAgreement("JAKR", "JACKHAMMER", "Ridgid", 9,
                         LocalDate.of(2015, 7, 2), LocalDate.of(2015, 7, 11),
                         new BigDecimal("2.99"), 6, new BigDecimal("17.94"),
@@ -318,14 +419,14 @@ class CheckoutControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk());
 
-        verify(checkoutService).checkout("JAKR", 9, 0, LocalDate.of(2015, 7, 2));
+        verify(checkoutService).checkout("JAKR", 9, 0, LocalDate.of(2015, 7, 2), null);
     }
 
     @Test
     void specification_test_6() throws Exception {
         CheckoutRequest request = new CheckoutRequest("JAKR", 4, 50, LocalDate.of(2020, 7, 2));
 
-        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class)))
+        when(checkoutService.checkout(anyString(), anyInt(), anyInt(), any(LocalDate.class), isNull()))
                 .thenReturn(buildMockAgreement("JAKR", "JACKHAMMER", "Ridgid", 4,
                         LocalDate.of(2020, 7, 2), LocalDate.of(2020, 7, 6),
                         new BigDecimal("2.99"), 1, new BigDecimal("2.99"),
@@ -336,7 +437,95 @@ class CheckoutControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk());
 
-        verify(checkoutService).checkout("JAKR", 4, 50, LocalDate.of(2020, 7, 2));
+        verify(checkoutService).checkout("JAKR", 4, 50, LocalDate.of(2020, 7, 2), null);
+    }
+
+    // -------------------------------------------------------
+    // Batch Tests
+    // -------------------------------------------------------
+
+    @Test
+    void checkoutBatch_MixedItems_Returns200WithResultPerItem() throws Exception {
+        List<CheckoutRequest> requests = List.of(
+                new CheckoutRequest("LADW", 3, 10, LocalDate.of(2020, 7, 2)),
+                new CheckoutRequest("JAKR", 5, 101, LocalDate.of(2015, 9, 3)));
+
+        when(batchCheckoutService.checkoutAll(anyList()))
+                .thenReturn(List.of(
+                        CheckoutResult.success(buildMockAgreement("LADW", "LADDER", "Werner", 3,
+                                LocalDate.of(2020, 7, 2), LocalDate.of(2020, 7, 5),
+                                new BigDecimal("1.99"), 2, new BigDecimal("3.98"),
+                                10, new BigDecimal("0.40"), new BigDecimal("3.58"))),
+                        CheckoutResult.failure("Discount percent must be between 0 and 100")));
+
+        mockMvc.perform(post("/api/checkout/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].agreement.toolCode").value("LADW"))
+                .andExpect(jsonPath("$[0].agreement.finalCharge").value(3.58))
+                .andExpect(jsonPath("$[0].error").doesNotExist())
+                .andExpect(jsonPath("$[1].agreement").doesNotExist())
+                .andExpect(jsonPath("$[1].error.message").value("Discount percent must be between 0 and 100"));
+
+        // Only the item that was checked out is audited
+        verify(auditLog, times(1)).checkout(any(RentalAgreement.class));
+    }
+
+    // -------------------------------------------------------
+    // Cart Tests
+    // -------------------------------------------------------
+
+    @Test
+    void checkoutCart_FillsLinesFromCart_Returns200WithTotals() throws Exception {
+        String body = """
+                {"rentalDayCount":3,"discountPercent":10,"checkoutDate":"07/02/20","region":"US","lines":[
+                  {"toolCode":"LADW"},
+                  {"toolCode":"CHNS","rentalDayCount":5,"discountPercent":25,"checkoutDate":"07/02/15"}]}
+                """;
+        RentalAgreement ladder = buildMockAgreement("LADW", "LADDER", "Werner", 3,
+                LocalDate.of(2020, 7, 2), LocalDate.of(2020, 7, 5),
+                new BigDecimal("1.99"), 2, new BigDecimal("3.98"),
+                10, new BigDecimal("0.40"), new BigDecimal("3.58"));
+        RentalAgreement chainsaw = buildMockAgreement("CHNS", "CHAINSAW", "Stihl", 5,
+                LocalDate.of(2015, 7, 2), LocalDate.of(2015, 7, 7),
+                new BigDecimal("1.49"), 3, new BigDecimal("4.47"),
+                25, new BigDecimal("1.12"), new BigDecimal("3.35"));
+
+        when(checkoutService.checkoutCart(anyList(), eq("US")))
+                .thenReturn(new CartAgreement(List.of(ladder, chainsaw),
+                        new BigDecimal("8.45"), new BigDecimal("1.52"), new BigDecimal("6.93")));
+
+        mockMvc.perform(post("/api/checkout/cart")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lines[0].toolCode").value("LADW"))
+                .andExpect(jsonPath("$.lines[1].finalCharge").value(3.35))
+                .andExpect(jsonPath("$.finalCharge").value(6.93));
+
+        verify(checkoutService).checkoutCart(List.of(
+                new CheckoutRequest("LADW", 3, 10, LocalDate.of(2020, 7, 2)),
+                new CheckoutRequest("CHNS", 5, 25, LocalDate.of(2015, 7, 2))), "US");
+        verify(auditLog, times(2)).checkout(any(RentalAgreement.class));
+    }
+
+    @Test
+    void checkoutCart_ToolNotAvailable_Returns400WithMessage() throws Exception {
+        String body = """
+                {"rentalDayCount":3,"discountPercent":0,"checkoutDate":"07/02/20","lines":[{"toolCode":"LADW"}]}
+                """;
+
+        when(checkoutService.checkoutCart(anyList(), isNull()))
+                .thenThrow(ErrorCode.TOOL_NOT_AVAILABLE.exception("LADW"));
+
+        mockMvc.perform(post("/api/checkout/cart")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Tool not available: LADW"));
+
+        verifyNoInteractions(auditLog);
     }
 
     // -------------------------------------------------------
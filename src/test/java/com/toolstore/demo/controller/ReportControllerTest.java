@@ -0,0 +1,63 @@
+package com.toolstore.demo.controller;
+
+import com.toolstore.demo.exception.GlobalExceptionHandler;
+import com.toolstore.demo.repository.AgreementStore;
+import com.toolstore.demo.service.AgreementAnalytics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+
+import static com.toolstore.demo.model.TestAgreements.agreement;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ReportControllerTest {
+
+    private AgreementStore agreementStore;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        agreementStore = AgreementStore.open(16, 100);
+        agreementStore.append(agreement("LADW", "LADDER", LocalDate.of(2020, 7, 2)));
+        agreementStore.append(agreement("JAKR", "JACKHAMMER", LocalDate.of(2020, 7, 2)));
+        agreementStore.append(agreement("JAKD", "JACKHAMMER", LocalDate.of(2020, 9, 8)));
+
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new ReportController(new AgreementAnalytics(agreementStore, 64)))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        agreementStore.close();
+    }
+
+    @Test
+    void revenue_SingleDay() throws Exception {
+        mockMvc.perform(get("/api/reports/revenue").param("from", "07/02/20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.from").value("07/02/20"))
+                .andExpect(jsonPath("$.to").value("07/02/20"))
+                .andExpect(jsonPath("$.total.agreements").value(2))
+                .andExpect(jsonPath("$.total.revenue").value(7.16))
+                .andExpect(jsonPath("$.byToolType[0].key").value("JACKHAMMER"))
+                .andExpect(jsonPath("$.byToolType[1].key").value("LADDER"))
+                .andExpect(jsonPath("$.byWeek[0].key").value("06/29/20"))
+                .andExpect(jsonPath("$.utilization[0].toolCode").value("JAKR"))
+                .andExpect(jsonPath("$.utilization[0].utilization").value(1.0));
+    }
+
+    @Test
+    void revenue_StartAfterEnd_Returns400() throws Exception {
+        mockMvc.perform(get("/api/reports/revenue").param("from", "09/08/20").param("to", "07/02/20"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Report start must not be after its end"));
+    }
+}
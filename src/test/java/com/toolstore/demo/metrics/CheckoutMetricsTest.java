@@ -0,0 +1,134 @@
+package com.toolstore.demo.metrics;
+
+import com.toolstore.demo.exception.ErrorCode;
+import com.toolstore.demo.metrics.CheckoutMetrics.Operation;
+import com.toolstore.demo.model.ToolType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckoutMetricsTest {
+
+    private final CheckoutMetrics metrics = new CheckoutMetrics();
+
+    @Test
+    void snapshot_NothingRecorded_Empty() {
+        assertTrue(metrics.snapshot().isEmpty());
+    }
+
+    @Test
+    void snapshot_BrokenDownByOperationToolTypeAndOutcome() {
+        long start = System.nanoTime();
+        metrics.recordSuccess(Operation.CHECKOUT, ToolType.LADDER, start);
+        metrics.recordSuccess(Operation.CHECKOUT, ToolType.LADDER, start);
+        metrics.recordSuccess(Operation.CHARGE_DAYS, ToolType.LADDER, start);
+        metrics.recordRejected(Operation.CHECKOUT, ToolType.JACKHAMMER, ErrorCode.TOOL_NOT_AVAILABLE, start);
+        metrics.recordRejected(Operation.CHECKOUT, null, ErrorCode.DISCOUNT_PERCENT_OUT_OF_RANGE, start);
+        metrics.recordFailed(Operation.CHECKOUT, ToolType.CHAINSAW, start);
+
+        List<MetricSnapshot> snapshots = metrics.snapshot();
+
+        assertEquals(5, snapshots.size());
+        assertEquals(2, find(snapshots, "checkout", "LADDER", "success").count());
+        assertEquals(1, find(snapshots, "charge_days", "LADDER", "success").count());
+        assertEquals(1, find(snapshots, "checkout", "JACKHAMMER", "tool_not_available").count());
+        assertEquals(1, find(snapshots, "checkout", "none", "discount_percent_out_of_range").count());
+        assertEquals(1, find(snapshots, "checkout", "CHAINSAW", "error").count());
+    }
+
+    @Test
+    void snapshot_LatencyMeasuredFromStart() {
+        metrics.recordSuccess(Operation.CHECKOUT, ToolType.LADDER, System.nanoTime() - 5_000_000);
+
+        MetricSnapshot snapshot = metrics.snapshot().getFirst();
+
+        assertTrue(snapshot.maxNanos() >= 5_000_000);
+        assertTrue(snapshot.p50Nanos() >= 5_000_000 * 0.97);
+        assertEquals(snapshot.maxNanos(), snapshot.sumNanos());
+    }
+
+    @Test
+    void prometheus_WritesSummaryAndMax() {
+        long start = System.nanoTime();
+        metrics.recordSuccess(Operation.CHECKOUT, ToolType.LADDER, start);
+        metrics.recordRejected(Operation.CHECKOUT, null, ErrorCode.TOOL_NOT_FOUND, start);
+
+        String text = metrics.prometheus();
+
+        assertTrue(text.contains("# TYPE toolstore_checkout_duration_seconds summary\n"));
+        assertTrue(text.contains("toolstore_checkout_duration_seconds{tool_type=\"LADDER\",outcome=\"success\","
+                + "quantile=\"0.99\"} "));
+        assertTrue(text.contains("toolstore_checkout_duration_seconds_count{tool_type=\"none\","
+                + "outcome=\"tool_not_found\"} 1\n"));
+        assertTrue(text.contains("# TYPE toolstore_checkout_duration_seconds_max gauge\n"));
+        assertTrue(text.contains("# TYPE toolstore_charge_days_duration_seconds summary\n"));
+        assertFalse(text.contains("toolstore_charge_days_duration_seconds{"));
+    }
+
+    @Test
+    void warmup_NothingRecorded_AllUnknown() {
+        WarmupSnapshot warmup = metrics.warmup();
+
+        assertEquals(-1, warmup.iterations());
+        assertEquals(-1, warmup.durationNanos());
+        assertEquals(-1, warmup.firstCheckoutNanos());
+        assertFalse(metrics.prometheus().contains("toolstore_warmup"));
+    }
+
+    @Test
+    void warmup_FirstCheckoutOnlyRecordedOnce() {
+        metrics.recordSuccess(Operation.CHARGE_DAYS, ToolType.LADDER, System.nanoTime() - 9_000_000);
+        metrics.recordSuccess(Operation.CHECKOUT, ToolType.LADDER, System.nanoTime() - 5_000_000);
+        metrics.recordSuccess(Operation.CHECKOUT, ToolType.LADDER, System.nanoTime() - 50_000_000);
+
+        long first = metrics.warmup().firstCheckoutNanos();
+
+        assertTrue(first >= 5_000_000 && first < 50_000_000);
+    }
+
+    @Test
+    void prometheus_WritesWarmupGauges() {
+        metrics.recordWarmup(10_000, System.nanoTime() - 2_000_000);
+        metrics.recordRejected(Operation.CHECKOUT, null, ErrorCode.TOOL_NOT_FOUND, System.nanoTime());
+
+        String text = metrics.prometheus();
+
+        assertEquals(10_000, metrics.warmup().iterations());
+        assertTrue(metrics.warmup().durationNanos() >= 2_000_000);
+        assertTrue(text.contains("# TYPE toolstore_warmup_duration_seconds gauge\n"));
+        assertTrue(text.contains("toolstore_warmup_iterations 10000\n"));
+        assertTrue(text.contains("# TYPE toolstore_first_checkout_duration_seconds gauge\n"));
+    }
+
+    @Test
+    void audit_NotExported_ZeroAndLeftOutOfPrometheus() {
+        assertEquals(new AuditSnapshot(0, 0, 0), metrics.audit());
+        assertFalse(metrics.prometheus().contains("toolstore_audit"));
+    }
+
+    @Test
+    void prometheus_WritesAuditCounts() {
+        metrics.exportAudit(() -> new AuditSnapshot(120, 3, 7));
+
+        String text = metrics.prometheus();
+
+        assertEquals(new AuditSnapshot(120, 3, 7), metrics.audit());
+        assertTrue(text.contains("# TYPE toolstore_audit_entries_written_total counter\n"));
+        assertTrue(text.contains("toolstore_audit_entries_written_total 120\n"));
+        assertTrue(text.contains("toolstore_audit_entries_dropped_total 3\n"));
+        assertTrue(text.contains("# TYPE toolstore_audit_entries_pending gauge\n"));
+        assertTrue(text.contains("toolstore_audit_entries_pending 7\n"));
+    }
+
+    private static MetricSnapshot find(List<MetricSnapshot> snapshots, String operation, String toolType,
+                                       String outcome) {
+        return snapshots.stream()
+                .filter(s -> s.operation().equals(operation)
+                        && s.toolType().equals(toolType)
+                        && s.outcome().equals(outcome))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,87 @@
+package com.toolstore.demo.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void snapshot_Empty_AllZero() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+        assertEquals(0, snapshot.count());
+        assertEquals(0, snapshot.p50Nanos());
+        assertEquals(0, snapshot.p999Nanos());
+        assertEquals(0, snapshot.maxNanos());
+    }
+
+    @Test
+    void snapshot_PercentilesWithinThreePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(42);
+        long[] values = new long[100_000];
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            // Roughly log-normal, from a few microseconds to tens of milliseconds
+            values[i] = (long) Math.exp(10 + 1.5 * random.nextGaussian());
+            histogram.record(values[i]);
+            sum += values[i];
+        }
+        Arrays.sort(values);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(values.length, snapshot.count());
+        assertEquals(sum, snapshot.sumNanos());
+        assertEquals(values[values.length - 1], snapshot.maxNanos());
+        assertWithin(values[values.length / 2 - 1], snapshot.p50Nanos());
+        assertWithin(values[values.length * 99 / 100 - 1], snapshot.p99Nanos());
+        assertWithin(values[values.length * 999 / 1000 - 1], snapshot.p999Nanos());
+    }
+
+    @Test
+    void snapshot_SingleValue_ReportedExactly() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_234_567);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(1_234_567, snapshot.p50Nanos());
+        assertEquals(1_234_567, snapshot.p999Nanos());
+        assertEquals(1_234_567, snapshot.maxNanos());
+    }
+
+    @Test
+    void record_NegativeAndHugeValues_Clamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(2, snapshot.count());
+        assertEquals(0, snapshot.p50Nanos());
+        assertEquals(Long.MAX_VALUE, snapshot.maxNanos());
+    }
+
+    @Test
+    void indexOf_EveryValueFallsInsideItsBucket() {
+        long[] values = {0, 1, 31, 32, 33, 63, 64, 65, 1_000, 999_999, 1_000_000, 123_456_789, 1L << 40};
+        for (long value : values) {
+            int index = LatencyHistogram.indexOf(value);
+
+            assertTrue(value <= LatencyHistogram.highestValueIn(index), "value " + value);
+            if (index > 0) {
+                assertTrue(value > LatencyHistogram.highestValueIn(index - 1), "value " + value);
+            }
+        }
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertEquals(expected, actual, expected * 0.03, "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,46 @@
+package com.toolstore.demo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceQuoteTest {
+
+    @Test
+    void of_MatchesBigDecimalHalfUpPricing() {
+        // The specification's daily charges
+        for (long dailyChargeCents : new long[]{199, 149, 299}) {
+            for (int chargeDays = 0; chargeDays <= 1_000; chargeDays++) {
+                for (int discountPercent = 0; discountPercent <= 100; discountPercent++) {
+                    // Pricing as CheckoutService computed it before the cents path
+                    BigDecimal preDiscountCharge = BigDecimal.valueOf(dailyChargeCents, 2)
+                            .multiply(BigDecimal.valueOf(chargeDays))
+                            .setScale(2, RoundingMode.HALF_UP);
+                    BigDecimal discountAmount = preDiscountCharge
+                            .multiply(BigDecimal.valueOf(discountPercent))
+                            .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+                    BigDecimal finalCharge = preDiscountCharge.subtract(discountAmount);
+
+                    PriceQuote quote = PriceQuote.of(dailyChargeCents, chargeDays, dailyChargeCents * chargeDays,
+                            discountPercent);
+
+                    assertEquals(preDiscountCharge, BigDecimal.valueOf(quote.preDiscountCents(), 2));
+                    assertEquals(discountAmount, BigDecimal.valueOf(quote.discountCents(), 2));
+                    assertEquals(finalCharge, BigDecimal.valueOf(quote.finalCents(), 2));
+                }
+            }
+        }
+    }
+
+    @Test
+    void of_RoundsHalfCentUp() {
+        // 2.99 at 50% is 1.495
+        PriceQuote quote = PriceQuote.of(299, 1, 299, 50);
+
+        assertEquals(150, quote.discountCents());
+        assertEquals(149, quote.finalCents());
+    }
+}
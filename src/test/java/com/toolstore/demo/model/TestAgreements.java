@@ -0,0 +1,48 @@
+package com.toolstore.demo.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Agreements for the tests that store, journal, report on or serve them. Unless a test picks its own, an agreement
+// is checked out on 07/02/20 and charges 2 days at 1.99 with 10% off, 3.58 in all
+public final class TestAgreements {
+
+    public static final LocalDate CHECKOUT_DATE = LocalDate.of(2020, 7, 2);
+
+    // A Werner ladder
+    public static RentalAgreement agreement(int rentalDays) {
+        return agreement("LADW", "LADDER", "Werner", rentalDays);
+    }
+
+    public static RentalAgreement agreement(String toolCode, String toolType, LocalDate checkoutDate) {
+        return agreement(toolCode, toolType, "Brand", checkoutDate, 3);
+    }
+
+    public static RentalAgreement agreement(String toolCode, String toolType, String toolBrand, int rentalDays) {
+        return agreement(toolCode, toolType, toolBrand, CHECKOUT_DATE, rentalDays);
+    }
+
+    public static RentalAgreement agreement(String toolCode, String toolType, String toolBrand, LocalDate checkoutDate,
+                                            int rentalDays) {
+        return agreement(toolCode, toolType, toolBrand, checkoutDate, rentalDays, 358, 40, 2);
+    }
+
+    // The pre-discount charge is finalCents + discountCents
+    public static RentalAgreement agreement(String toolCode, String toolType, String toolBrand, LocalDate checkoutDate,
+                                            int rentalDays, long finalCents, long discountCents, int chargeDays) {
+        return RentalAgreement.builder()
+                .toolCode(toolCode)
+                .toolType(toolType)
+                .toolBrand(toolBrand)
+                .rentalDays(rentalDays)
+                .checkoutDate(checkoutDate)
+                .dueDate(checkoutDate.plusDays(rentalDays))
+                .dailyRentalCharge(new BigDecimal("1.99"))
+                .chargeDays(chargeDays)
+                .preDiscountCharge(BigDecimal.valueOf(finalCents + discountCents, 2))
+                .discountPercent(10)
+                .discountAmount(BigDecimal.valueOf(discountCents, 2))
+                .finalCharge(BigDecimal.valueOf(finalCents, 2))
+                .build();
+    }
+}
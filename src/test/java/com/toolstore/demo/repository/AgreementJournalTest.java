@@ -0,0 +1,361 @@
+package com.toolstore.demo.repository;
+
+import com.toolstore.demo.model.RentalAgreement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.toolstore.demo.model.TestAgreements.agreement;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgreementJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replay_ReturnsConcurrentGroupCommittedAppends() throws IOException {
+        Path path = directory.resolve("agreements.journal");
+
+        try (AgreementJournal journal = AgreementJournal.open(path, true, 16);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 1; i <= 500; i++) {
+                int rentalDays = i;
+                executor.submit(() -> journal.appendCheckout(agreement(rentalDays)));
+            }
+        }
+
+        List<RentalAgreement> replayed = replayCheckouts(path);
+        assertEquals(500, replayed.size());
+        assertEquals(500 * 501 / 2, replayed.stream().mapToInt(RentalAgreement::getRentalDays).sum());
+    }
+
+    @Test
+    void appendCheckoutAsync_CompletesOnceDurable() throws IOException {
+        Path path = directory.resolve("agreements.journal");
+        List<CompletableFuture<Void>> appends = new ArrayList<>();
+
+        try (AgreementJournal journal = AgreementJournal.open(path, true, 16)) {
+            for (int i = 1; i <= 100; i++) {
+                appends.add(journal.appendCheckoutAsync(agreement(i)));
+            }
+            CompletableFuture.allOf(appends.toArray(CompletableFuture[]::new)).join();
+        }
+
+        assertEquals(100, replayCheckouts(path).size());
+    }
+
+    @Test
+    void appendCheckoutAsync_Closed_CompletesExceptionally() throws IOException {
+        AgreementJournal journal = AgreementJournal.open(directory.resolve("agreements.journal"), true, 16);
+        journal.close();
+
+        CompletableFuture<Void> append = journal.appendCheckoutAsync(agreement(1));
+
+        CompletionException exception = assertThrows(CompletionException.class, append::join);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+    @Test
+    void appendCheckoutAsync_RacingClose_AlwaysCompletes() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            AgreementJournal journal = AgreementJournal.open(directory.resolve(round + ".journal"), true, 16);
+            List<CompletableFuture<Void>> appends = Collections.synchronizedList(new ArrayList<>());
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 8; i++) {
+                    executor.submit(() -> {
+                        for (int j = 0; j < 200; j++) {
+                            appends.add(journal.appendCheckoutAsync(agreement(1)));
+                        }
+                    });
+                }
+                journal.close();
+            }
+
+            for (CompletableFuture<Void> append : appends) {
+                append.handle((ignored, ex) -> null).get(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    @Test
+    void replay_RoundTripsEveryField() throws IOException {
+        Path path = directory.resolve("agreements.journal");
+        RentalAgreement original = agreement(3);
+
+        try (AgreementJournal journal = AgreementJournal.open(path, false, 1)) {
+            journal.appendCheckout(original);
+        }
+
+        RentalAgreement replayed = replayCheckouts(path).getFirst();
+        assertEquals(original.getToolCode(), replayed.getToolCode());
+        assertEquals(original.getToolType(), replayed.getToolType());
+        assertEquals(original.getToolBrand(), replayed.getToolBrand());
+        assertEquals(original.getRentalDays(), replayed.getRentalDays());
+        assertEquals(original.getCheckoutDate(), replayed.getCheckoutDate());
+        assertEquals(original.getDueDate(), replayed.getDueDate());
+        assertEquals(original.getDailyRentalCharge(), replayed.getDailyRentalCharge());
+        assertEquals(original.getChargeDays(), replayed.getChargeDays());
+        assertEquals(original.getPreDiscountCharge(), replayed.getPreDiscountCharge());
+        assertEquals(original.getDiscountPercent(), replayed.getDiscountPercent());
+        assertEquals(original.getDiscountAmount(), replayed.getDiscountAmount());
+        assertEquals(original.getFinalCharge(), replayed.getFinalCharge());
+    }
+
+    @Test
+    void replay_ReturnsEveryCartLineInOrder() throws IOException {
+        Path path = directory.resolve("agreements.journal");
+
+        try (AgreementJournal journal = AgreementJournal.open(path, true, 16)) {
+            journal.appendCheckout(agreement(1));
+            journal.appendCart(List.of(agreement(2), agreement(3), agreement(4)));
+        }
+
+        assertEquals(List.of(1, 2, 3, 4),
+                replayCheckouts(path).stream().map(RentalAgreement::getRentalDays).toList());
+    }
+
+    @Test
+    void open_TornCartReplaysNoneOfItsLines() throws IOException {
+        Path path = directory.resolve("agreements.journal");
+
+        try (AgreementJournal journal = AgreementJournal.open(path, false, 1)) {
+            journal.appendCheckout(agreement(1));
+            journal.appendCart(List.of(agreement(2), agreement(3)));
+        }
+
+        // Cut the cart record short, as if the process died while writing it
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(file.length() - 10);
+        }
+
+        assertEquals(1, replayCheckouts(path).size());
+    }
+
+    @Test
+    void replay_ReturnsCarryTheirReturnDate() throws IOException {
+        Path path = directory.resolve("agreements.journal");
+        try (AgreementJournal journal = AgreementJournal.open(path, false, 1)) {
+            journal.appendReturn("LADW", LocalDate.of(2020, 7, 2), LocalDate.of(2020, 7, 4));
+        }
+
+        List<LocalDate> returnDates = new ArrayList<>();
+        try (AgreementJournal journal = AgreementJournal.open(path, false, 1)) {
+            journal.replay(agreement -> fail(), (toolCode, checkoutDate, returnDate) -> returnDates.add(returnDate));
+        }
+
+        assertEquals(List.of(LocalDate.of(2020, 7, 4)), returnDates);
+    }
+
+    @Test
+    void open_TruncatesTornTailAndKeepsAppending() throws IOException {
+        Path path = directory.resolve("agreements.journal");
+
+        try (AgreementJournal journal = AgreementJournal.open(path, true, 16)) {
+            journal.appendCheckout(agreement(1));
+            journal.appendCheckout(agreement(2));
+            journal.appendReturn("LADW", LocalDate.of(2020, 7, 2), LocalDate.of(2020, 7, 3));
+        }
+
+        // Simulate a crash halfway through writing the last record
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(file.length() - 3);
+        }
+        long tornLength = Files.size(path);
+
+        try (AgreementJournal journal = AgreementJournal.open(path, true, 16)) {
+            assertTrue(Files.size(path) < tornLength);
+            journal.appendCheckout(agreement(3));
+        }
+
+        List<Integer> rentalDays = new ArrayList<>();
+        List<String> returns = new ArrayList<>();
+        try (AgreementJournal journal = AgreementJournal.open(path, true, 16)) {
+            journal.replay(agreement -> rentalDays.add(agreement.getRentalDays()),
+                    (toolCode, checkoutDate, returnDate) -> returns.add(toolCode));
+        }
+
+        assertEquals(List.of(1, 2, 3), rentalDays);
+        assertTrue(returns.isEmpty());
+    }
+
+    @Test
+    void append_FailedWrite_IsCutOffBeforeTheNextRecord() throws IOException {
+        for (boolean groupCommit : new boolean[]{true, false}) {
+            Path path = directory.resolve("failed-write-" + groupCommit + ".journal");
+            FailingChannel channel = new FailingChannel(FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+
+            try (AgreementJournal journal = AgreementJournal.open(path, channel, groupCommit, 16)) {
+                journal.appendCheckout(agreement(1));
+                channel.failNextWrite = true;
+                assertThrows(UncheckedIOException.class, () -> journal.appendCheckout(agreement(2)));
+                journal.appendCheckout(agreement(3));
+            }
+
+            assertEquals(List.of(1, 3), replayCheckouts(path).stream().map(RentalAgreement::getRentalDays).toList());
+        }
+    }
+
+    @Test
+    void open_StopsAtCorruptRecord() throws IOException {
+        Path path = directory.resolve("agreements.journal");
+
+        try (AgreementJournal journal = AgreementJournal.open(path, false, 1)) {
+            journal.appendCheckout(agreement(1));
+            journal.appendCheckout(agreement(2));
+        }
+
+        // Flip a byte inside the second record's payload
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 0xFF);
+        }
+
+        assertEquals(1, replayCheckouts(path).size());
+    }
+
+    @Test
+    void disabled_RecordsNothing() throws IOException {
+        AgreementJournal journal = AgreementJournal.disabled();
+        journal.appendCheckout(agreement(1));
+
+        journal.replay(agreement -> fail("Nothing should be replayed"), (toolCode, checkoutDate, returnDate) -> fail());
+        assertFalse(journal.isEnabled());
+    }
+
+    // Writes a few bytes of the next write and then fails it, the way a full disk tears a record
+    private static final class FailingChannel extends FileChannel {
+
+        private final FileChannel delegate;
+        private volatile boolean failNextWrite;
+
+        private FailingChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return (int) write(new ByteBuffer[]{src}, 0, 1);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            if (failNextWrite) {
+                failNextWrite = false;
+                delegate.write(srcs[offset].slice(srcs[offset].position(), 5));
+                throw new IOException("No space left on device");
+            }
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+
+    private List<RentalAgreement> replayCheckouts(Path path) throws IOException {
+        List<RentalAgreement> agreements = new ArrayList<>();
+        try (AgreementJournal journal = AgreementJournal.open(path, true, 16)) {
+            journal.replay(agreements::add, (toolCode, checkoutDate, returnDate) -> { });
+        }
+        return agreements;
+    }
+}
@@ -0,0 +1,229 @@
+package com.toolstore.demo.repository;
+
+import com.toolstore.demo.model.AgreementPage;
+import com.toolstore.demo.model.RentalAgreement;
+import com.toolstore.demo.model.StoredAgreement;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.toolstore.demo.model.TestAgreements.agreement;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgreementStoreTest {
+
+    @Test
+    void get_RoundTripsEveryField() {
+        RentalAgreement original = agreement("JAKR", "JACKHAMMER", "Ridgid", 9);
+
+        try (AgreementStore store = AgreementStore.open(4, 100)) {
+            long id = store.append(original);
+            RentalAgreement stored = store.get(id).toAgreement();
+
+            assertEquals(0, id);
+            assertEquals(original.getToolCode(), stored.getToolCode());
+            assertEquals(original.getToolType(), stored.getToolType());
+            assertEquals(original.getToolBrand(), stored.getToolBrand());
+            assertEquals(original.getRentalDays(), stored.getRentalDays());
+            assertEquals(original.getCheckoutDate(), stored.getCheckoutDate());
+            assertEquals(original.getDueDate(), stored.getDueDate());
+            assertEquals(original.getDailyRentalCharge(), stored.getDailyRentalCharge());
+            assertEquals(original.getChargeDays(), stored.getChargeDays());
+            assertEquals(original.getPreDiscountCharge(), stored.getPreDiscountCharge());
+            assertEquals(original.getDiscountPercent(), stored.getDiscountPercent());
+            assertEquals(original.getDiscountAmount(), stored.getDiscountAmount());
+            assertEquals(original.getFinalCharge(), stored.getFinalCharge());
+        }
+    }
+
+    @Test
+    void get_ReadsAcrossChunks() {
+        try (AgreementStore store = AgreementStore.open(4, 100)) {
+            for (int i = 1; i <= 10; i++) {
+                store.append(agreement(i % 2 == 0 ? "LADW" : "CHNS", "LADDER", "Werner", i));
+            }
+
+            assertEquals(10, store.size());
+            assertEquals(3 * 4 * 56, store.allocatedBytes());
+            assertEquals(6, store.get(5).rentalDays());
+            assertEquals("LADW", store.get(5).toolCode());
+            assertEquals(10, store.get(9).rentalDays());
+            assertEquals(LocalDate.of(2020, 7, 12), store.get(9).dueDate());
+            assertThrows(IndexOutOfBoundsException.class, () -> store.get(10));
+        }
+    }
+
+    @Test
+    void forEach_VisitsInIdOrder() {
+        try (AgreementStore store = AgreementStore.open(2, 100)) {
+            for (int i = 1; i <= 5; i++) {
+                store.append(agreement("LADW", "LADDER", "Werner", i));
+            }
+
+            List<Long> ids = new ArrayList<>();
+            long[] finalCents = {0};
+            store.forEach(view -> {
+                ids.add(view.id());
+                finalCents[0] += view.finalCents();
+            });
+
+            assertEquals(List.of(0L, 1L, 2L, 3L, 4L), ids);
+            assertEquals(5 * 358, finalCents[0]);
+        }
+    }
+
+    @Test
+    void append_ConcurrentWritersKeepEveryAgreement() {
+        try (AgreementStore store = AgreementStore.open(64, 10_000)) {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 1; i <= 1_000; i++) {
+                    int rentalDays = i;
+                    executor.submit(() -> store.append(agreement("JAKD", "JACKHAMMER", "DeWalt", rentalDays)));
+                }
+            }
+
+            long[] rentalDays = {0};
+            store.forEach(view -> rentalDays[0] += view.rentalDays());
+            assertEquals(1_000, store.size());
+            assertEquals(1_000 * 1_001 / 2, rentalDays[0]);
+        }
+    }
+
+    @Test
+    void query_JackhammersDueInRange_PagedByCursor() {
+        try (AgreementStore store = AgreementStore.open(4, 100)) {
+            // Due on 07/04 through 07/13, the even ids are jackhammers
+            for (int i = 2; i <= 11; i++) {
+                boolean jackhammer = i % 2 == 0;
+                store.append(jackhammer
+                        ? agreement("JAKR", "JACKHAMMER", "Ridgid", i)
+                        : agreement("LADW", "LADDER", "Werner", i));
+            }
+            AgreementQuery query = new AgreementQuery(null, "JACKHAMMER", null, null,
+                    LocalDate.of(2020, 7, 5), LocalDate.of(2020, 7, 12));
+
+            AgreementPage first = store.query(query, -1, 2);
+            AgreementPage second = store.query(query, first.next(), 2);
+
+            assertEquals(List.of(4, 6), first.agreements().stream().map(StoredAgreement::agreement)
+                    .map(RentalAgreement::getRentalDays).toList());
+            assertEquals(List.of(2L, 4L), first.agreements().stream().map(StoredAgreement::id).toList());
+            assertEquals(4, first.next());
+            assertEquals(List.of(8, 10), second.agreements().stream().map(StoredAgreement::agreement)
+                    .map(RentalAgreement::getRentalDays).toList());
+            assertNull(second.next());
+        }
+    }
+
+    @Test
+    void query_IntersectionMatchesFullScan() {
+        String[][] tools = {{"CHNS", "CHAINSAW"}, {"LADW", "LADDER"}, {"JAKD", "JACKHAMMER"}, {"JAKR", "JACKHAMMER"}};
+        Random random = new Random(24);
+
+        try (AgreementStore store = AgreementStore.open(64, 10_000)) {
+            // Rental days are unique, so they identify the agreement
+            for (int i = 1; i <= 3_000; i++) {
+                String[] tool = tools[random.nextInt(tools.length)];
+                LocalDate checkoutDate = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(365));
+                store.append(agreement(tool[0], tool[1], "Brand", checkoutDate, i));
+            }
+
+            for (int q = 0; q < 200; q++) {
+                String[] tool = tools[random.nextInt(tools.length)];
+                LocalDate from = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(365));
+                AgreementQuery query = new AgreementQuery(
+                        random.nextInt(3) == 0 ? tool[0] : null,
+                        random.nextInt(3) == 0 ? tool[1] : null,
+                        random.nextBoolean() ? from : null,
+                        random.nextBoolean() ? from.plusDays(random.nextInt(60)) : null,
+                        random.nextInt(4) == 0 ? from.plusDays(random.nextInt(30)) : null,
+                        random.nextInt(4) == 0 ? from.plusDays(1_000 + random.nextInt(3_000)) : null);
+
+                List<Integer> expected = new ArrayList<>();
+                store.forEach(view -> {
+                    if (matches(query, view)) {
+                        expected.add(view.rentalDays());
+                    }
+                });
+
+                List<Integer> paged = new ArrayList<>();
+                long after = -1;
+                do {
+                    AgreementPage page = store.query(query, after, 50);
+                    page.agreements().forEach(stored -> paged.add(stored.agreement().getRentalDays()));
+                    after = page.next() != null ? page.next() : -2;
+                } while (after != -2);
+
+                assertEquals(expected, paged, query.toString());
+            }
+        }
+    }
+
+    @Test
+    void query_UnknownToolCodeOrBadPageSize() {
+        try (AgreementStore store = AgreementStore.open(4, 100)) {
+            store.append(agreement("LADW", "LADDER", "Werner", 1));
+
+            assertTrue(store.query(new AgreementQuery("XXXX", null, null, null, null, null), -1, 10)
+                    .agreements().isEmpty());
+            assertEquals(1, store.query(AgreementQuery.all(), -1, 10).agreements().size());
+            assertThrows(IllegalArgumentException.class, () -> store.query(AgreementQuery.all(), -1, 0));
+        }
+    }
+
+    @Test
+    void append_FullStoreKeepsWhatItHas() {
+        try (AgreementStore store = AgreementStore.open(4, 2)) {
+            assertEquals(0, store.append(agreement("LADW", "LADDER", "Werner", 1)));
+            assertEquals(1, store.append(agreement("LADW", "LADDER", "Werner", 2)));
+            assertEquals(-1, store.append(agreement("LADW", "LADDER", "Werner", 3)));
+            assertEquals(2, store.size());
+        }
+    }
+
+    @Test
+    void disabled_KeepsNothing() {
+        AgreementStore store = AgreementStore.disabled();
+
+        assertEquals(-1, store.append(agreement("LADW", "LADDER", "Werner", 1)));
+        assertEquals(0, store.size());
+        assertFalse(store.isEnabled());
+        store.close();
+    }
+
+    @Test
+    void open_RejectsChunkSizeThatIsNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> AgreementStore.open(1000, 10_000));
+    }
+
+    private static boolean matches(AgreementQuery query, AgreementView view) {
+        return (query.toolCode() == null || query.toolCode().equals(view.toolCode()))
+                && (query.toolType() == null || query.toolType().equals(view.toolType()))
+                && (query.checkoutFrom() == null || !view.checkoutDate().isBefore(query.checkoutFrom()))
+                && (query.checkoutTo() == null || !view.checkoutDate().isAfter(query.checkoutTo()))
+                && (query.dueFrom() == null || !view.dueDate().isBefore(query.dueFrom()))
+                && (query.dueTo() == null || !view.dueDate().isAfter(query.dueTo()));
+    }
+
+    @Test
+    void recordReturn_FindsLatestAgreementOfToolAndDay() {
+        try (AgreementStore store = AgreementStore.open(4, 100)) {
+            store.append(agreement("LADW", "LADDER", "Werner", 3));
+            store.append(agreement("CHNS", "CHAINSAW", "Stihl", 3));
+            store.append(agreement("LADW", "LADDER", "Werner", 5));
+
+            assertTrue(store.recordReturn("LADW", LocalDate.of(2020, 7, 2), LocalDate.of(2020, 7, 4)));
+            assertFalse(store.recordReturn("LADW", LocalDate.of(2020, 7, 3), LocalDate.of(2020, 7, 4)));
+            assertFalse(store.recordReturn("JAKR", LocalDate.of(2020, 7, 2), LocalDate.of(2020, 7, 4)));
+
+            assertEquals(1, store.returnCount());
+            assertEquals(2, store.returnedId(0));
+            assertEquals(LocalDate.of(2020, 7, 4).toEpochDay(), store.returnEpochDay(0));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.toolstore.demo.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationCalendarTest {
+
+    private static final LocalDate BASE = LocalDate.of(2020, 1, 1);
+
+    @Test
+    void book_MatchesDayByDayOccupancy_OverRandomBookings() {
+        ReservationCalendar calendar = new ReservationCalendar();
+        boolean[] occupied = new boolean[400];
+        Random random = new Random(70220L);
+
+        for (int i = 0; i < 2_000; i++) {
+            int start = random.nextInt(380);
+            int length = 1 + random.nextInt(15);
+            int end = Math.min(start + length, occupied.length);
+
+            boolean free = true;
+            for (int day = start; day < end; day++) {
+                free &= !occupied[day];
+            }
+
+            assertEquals(free, calendar.isFree(BASE.plusDays(start), BASE.plusDays(end)));
+            assertEquals(free, calendar.book(BASE.plusDays(start), BASE.plusDays(end)));
+            if (free) {
+                for (int day = start; day < end; day++) {
+                    occupied[day] = true;
+                }
+            }
+        }
+    }
+
+    @Test
+    void nextAvailableStart_SkipsGapsTooShort() {
+        ReservationCalendar calendar = new ReservationCalendar();
+        calendar.book(BASE, BASE.plusDays(5));
+        calendar.book(BASE.plusDays(7), BASE.plusDays(10));
+        calendar.book(BASE.plusDays(12), BASE.plusDays(20));
+
+        assertEquals(BASE.plusDays(5), calendar.nextAvailableStart(BASE, 2));
+        assertEquals(BASE.plusDays(20), calendar.nextAvailableStart(BASE, 3));
+        assertEquals(BASE.minusDays(3), calendar.nextAvailableStart(BASE.minusDays(3), 3));
+        assertEquals(BASE.plusDays(20), calendar.nextAvailableStart(BASE.minusDays(3), 4));
+    }
+
+    @Test
+    void cancel_FreesRange() {
+        ReservationCalendar calendar = new ReservationCalendar();
+        calendar.book(BASE, BASE.plusDays(5));
+
+        assertTrue(calendar.cancel(BASE));
+        assertFalse(calendar.cancel(BASE));
+        assertTrue(calendar.isFree(BASE, BASE.plusDays(5)));
+    }
+}
@@ -0,0 +1,61 @@
+package com.toolstore.demo.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ToolRepositoryTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 7, 2);
+
+    private final ToolRepository toolRepository = new ToolRepository();
+
+    @Test
+    void reserve_ConcurrentCallersForSameRange_OnlyOneWins() throws Exception {
+        int callers = 64;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < callers; i++) {
+                // Every range overlaps every other one
+                LocalDate startDate = START.plusDays(i % 3);
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    return toolRepository.reserve("JAKR", startDate, startDate.plusDays(5));
+                }));
+            }
+            start.countDown();
+
+            int wins = 0;
+            for (Future<Boolean> attempt : attempts) {
+                wins += attempt.get() ? 1 : 0;
+            }
+            assertEquals(1, wins);
+        }
+
+        assertEquals(1, toolRepository.findCalendar("JAKR").orElseThrow().size());
+    }
+
+    @Test
+    void release_OnlyExistingBooking() {
+        assertFalse(toolRepository.release("CHNS", START));
+        assertTrue(toolRepository.reserve("CHNS", START, START.plusDays(3)));
+        assertTrue(toolRepository.release("CHNS", START));
+        assertTrue(toolRepository.reserve("CHNS", START, START.plusDays(3)));
+    }
+
+    @Test
+    void reserve_UnknownTool_ReturnsFalse() {
+        assertFalse(toolRepository.reserve("NOPE", START, START.plusDays(1)));
+        assertFalse(toolRepository.release("NOPE", START));
+    }
+}
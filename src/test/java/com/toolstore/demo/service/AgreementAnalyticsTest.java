@@ -0,0 +1,146 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.dto.RevenueReport;
+import com.toolstore.demo.repository.AgreementStore;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static com.toolstore.demo.model.TestAgreements.agreement;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgreementAnalyticsTest {
+
+    @Test
+    void report_GroupsByTypeBrandAndWeek() {
+        try (AgreementStore store = AgreementStore.open(16, 100)) {
+            store.append(agreement("LADW", "LADDER", "Werner", LocalDate.of(2020, 7, 2), 3, 358, 40, 2));
+            store.append(agreement("JAKR", "JACKHAMMER", "Ridgid", LocalDate.of(2020, 7, 6), 2, 598, 0, 2));
+            store.append(agreement("LADW", "LADDER", "Werner", LocalDate.of(2020, 7, 9), 1, 199, 0, 1));
+            AgreementAnalytics analytics = new AgreementAnalytics(store, 64);
+
+            RevenueReport report = analytics.report(LocalDate.of(2020, 7, 1), LocalDate.of(2020, 7, 7));
+
+            assertEquals(line("TOTAL", 2, "9.56", "0.40", 4), report.total());
+            assertEquals(List.of(line("JACKHAMMER", 1, "5.98", "0.00", 2), line("LADDER", 1, "3.58", "0.40", 2)),
+                    report.byToolType());
+            assertEquals(List.of(line("Ridgid", 1, "5.98", "0.00", 2), line("Werner", 1, "3.58", "0.40", 2)),
+                    report.byBrand());
+            assertEquals(List.of(line("06/29/20", 1, "3.58", "0.40", 2), line("07/06/20", 1, "5.98", "0.00", 2)),
+                    report.byWeek());
+            assertEquals(List.of(
+                    new RevenueReport.Utilization("JAKR", 2, 7, new BigDecimal("0.2857")),
+                    new RevenueReport.Utilization("LADW", 3, 7, new BigDecimal("0.4286"))), report.utilization());
+        }
+    }
+
+    @Test
+    void report_SingleDay_CountsRentalsCheckedOutEarlier() {
+        try (AgreementStore store = AgreementStore.open(16, 100)) {
+            store.append(agreement("LADW", "LADDER", "Werner", LocalDate.of(2020, 7, 2), 3, 358, 40, 2));
+            AgreementAnalytics analytics = new AgreementAnalytics(store, 64);
+
+            RevenueReport report = analytics.report(LocalDate.of(2020, 7, 4), LocalDate.of(2020, 7, 4));
+
+            assertEquals(line("TOTAL", 0, "0.00", "0.00", 0), report.total());
+            assertTrue(report.byToolType().isEmpty());
+            assertTrue(report.byWeek().isEmpty());
+            assertEquals(List.of(new RevenueReport.Utilization("LADW", 1, 1, new BigDecimal("1.0000"))),
+                    report.utilization());
+        }
+    }
+
+    @Test
+    void report_EarlyReturn_EndsUtilizationOnReturnDate() {
+        try (AgreementStore store = AgreementStore.open(16, 100)) {
+            store.append(agreement("LADW", "LADDER", "Werner", LocalDate.of(2020, 7, 2), 10, 358, 40, 2));
+            store.append(agreement("JAKR", "JACKHAMMER", "Ridgid", LocalDate.of(2020, 7, 2), 10, 598, 0, 2));
+            AgreementAnalytics analytics = new AgreementAnalytics(store, 64);
+            LocalDate from = LocalDate.of(2020, 7, 1);
+            LocalDate to = LocalDate.of(2020, 7, 31);
+            assertEquals(10, analytics.report(from, to).utilization().get(1).rentedDays());
+
+            store.recordReturn("LADW", LocalDate.of(2020, 7, 2), LocalDate.of(2020, 7, 5));
+            RevenueReport report = analytics.report(from, to);
+
+            assertEquals(List.of(
+                    new RevenueReport.Utilization("JAKR", 10, 31, new BigDecimal("0.3226")),
+                    new RevenueReport.Utilization("LADW", 3, 31, new BigDecimal("0.0968"))), report.utilization());
+            assertEquals(2, report.total().agreements());
+        }
+    }
+
+    @Test
+    void report_LongRental_CountsOnlyDaysInPeriod() {
+        try (AgreementStore store = AgreementStore.open(16, 100)) {
+            store.append(agreement("LADW", "LADDER", "Werner", LocalDate.of(2020, 1, 1), 3650, 358, 40, 2));
+            AgreementAnalytics analytics = new AgreementAnalytics(store, 64);
+
+            RevenueReport report = analytics.report(LocalDate.of(2021, 1, 1), LocalDate.of(2021, 12, 31));
+
+            assertEquals(List.of(new RevenueReport.Utilization("LADW", 365, 365, new BigDecimal("1.0000"))),
+                    report.utilization());
+            assertEquals(2, analytics.dayCount());
+        }
+    }
+
+    @Test
+    void report_ForkJoin_MatchesSerial() {
+        Random random = new Random(25);
+        try (AgreementStore store = AgreementStore.open(256, 20_000)) {
+            String[][] tools = {{"CHNS", "CHAINSAW", "Stihl"}, {"LADW", "LADDER", "Werner"},
+                    {"JAKD", "JACKHAMMER", "DeWalt"}, {"JAKR", "JACKHAMMER", "Ridgid"}};
+            for (int i = 0; i < 20_000; i++) {
+                String[] tool = tools[random.nextInt(tools.length)];
+                int rentalDays = 1 + random.nextInt(14);
+                LocalDate checkoutDate = LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365));
+                store.append(agreement(tool[0], tool[1], tool[2], checkoutDate, rentalDays,
+                        random.nextInt(10_000), random.nextInt(1_000), 1 + random.nextInt(rentalDays)));
+            }
+            LocalDate from = LocalDate.of(2024, 3, 1);
+            LocalDate to = LocalDate.of(2024, 8, 31);
+
+            RevenueReport parallel = new AgreementAnalytics(store, 500).report(from, to);
+            RevenueReport serial = new AgreementAnalytics(store, Integer.MAX_VALUE).report(from, to);
+
+            assertEquals(serial, parallel);
+            assertTrue(parallel.total().agreements() > 0);
+        }
+    }
+
+    @Test
+    void catchUp_FoldsInOnlyNewAgreements() {
+        try (AgreementStore store = AgreementStore.open(16, 100)) {
+            store.append(agreement("LADW", "LADDER", "Werner", LocalDate.of(2020, 7, 2), 3, 358, 40, 2));
+            AgreementAnalytics analytics = new AgreementAnalytics(store, 64);
+            LocalDate day = LocalDate.of(2020, 7, 2);
+            assertEquals(line("TOTAL", 1, "3.58", "0.40", 2), analytics.report(day, day).total());
+
+            store.append(agreement("LADW", "LADDER", "Werner", day, 1, 199, 0, 1));
+            store.append(agreement("JAKR", "JACKHAMMER", "Ridgid", day, 2, 598, 0, 2));
+
+            assertEquals(2, analytics.catchUp());
+            assertEquals(0, analytics.catchUp());
+            assertEquals(line("TOTAL", 3, "11.55", "0.40", 5), analytics.report(day, day).total());
+        }
+    }
+
+    @Test
+    void report_StartAfterEnd_Throws() {
+        try (AgreementStore store = AgreementStore.open(16, 100)) {
+            AgreementAnalytics analytics = new AgreementAnalytics(store, 64);
+
+            IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                    () -> analytics.report(LocalDate.of(2020, 7, 2), LocalDate.of(2020, 7, 1)));
+            assertEquals("Report start must not be after its end", ex.getMessage());
+        }
+    }
+
+    private static RevenueReport.Line line(String key, long agreements, String revenue, String discount,
+                                           long chargeDays) {
+        return new RevenueReport.Line(key, agreements, new BigDecimal(revenue), new BigDecimal(discount), chargeDays);
+    }
+}
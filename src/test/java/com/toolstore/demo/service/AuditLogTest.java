@@ -0,0 +1,154 @@
+package com.toolstore.demo.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.toolstore.demo.model.TestAgreements.agreement;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogTest {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void checkout_WritesOneJsonLinePerAgreement() throws IOException {
+        Path path = directory.resolve("logs/audit.log");
+
+        try (AuditLog auditLog = AuditLog.open(path, jsonMapper, 1024, AuditLog.OverflowPolicy.BLOCK, 1, 64);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                executor.submit(() -> auditLog.checkout(agreement(3)));
+            }
+        }
+
+        List<String> lines = Files.readAllLines(path);
+        assertEquals(200, lines.size());
+        assertTrue(lines.getFirst().startsWith("{\"timestamp\":\""));
+        assertTrue(lines.getFirst().contains("\"event\":\"checkout\""));
+        assertTrue(lines.getFirst().contains("\"toolCode\":\"LADW\""));
+        assertTrue(lines.getFirst().contains("\"checkoutDate\":\"07/02/20\""));
+    }
+
+    @Test
+    void checkout_DropPolicy_CountsEntriesThatDoNotFit() throws Exception {
+        StalledWriter out = new StalledWriter();
+        AuditLog auditLog = new AuditLog(out, jsonMapper, 2, AuditLog.OverflowPolicy.DROP, 1, 1);
+
+        // The writer takes the first entry and stalls on it, two more fill the buffer
+        auditLog.checkout(agreement(3));
+        out.writing.await();
+        for (int i = 0; i < 5; i++) {
+            auditLog.checkout(agreement(3));
+        }
+
+        assertEquals(3, auditLog.droppedCount());
+        assertEquals(2, auditLog.pendingCount());
+
+        out.resume.countDown();
+        auditLog.close();
+        assertEquals(3, auditLog.writtenCount());
+        assertEquals(3, out.toString().lines().count());
+    }
+
+    @Test
+    void checkout_SamplePolicy_KeepsOneInEveryRateOverflowingEntries() throws Exception {
+        StalledWriter out = new StalledWriter();
+        AuditLog auditLog = new AuditLog(out, jsonMapper, 1, AuditLog.OverflowPolicy.SAMPLE, 4, 1);
+
+        auditLog.checkout(agreement(3));
+        out.writing.await();
+        auditLog.checkout(agreement(3));
+
+        // Eight entries overflow, the first and fifth wait for room and the other six are dropped
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                executor.submit(() -> auditLog.checkout(agreement(3)));
+            }
+            while (auditLog.droppedCount() < 6) {
+                Thread.onSpinWait();
+            }
+            out.resume.countDown();
+        }
+
+        auditLog.close();
+        assertEquals(6, auditLog.droppedCount());
+        assertEquals(4, auditLog.writtenCount());
+    }
+
+    @Test
+    void checkout_AfterClose_IsDropped() throws IOException {
+        AuditLog auditLog = AuditLog.open(directory.resolve("audit.log"), jsonMapper, 16,
+                AuditLog.OverflowPolicy.BLOCK, 1, 16);
+        auditLog.close();
+
+        auditLog.checkout(agreement(3));
+
+        assertEquals(1, auditLog.droppedCount());
+    }
+
+    @Test
+    void checkout_RacingClose_EveryEntryWrittenOrDropped() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            StringWriter out = new StringWriter();
+            AuditLog auditLog = new AuditLog(out, jsonMapper, 64, AuditLog.OverflowPolicy.BLOCK, 1, 16);
+            CountDownLatch started = new CountDownLatch(4);
+
+            try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+                for (int i = 0; i < 4; i++) {
+                    executor.submit(() -> {
+                        started.countDown();
+                        for (int j = 0; j < 100; j++) {
+                            auditLog.checkout(agreement(3));
+                        }
+                    });
+                }
+                started.await();
+                auditLog.close();
+            }
+
+            assertEquals(400, auditLog.writtenCount() + auditLog.droppedCount());
+            assertEquals(auditLog.writtenCount(), out.toString().lines().count());
+        }
+    }
+
+    @Test
+    void disabled_RecordsNothing() {
+        AuditLog auditLog = AuditLog.disabled();
+
+        auditLog.checkout(agreement(3));
+
+        assertEquals(0, auditLog.pendingCount());
+        assertEquals(0, auditLog.droppedCount());
+    }
+
+    // Holds up the first write until the test lets it through
+    private static final class StalledWriter extends StringWriter {
+
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch resume = new CountDownLatch(1);
+
+        @Override
+        public void write(String line) {
+            writing.countDown();
+            try {
+                resume.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            super.write(line);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.dto.CheckoutRequest;
+import com.toolstore.demo.dto.CheckoutResult;
+import com.toolstore.demo.exception.CheckoutException;
+import com.toolstore.demo.exception.ErrorCode;
+import com.toolstore.demo.metrics.CheckoutMetrics;
+import com.toolstore.demo.model.Tool;
+import com.toolstore.demo.model.ToolType;
+import com.toolstore.demo.repository.AgreementJournal;
+import com.toolstore.demo.repository.AgreementStore;
+import com.toolstore.demo.repository.ToolRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchCheckoutServiceTest {
+
+    private BatchCheckoutService batchCheckoutService;
+
+    @BeforeEach
+    void setUp() {
+        CheckoutService checkoutService = new CheckoutService(new ToolRepository(),
+                PricingEngine.withDefaultRules(HolidayCalendars.defaults()),
+                new QuoteCache(1_000, Duration.ofMinutes(10)), AgreementJournal.disabled(), AgreementStore.disabled(),
+                new CheckoutMetrics());
+        batchCheckoutService = new BatchCheckoutService(checkoutService, 4, 1_000);
+    }
+
+    @Test
+    void checkoutAll_KeepsInputOrderAndIsolatesBadItems() {
+        List<CheckoutRequest> requests = new ArrayList<>();
+        requests.add(new CheckoutRequest("LADW", 3, 10, LocalDate.of(2020, 7, 2)));
+        requests.add(new CheckoutRequest("JAKR", 5, 101, LocalDate.of(2015, 9, 3)));
+        requests.add(new CheckoutRequest("INVALID", 3, 10, LocalDate.of(2020, 7, 2)));
+        requests.add(new CheckoutRequest(null, 3, 10, LocalDate.of(2020, 7, 2)));
+        requests.add(null);
+        requests.add(new CheckoutRequest("JAKD", 6, 0, LocalDate.of(2015, 9, 3)));
+
+        List<CheckoutResult> results = batchCheckoutService.checkoutAll(requests);
+
+        assertEquals(6, results.size());
+        assertEquals(new BigDecimal("3.58"), results.get(0).agreement().getFinalCharge());
+        assertEquals("Discount percent must be between 0 and 100", results.get(1).error().message());
+        assertEquals("Tool not found: INVALID", results.get(2).error().message());
+        assertEquals("Tool code is required", results.get(3).error().message());
+        assertEquals("Checkout request is required", results.get(4).error().message());
+        assertEquals(new BigDecimal("8.97"), results.get(5).agreement().getFinalCharge());
+    }
+
+    @Test
+    void checkoutAll_LargeBatch_ReturnsOneResultPerRequestInOrder() {
+        List<Tool> tools = new ArrayList<>();
+        List<CheckoutRequest> requests = new ArrayList<>();
+        for (int i = 1; i <= 1_000; i++) {
+            tools.add(new Tool("T" + i, ToolType.CHAINSAW, "Stihl"));
+            requests.add(new CheckoutRequest("T" + i, i, 0, LocalDate.of(2015, 7, 2)));
+        }
+        batchCheckoutService = new BatchCheckoutService(
+                new CheckoutService(new ToolRepository(tools),
+                        PricingEngine.withDefaultRules(HolidayCalendars.defaults()),
+                        new QuoteCache(1_000, Duration.ofMinutes(10)), AgreementJournal.disabled(),
+                        AgreementStore.disabled(), new CheckoutMetrics()), 16, 1_000);
+
+        List<CheckoutResult> results = batchCheckoutService.checkoutAll(requests);
+
+        assertEquals(requests.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals("T" + (i + 1), results.get(i).agreement().getToolCode());
+            assertEquals(i + 1, results.get(i).agreement().getRentalDays());
+        }
+    }
+
+    @Test
+    void checkoutAll_SameToolManyTimes_RentsItOnce() {
+        List<CheckoutRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            requests.add(new CheckoutRequest("CHNS", 5, 0, LocalDate.of(2015, 7, 2)));
+        }
+
+        List<CheckoutResult> results = batchCheckoutService.checkoutAll(requests);
+
+        assertEquals(1, results.stream().filter(result -> result.agreement() != null).count());
+        assertEquals(199, results.stream()
+                .filter(result -> result.error() != null)
+                .filter(result -> result.error().message().equals("Tool not available: CHNS"))
+                .count());
+    }
+
+    @Test
+    void checkoutAll_TooManyItems_RejectsWholeBatch() {
+        List<CheckoutRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 1_001; i++) {
+            requests.add(new CheckoutRequest("CHNS", 5, 0, LocalDate.of(2015, 7, 2)));
+        }
+
+        CheckoutException ex = assertThrows(CheckoutException.class, () -> batchCheckoutService.checkoutAll(requests));
+
+        assertEquals(ErrorCode.BATCH_TOO_LARGE, ex.getErrorCode());
+        // Nothing was checked out, so the tool is still free
+        assertEquals(1, batchCheckoutService.checkoutAll(requests.subList(0, 1)).stream()
+                .filter(result -> result.agreement() != null)
+                .count());
+    }
+}
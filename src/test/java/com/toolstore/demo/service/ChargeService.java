@@ -0,0 +1,119 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.model.ToolType;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+// Reference charge day counts that RateTable is checked against. Reads which days are charged from the same
+// pricing rules, but counts them without any of RateTable's tables: once by walking the range day by day, and once
+// arithmetically from whole weeks and the holiday list
+class ChargeService {
+
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int WEEKEND_DAYS_PER_WEEK = 2;
+
+    private final HolidayCalendar holidayCalendar;
+    private final Map<ToolType, PricingRules.ToolRules> toolRules;
+
+    // The default region of the bundled holiday calendars and the bundled pricing rules, the specification's
+    ChargeService() {
+        this(HolidayCalendars.defaults().defaultCalendar());
+    }
+
+    ChargeService(HolidayCalendar holidayCalendar) {
+        this(holidayCalendar, PricingRules.defaults());
+    }
+
+    ChargeService(HolidayCalendar holidayCalendar, PricingRules rules) {
+        this.holidayCalendar = holidayCalendar;
+        this.toolRules = rules.toolTypes();
+    }
+
+    long dailyChargeCents(ToolType toolType) {
+        return toolRules.get(toolType).dailyCharge().movePointRight(2).longValueExact();
+    }
+
+    int calculateChargeDaysByWalking(ToolType toolType, LocalDate startDate, LocalDate endDate) {
+        PricingRules.ToolRules rules = toolRules.get(toolType);
+        int chargeDays = 0;
+        LocalDate currentDate = startDate;
+
+        while (!currentDate.isAfter(endDate)) {
+            if (rules.isChargeableOn(isWeekend(currentDate.getDayOfWeek()), isHoliday(currentDate))) {
+                chargeDays++;
+            }
+            currentDate = currentDate.plusDays(1);
+        }
+
+        return chargeDays;
+    }
+
+    int calculateChargeDaysArithmetically(ToolType toolType, LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            return 0;
+        }
+
+        PricingRules.ToolRules rules = toolRules.get(toolType);
+        long totalDays = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        long weekendDays = countWeekendDays(startDate.getDayOfWeek(), totalDays);
+        long weekdayDays = totalDays - weekendDays;
+
+        long chargeDays = 0;
+        if (rules.chargeWeekdays()) {
+            chargeDays += weekdayDays;
+        }
+        if (rules.chargeWeekends()) {
+            chargeDays += weekendDays;
+        }
+
+        // Holidays were counted above as the weekday or weekend day they fall on
+        if (!rules.chargeHolidays()) {
+            chargeDays -= countHolidays(rules, startDate, endDate);
+        }
+
+        return Math.toIntExact(chargeDays);
+    }
+
+    private long countWeekendDays(DayOfWeek startDay, long totalDays) {
+        long weekendDays = (totalDays / DAYS_PER_WEEK) * WEEKEND_DAYS_PER_WEEK;
+
+        // Leftover days after the whole weeks, at most six of them
+        DayOfWeek day = startDay;
+        for (long i = 0; i < totalDays % DAYS_PER_WEEK; i++) {
+            if (isWeekend(day)) {
+                weekendDays++;
+            }
+            day = day.plus(1);
+        }
+
+        return weekendDays;
+    }
+
+    // Holidays in the range that were counted as a chargeable weekday or weekend day
+    private int countHolidays(PricingRules.ToolRules rules, LocalDate startDate, LocalDate endDate) {
+        int holidays = 0;
+
+        for (int year = startDate.getYear(); year <= endDate.getYear(); year++) {
+            for (LocalDate holiday : holidayCalendar.holidaysOf(year)) {
+                boolean counted = isWeekend(holiday.getDayOfWeek()) ? rules.chargeWeekends() : rules.chargeWeekdays();
+                if (counted && !holiday.isBefore(startDate) && !holiday.isAfter(endDate)) {
+                    holidays++;
+                }
+            }
+        }
+
+        return holidays;
+    }
+
+    private boolean isWeekend(DayOfWeek dayOfWeek) {
+        return dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+    }
+
+    // Straight from the holiday rules rather than the calendar's bitmap, so a wrongly built bitmap can't agree
+    private boolean isHoliday(LocalDate date) {
+        return holidayCalendar.holidaysOf(date.getYear()).contains(date);
+    }
+}
@@ -0,0 +1,61 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.model.ToolType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChargeServiceTest {
+
+    private ChargeService chargeService;
+
+    @BeforeEach
+    void setUp() {
+        chargeService = new ChargeService();
+    }
+
+    @Test
+    void calculateChargeDaysArithmetically_MatchesDayByDayWalk_OverRandomRanges() {
+        // The two reference counts share nothing but the rules and the holiday list.
+        // Fixed seed so a failure can be reproduced
+        Random random = new Random(20150703L);
+        LocalDate earliest = LocalDate.of(1990, 1, 1);
+
+        for (int i = 0; i < 5_000; i++) {
+            LocalDate startDate = earliest.plusDays(random.nextInt(365 * 80));
+            LocalDate endDate = startDate.plusDays(random.nextInt(i % 10 == 0 ? 3_000 : 40));
+
+            for (ToolType toolType : ToolType.values()) {
+                int expected = chargeService.calculateChargeDaysByWalking(toolType, startDate, endDate);
+
+                assertEquals(expected, chargeService.calculateChargeDaysArithmetically(toolType, startDate, endDate),
+                        () -> toolType + " from " + startDate + " to " + endDate + " (arithmetic)");
+            }
+        }
+    }
+
+    @Test
+    void calculateChargeDaysByWalking_HolidayOnRangeBoundaries() {
+        // July 4th 2020 is Saturday, observed Friday July 3rd; Labor Day 2020 is September 7th
+        LocalDate july3rd = LocalDate.of(2020, 7, 3);
+        LocalDate laborDay = LocalDate.of(2020, 9, 7);
+
+        assertEquals(0, chargeService.calculateChargeDaysByWalking(ToolType.JACKHAMMER, july3rd, july3rd));
+        assertEquals(1, chargeService.calculateChargeDaysByWalking(ToolType.CHAINSAW, july3rd, july3rd));
+        assertEquals(0, chargeService.calculateChargeDaysByWalking(ToolType.LADDER, laborDay, laborDay));
+        assertEquals(1, chargeService.calculateChargeDaysByWalking(ToolType.CHAINSAW, laborDay, laborDay));
+    }
+
+    @Test
+    void calculateChargeDays_EndBeforeStart_ReturnsZero() {
+        LocalDate startDate = LocalDate.of(2020, 7, 3);
+
+        assertEquals(0, chargeService.calculateChargeDaysByWalking(ToolType.LADDER, startDate, startDate.minusDays(1)));
+        assertEquals(0,
+                chargeService.calculateChargeDaysArithmetically(ToolType.LADDER, startDate, startDate.minusDays(1)));
+    }
+}
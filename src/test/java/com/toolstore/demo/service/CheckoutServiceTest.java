@@ -1,13 +1,24 @@
 package com.toolstore.demo.service;
 
+import com.toolstore.demo.dto.CheckoutRequest;
+import com.toolstore.demo.exception.CheckoutException;
+import com.toolstore.demo.metrics.CheckoutMetrics;
+import com.toolstore.demo.model.CartAgreement;
+import com.toolstore.demo.model.PriceQuote;
 import com.toolstore.demo.model.RentalAgreement;
+import com.toolstore.demo.repository.AgreementJournal;
+import com.toolstore.demo.repository.AgreementStore;
 import com.toolstore.demo.repository.ToolRepository;
 import com.toolstore.demo.view.RentalAgreementFormatter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -18,8 +29,10 @@ class CheckoutServiceTest {
     @BeforeEach
     void setUp() {
         ToolRepository toolRepository = new ToolRepository();
-        ChargeService chargeService = new ChargeService();
-        checkoutService = new CheckoutService(toolRepository, chargeService);
+        PricingEngine pricingEngine = PricingEngine.withDefaultRules(HolidayCalendars.defaults());
+        QuoteCache quoteCache = new QuoteCache(1_000, Duration.ofMinutes(10));
+        checkoutService = new CheckoutService(toolRepository, pricingEngine, quoteCache,
+                AgreementJournal.disabled(), AgreementStore.disabled(), new CheckoutMetrics());
     }
 
     @Test
@@ -187,6 +200,215 @@ class CheckoutServiceTest {
         System.out.println(RentalAgreementFormatter.format(agreement));
     }
 
+    @Test
+    void quote_MatchesAgreementCharges() {
+        // Same inputs as specification test 3
+        PriceQuote quote = checkoutService.quote("CHNS", 5, 25, LocalDate.of(2015, 7, 2));
+
+        assertEquals(3, quote.chargeDays());
+        assertEquals(149, quote.dailyChargeCents());
+        assertEquals(447, quote.preDiscountCents());
+        assertEquals(112, quote.discountCents());
+        assertEquals(335, quote.finalCents());
+    }
+
+    @Test
+    void checkout_ToolAlreadyRentedOut_ShouldThrowException() {
+        checkoutService.checkout("LADW", 3, 10, LocalDate.of(2020, 7, 2));
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> checkoutService.checkout("LADW", 3, 10, LocalDate.of(2020, 7, 2))
+        );
+
+        assertEquals("Tool not available: LADW", exception.getMessage());
+    }
+
+    @Test
+    void checkout_PricedWithRegionHolidays() {
+        // Same inputs as specification test 4, Fri 07/03/15 is only a holiday in the default US region
+        RentalAgreement agreement = checkoutService.checkout("JAKD", 6, 0, LocalDate.of(2015, 7, 2));
+        checkoutService.returnTool("JAKD", LocalDate.of(2015, 7, 2));
+        RentalAgreement canada = checkoutService.checkout("JAKD", 6, 0, LocalDate.of(2015, 7, 2), "CA");
+
+        assertEquals(3, agreement.getChargeDays());
+        assertEquals(4, canada.getChargeDays());
+    }
+
+    @Test
+    void checkout_UnknownRegion_DoesNotReserveTool() {
+        CheckoutException exception = assertThrows(CheckoutException.class,
+                () -> checkoutService.checkout("LADW", 3, 10, LocalDate.of(2020, 7, 2), "XX"));
+
+        assertEquals("Unknown region: XX", exception.getMessage());
+        assertTrue(checkoutService.isAvailable("LADW", LocalDate.of(2020, 7, 2), 3));
+    }
+
+    @Test
+    void checkoutAsync_SameAgreementAsCheckout() {
+        // Same inputs as specification test 2
+        RentalAgreement agreement = checkoutService.checkoutAsync("LADW", 3, 10, LocalDate.of(2020, 7, 2)).join();
+
+        assertEquals(2, agreement.getChargeDays());
+        assertEquals(new BigDecimal("3.58"), agreement.getFinalCharge());
+        assertFalse(checkoutService.isAvailable("LADW", LocalDate.of(2020, 7, 2), 3));
+    }
+
+    @Test
+    void checkoutAsync_Rejected_CompletesExceptionally() {
+        checkoutService.checkout("LADW", 3, 10, LocalDate.of(2020, 7, 2));
+
+        CompletableFuture<RentalAgreement> future = checkoutService.checkoutAsync("LADW", 3, 10, LocalDate.of(2020, 7, 2));
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+
+        assertEquals("Tool not available: LADW", exception.getCause().getMessage());
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    void checkoutCart_LinesMatchSingleCheckoutsAndAddUp() {
+        // Specification tests 2, 3 and 4 in one cart
+        CartAgreement cart = checkoutService.checkoutCart(List.of(
+                new CheckoutRequest("LADW", 3, 10, LocalDate.of(2020, 7, 2)),
+                new CheckoutRequest("CHNS", 5, 25, LocalDate.of(2015, 7, 2)),
+                new CheckoutRequest("JAKD", 6, 0, LocalDate.of(2015, 9, 3))), null);
+
+        assertEquals(List.of("LADW", "CHNS", "JAKD"),
+                cart.lines().stream().map(RentalAgreement::getToolCode).toList());
+        assertEquals(new BigDecimal("3.58"), cart.lines().get(0).getFinalCharge());
+        assertEquals(new BigDecimal("3.35"), cart.lines().get(1).getFinalCharge());
+        assertEquals(new BigDecimal("8.97"), cart.lines().get(2).getFinalCharge());
+        assertEquals(new BigDecimal("17.42"), cart.preDiscountCharge());
+        assertEquals(new BigDecimal("1.52"), cart.discountAmount());
+        assertEquals(new BigDecimal("15.90"), cart.finalCharge());
+        assertFalse(checkoutService.isAvailable("CHNS", LocalDate.of(2015, 7, 2), 5));
+    }
+
+    @Test
+    void checkoutCart_PricedWithRegionHolidays() {
+        CartAgreement cart = checkoutService.checkoutCart(List.of(
+                new CheckoutRequest("JAKD", 6, 0, LocalDate.of(2015, 7, 2)),
+                new CheckoutRequest("JAKR", 6, 0, LocalDate.of(2015, 7, 2))), "CA");
+
+        assertEquals(4, cart.lines().get(0).getChargeDays());
+        assertEquals(4, cart.lines().get(1).getChargeDays());
+    }
+
+    @Test
+    void checkoutCart_UnavailableLine_ReservesNothing() {
+        checkoutService.checkout("JAKR", 5, 0, LocalDate.of(2020, 7, 2));
+
+        CheckoutException exception = assertThrows(CheckoutException.class,
+                () -> checkoutService.checkoutCart(List.of(
+                        new CheckoutRequest("LADW", 3, 10, LocalDate.of(2020, 7, 2)),
+                        new CheckoutRequest("CHNS", 3, 10, LocalDate.of(2020, 7, 2)),
+                        new CheckoutRequest("JAKR", 3, 10, LocalDate.of(2020, 7, 4))), null));
+
+        assertEquals("Tool not available: JAKR", exception.getMessage());
+        assertTrue(checkoutService.isAvailable("LADW", LocalDate.of(2020, 7, 2), 3));
+        assertTrue(checkoutService.isAvailable("CHNS", LocalDate.of(2020, 7, 2), 3));
+    }
+
+    @Test
+    void checkoutCart_SameToolTwiceForOverlappingDates_ReservesNothing() {
+        assertThrows(CheckoutException.class, () -> checkoutService.checkoutCart(List.of(
+                new CheckoutRequest("LADW", 3, 0, LocalDate.of(2020, 7, 2)),
+                new CheckoutRequest("LADW", 3, 0, LocalDate.of(2020, 7, 4))), null));
+
+        assertTrue(checkoutService.isAvailable("LADW", LocalDate.of(2020, 7, 2), 5));
+    }
+
+    @Test
+    void checkoutCart_InvalidLineOrEmptyCart_ShouldThrowException() {
+        CheckoutException invalid = assertThrows(CheckoutException.class,
+                () -> checkoutService.checkoutCart(List.of(
+                        new CheckoutRequest("LADW", 3, 10, LocalDate.of(2020, 7, 2)),
+                        new CheckoutRequest("CHNS", 0, 10, LocalDate.of(2020, 7, 2))), null));
+        CheckoutException empty = assertThrows(CheckoutException.class,
+                () -> checkoutService.checkoutCart(List.of(), null));
+
+        assertEquals("Rental day count must be 1 or greater", invalid.getMessage());
+        assertEquals("Cart has no lines", empty.getMessage());
+        assertTrue(checkoutService.isAvailable("LADW", LocalDate.of(2020, 7, 2), 3));
+    }
+
+    @Test
+    void checkout_KeepsSuccessfulAgreementsInStore() {
+        try (AgreementStore store = AgreementStore.open(16, 100)) {
+            CheckoutService storingService = new CheckoutService(new ToolRepository(),
+                    PricingEngine.withDefaultRules(HolidayCalendars.defaults()),
+                    new QuoteCache(0, Duration.ofMinutes(1)), AgreementJournal.disabled(), store, new CheckoutMetrics());
+            LocalDate checkoutDate = LocalDate.of(2020, 7, 2);
+
+            storingService.checkout("LADW", 3, 10, checkoutDate);
+            assertThrows(CheckoutException.class, () -> storingService.checkout("LADW", 3, 10, checkoutDate));
+            storingService.checkoutCart(List.of(
+                    new CheckoutRequest("CHNS", 5, 25, LocalDate.of(2015, 7, 2)),
+                    new CheckoutRequest("JAKD", 6, 0, LocalDate.of(2015, 9, 3))), null);
+
+            assertEquals(3, store.size());
+            assertEquals(358, store.get(0).finalCents());
+            assertEquals("JAKD", store.get(2).toolCode());
+        }
+    }
+
+    @Test
+    void returnTool_MakesToolAvailableAgain() {
+        checkoutService.checkout("LADW", 3, 10, LocalDate.of(2020, 7, 2));
+        checkoutService.returnTool("LADW", LocalDate.of(2020, 7, 2));
+
+        assertDoesNotThrow(() -> checkoutService.checkout("LADW", 3, 10, LocalDate.of(2020, 7, 2)));
+    }
+
+    @Test
+    void returnTool_NotCheckedOut_ShouldThrowException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> checkoutService.returnTool("JAKD", LocalDate.of(2015, 9, 3))
+        );
+
+        assertEquals("Tool is not checked out: JAKD", exception.getMessage());
+    }
+
+    @Test
+    void checkout_OverlappingBooking_ShouldThrowException() {
+        // Booked 07/02/20 up to the 07/11/20 due date
+        checkoutService.checkout("LADW", 9, 0, LocalDate.of(2020, 7, 2));
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> checkoutService.checkout("LADW", 3, 0, LocalDate.of(2020, 7, 10))
+        );
+
+        assertEquals("Tool not available: LADW", exception.getMessage());
+    }
+
+    @Test
+    void checkout_BookingStartingOnDueDate_Succeeds() {
+        checkoutService.checkout("LADW", 9, 0, LocalDate.of(2020, 7, 2));
+
+        assertDoesNotThrow(() -> checkoutService.checkout("LADW", 3, 0, LocalDate.of(2020, 7, 11)));
+        assertDoesNotThrow(() -> checkoutService.checkout("LADW", 2, 0, LocalDate.of(2020, 6, 30)));
+    }
+
+    @Test
+    void availability_ReportsNextFreeStart() {
+        checkoutService.checkout("LADW", 9, 0, LocalDate.of(2020, 7, 2));
+        checkoutService.checkout("LADW", 5, 0, LocalDate.of(2020, 7, 13));
+
+        assertFalse(checkoutService.isAvailable("LADW", LocalDate.of(2020, 7, 2), 9));
+        assertTrue(checkoutService.isAvailable("LADW", LocalDate.of(2020, 7, 11), 2));
+        // The two-day gap on 07/11 is too short for a 3 day rental
+        assertEquals(LocalDate.of(2020, 7, 18), checkoutService.nextAvailableDate("LADW", LocalDate.of(2020, 7, 5), 3));
+    }
+
+    @Test
+    void preview_DoesNotReserveTool() {
+        checkoutService.preview("JAKD", 6, 0, LocalDate.of(2015, 9, 3));
+
+        assertDoesNotThrow(() -> checkoutService.checkout("JAKD", 6, 0, LocalDate.of(2015, 9, 3)));
+    }
+
     @Test
     void testRentalDayCountLessThanOne_ShouldThrowException() {
         IllegalArgumentException exception = assertThrows(
@@ -0,0 +1,82 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.dto.CheckoutRequest;
+import com.toolstore.demo.exception.CheckoutException;
+import com.toolstore.demo.exception.ErrorCode;
+import com.toolstore.demo.exception.ErrorResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckoutValidatorTest {
+
+    private static final LocalDate CHECKOUT_DATE = LocalDate.of(2020, 7, 2);
+
+    @Test
+    void validate_ValidRequest_ReturnsNull() {
+        assertNull(CheckoutValidator.validate(new CheckoutRequest("LADW", 1, 0, CHECKOUT_DATE)));
+        assertNull(CheckoutValidator.validate(new CheckoutRequest("LADW", 400, 100, CHECKOUT_DATE)));
+    }
+
+    @Test
+    void validate_SingleError_ReturnsSharedResponse() {
+        ErrorResponse first = CheckoutValidator.validate(new CheckoutRequest("LADW", 3, 101, CHECKOUT_DATE));
+        ErrorResponse second = CheckoutValidator.validate(new CheckoutRequest("JAKR", 5, -1, CHECKOUT_DATE));
+
+        assertEquals("Discount percent must be between 0 and 100", first.message());
+        assertSame(first, second);
+        assertSame(ErrorCode.DISCOUNT_PERCENT_OUT_OF_RANGE.response(), first);
+    }
+
+    @Test
+    void validate_SeveralErrors_JoinedInMessageOrder() {
+        assertEquals("Discount percent must be between 0 and 100, Rental day count must be 1 or greater",
+                CheckoutValidator.validate(new CheckoutRequest("LADW", 0, 101, CHECKOUT_DATE)).message());
+        assertEquals("Checkout date is required, Discount percent is required, Rental day count is required, "
+                        + "Tool code is required",
+                CheckoutValidator.validate(new CheckoutRequest(null, null, null, null)).message());
+    }
+
+    @Test
+    void validate_NullRequest() {
+        assertEquals("Checkout request is required", CheckoutValidator.validate(null).message());
+    }
+
+    @Test
+    void requireValid_ThrowsStacklessCheckoutException() {
+        CheckoutException exception = assertThrows(CheckoutException.class,
+                () -> CheckoutValidator.requireValid(0, 50));
+
+        assertEquals(ErrorCode.RENTAL_DAY_COUNT_TOO_LOW, exception.getErrorCode());
+        assertEquals("Rental day count must be 1 or greater", exception.getMessage());
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
+    @Test
+    void requireValid_RentalLongerThanTenYears_Throws() {
+        CheckoutValidator.requireValid(3650);
+
+        CheckoutException exception = assertThrows(CheckoutException.class,
+                () -> CheckoutValidator.requireValid(10_000_000));
+        assertEquals(ErrorCode.RENTAL_DAY_COUNT_TOO_HIGH, exception.getErrorCode());
+        assertEquals("Rental day count must be at most 3650", exception.getMessage());
+    }
+
+    @Test
+    void requireValid_RequestWithSeveralErrors_CarriesCombinedResponse() {
+        CheckoutException exception = assertThrows(CheckoutException.class,
+                () -> CheckoutValidator.requireValid(new CheckoutRequest(null, 3, 200, CHECKOUT_DATE)));
+
+        assertEquals(ErrorCode.DISCOUNT_PERCENT_OUT_OF_RANGE, exception.getErrorCode());
+        assertEquals("Discount percent must be between 0 and 100, Tool code is required", exception.getMessage());
+    }
+
+    @Test
+    void errorCode_ToolResponsesCachedPerToolCode() {
+        assertSame(ErrorCode.TOOL_NOT_AVAILABLE.response("LADW"), ErrorCode.TOOL_NOT_AVAILABLE.response("LADW"));
+        assertEquals("Tool not available: LADW", ErrorCode.TOOL_NOT_AVAILABLE.response("LADW").message());
+        assertEquals("Tool not found: null", ErrorCode.TOOL_NOT_FOUND.response(null).message());
+    }
+}
@@ -0,0 +1,58 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.metrics.CheckoutMetrics;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckoutWarmupTest {
+
+    private final CheckoutMetrics checkoutMetrics = new CheckoutMetrics();
+
+    @Test
+    void run_RecordsIterationsAndDuration() {
+        warmup(true, 500, Duration.ofMinutes(1)).run(null);
+
+        assertEquals(500, checkoutMetrics.warmup().iterations());
+        assertTrue(checkoutMetrics.warmup().durationNanos() > 0);
+    }
+
+    @Test
+    void run_LeavesNoCheckoutLatencies() {
+        warmup(true, 500, Duration.ofMinutes(1)).run(null);
+
+        assertTrue(checkoutMetrics.snapshot().isEmpty());
+        assertEquals(-1, checkoutMetrics.warmup().firstCheckoutNanos());
+    }
+
+    @Test
+    void run_Disabled_NothingRecorded() {
+        warmup(false, 500, Duration.ofMinutes(1)).run(null);
+
+        assertEquals(-1, checkoutMetrics.warmup().iterations());
+    }
+
+    @Test
+    void warmUp_StopsAtMaxDuration() {
+        assertEquals(0, warmup(true, 500, Duration.ZERO).warmUp());
+    }
+
+    @Test
+    void warmUp_ReturnsEveryCheckout_SameDatesBookAgain() {
+        // Tools and dates repeat many times over, a checkout that wasn't returned would fail the next one
+        assertEquals(2_000, warmup(true, 2_000, Duration.ofMinutes(1)).warmUp());
+    }
+
+    @Test
+    void constructor_NegativeIterations_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> warmup(true, -1, Duration.ofMinutes(1)));
+    }
+
+    private CheckoutWarmup warmup(boolean enabled, int iterations, Duration maxDuration) {
+        return new CheckoutWarmup(PricingEngine.withDefaultRules(HolidayCalendars.defaults()), checkoutMetrics,
+                JsonMapper.builder().build(), enabled, iterations, maxDuration);
+    }
+}
@@ -0,0 +1,102 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.exception.CheckoutException;
+import com.toolstore.demo.exception.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HolidayCalendarTest {
+
+    private final HolidayCalendars defaults = HolidayCalendars.defaults();
+
+    @Test
+    void us_ObservesIndependenceDayOnNearestWeekday() {
+        HolidayCalendar us = defaults.calendar("US");
+
+        // Sat 07/04/2020 on Friday, Sun 07/04/2021 on Monday
+        assertTrue(us.isHoliday(LocalDate.of(2020, 7, 3)));
+        assertFalse(us.isHoliday(LocalDate.of(2020, 7, 4)));
+        assertTrue(us.isHoliday(LocalDate.of(2021, 7, 5)));
+        assertEquals(List.of(LocalDate.of(2020, 7, 3), LocalDate.of(2020, 9, 7)), us.holidaysOf(2020));
+    }
+
+    @Test
+    void ca_ObservesWeekendHolidaysOnNextMonday() {
+        HolidayCalendar ca = defaults.calendar("CA");
+
+        // Sat 07/01/2023 and Sun 07/01/2018 both move to the Monday
+        assertTrue(ca.isHoliday(LocalDate.of(2023, 7, 3)));
+        assertTrue(ca.isHoliday(LocalDate.of(2018, 7, 2)));
+        assertTrue(ca.isHoliday(LocalDate.of(2023, 8, 7)));
+        assertFalse(ca.isHoliday(LocalDate.of(2023, 7, 4)));
+    }
+
+    @Test
+    void observance_MovesHolidayIntoPreviousYear() {
+        HolidayCalendar calendar = calendar(new HolidayRules.Region(
+                List.of(new HolidayRules.FixedDate("New Year", "01-01", HolidayRules.Observance.NEAREST_WEEKDAY)),
+                List.of(), List.of()));
+
+        // Sat 01/01/2022 is observed on Fri 12/31/2021
+        assertTrue(calendar.isHoliday(LocalDate.of(2021, 12, 31)));
+        assertTrue(calendar.isHoliday(LocalDate.of(2021, 1, 1)));
+        assertFalse(calendar.isHoliday(LocalDate.of(2022, 1, 1)));
+        assertEquals(List.of(LocalDate.of(2021, 1, 1), LocalDate.of(2021, 12, 31)), calendar.holidaysOf(2021));
+    }
+
+    @Test
+    void weekdayOfMonth_LastWeek() {
+        HolidayCalendar calendar = calendar(new HolidayRules.Region(List.of(),
+                List.of(new HolidayRules.WeekdayOfMonth("Memorial Day", 5, DayOfWeek.MONDAY, -1)), List.of()));
+
+        assertTrue(calendar.isHoliday(LocalDate.of(2024, 5, 27)));
+        assertFalse(calendar.isHoliday(LocalDate.of(2024, 5, 20)));
+    }
+
+    @Test
+    void oneOffDate_OnlyInItsYear() {
+        HolidayCalendar calendar = calendar(new HolidayRules.Region(List.of(), List.of(),
+                List.of(new HolidayRules.OneOffDate("Day of Mourning", "2025-01-09"))));
+
+        assertTrue(calendar.isHoliday(LocalDate.of(2025, 1, 9)));
+        assertFalse(calendar.isHoliday(LocalDate.of(2425, 1, 9)));
+        assertFalse(calendar.isRecurringHoliday(LocalDate.of(2025, 1, 9)));
+        assertEquals(List.of(LocalDate.of(2025, 1, 9)), calendar.holidaysOf(2025));
+    }
+
+    @Test
+    void calendar_NullIsDefaultRegion() {
+        assertSame(defaults.calendar("US"), defaults.calendar(null));
+        assertEquals("US", defaults.defaultCalendar().region());
+    }
+
+    @Test
+    void calendar_RejectsUnknownRegion() {
+        CheckoutException ex = assertThrows(CheckoutException.class, () -> defaults.calendar("XX"));
+
+        assertEquals(ErrorCode.UNKNOWN_REGION, ex.getErrorCode());
+        assertEquals("Unknown region: XX", ex.getErrorResponse().message());
+    }
+
+    @Test
+    void rules_RejectInvalidCalendars() {
+        HolidayRules.Region empty = new HolidayRules.Region(null, null, null);
+
+        assertThrows(IllegalArgumentException.class, () -> new HolidayRules("XX", Map.of("US", empty)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HolidayRules.WeekdayOfMonth("Fifth Monday", 5, DayOfWeek.MONDAY, 5));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HolidayRules.FixedDate("Independence Day", "7/4", null));
+        assertThrows(IllegalArgumentException.class, () -> new HolidayRules.OneOffDate("Typo", "2025-02-30"));
+    }
+
+    private static HolidayCalendar calendar(HolidayRules.Region region) {
+        return new HolidayCalendars(new HolidayRules("XX", Map.of("XX", region))).calendar("XX");
+    }
+}
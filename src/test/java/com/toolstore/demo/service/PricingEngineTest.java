@@ -0,0 +1,190 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.exception.CheckoutException;
+import com.toolstore.demo.model.PriceQuote;
+import com.toolstore.demo.model.ToolType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PricingEngineTest {
+
+    private final HolidayCalendars holidayCalendars = HolidayCalendars.defaults();
+    private final ChargeService chargeService = new ChargeService(holidayCalendars.defaultCalendar());
+
+    @Test
+    void defaultRules_MatchChargeService() {
+        PricingEngine pricingEngine = PricingEngine.withDefaultRules(holidayCalendars);
+        Random random = new Random(20);
+
+        // Both sides of the cycle base year, and rentals spanning several years
+        for (int i = 0; i < 2_000; i++) {
+            LocalDate firstDay = LocalDate.of(1900, 1, 1).plusDays(random.nextInt(200 * 365));
+            LocalDate lastDay = firstDay.plusDays(random.nextInt(i % 10 == 0 ? 3_000 : 60));
+
+            for (ToolType toolType : ToolType.values()) {
+                int chargeDays = chargeService.calculateChargeDaysByWalking(toolType, firstDay, lastDay);
+                long dailyChargeCents = chargeService.dailyChargeCents(toolType);
+                PriceQuote expected = PriceQuote.of(dailyChargeCents, chargeDays, dailyChargeCents * chargeDays, 10);
+
+                assertEquals(expected, pricingEngine.quote(toolType, firstDay, lastDay, 10),
+                        toolType + " " + firstDay + " - " + lastDay);
+            }
+        }
+    }
+
+    @Test
+    void quote_UsesRegionHolidays() {
+        PricingEngine pricingEngine = PricingEngine.withDefaultRules(holidayCalendars);
+        LocalDate canadaDay = LocalDate.of(2020, 7, 1);
+
+        assertEquals(1, pricingEngine.quote(ToolType.JACKHAMMER, "US", canadaDay, canadaDay, 0).chargeDays());
+        assertEquals(0, pricingEngine.quote(ToolType.JACKHAMMER, "CA", canadaDay, canadaDay, 0).chargeDays());
+        assertThrows(CheckoutException.class,
+                () -> pricingEngine.quote(ToolType.JACKHAMMER, "XX", canadaDay, canadaDay, 0));
+    }
+
+    @Test
+    void oneOffHolidays_MatchDayByDayWalk() {
+        // One-off dates on a weekday, on a Saturday, and on a day that is already a holiday
+        HolidayRules.Region region = new HolidayRules.Region(
+                List.of(new HolidayRules.FixedDate("New Year", "01-01", HolidayRules.Observance.NEAREST_WEEKDAY)),
+                List.of(new HolidayRules.WeekdayOfMonth("Memorial Day", 5, DayOfWeek.MONDAY, -1)),
+                List.of(new HolidayRules.OneOffDate("Day of Mourning", "2025-01-09"),
+                        new HolidayRules.OneOffDate("Saturday", "2024-06-15"),
+                        new HolidayRules.OneOffDate("Again", "2024-05-27")));
+        HolidayCalendars calendars = new HolidayCalendars(new HolidayRules("XX", Map.of("XX", region)));
+        PricingEngine pricingEngine = PricingEngine.withDefaultRules(calendars);
+        ChargeService regionChargeService = new ChargeService(calendars.defaultCalendar());
+        Random random = new Random(21);
+
+        for (int i = 0; i < 2_000; i++) {
+            LocalDate firstDay = LocalDate.of(2023, 1, 1).plusDays(random.nextInt(4 * 365));
+            LocalDate lastDay = firstDay.plusDays(random.nextInt(i % 10 == 0 ? 1_000 : 60));
+
+            for (ToolType toolType : ToolType.values()) {
+                int chargeDays = regionChargeService.calculateChargeDaysByWalking(toolType, firstDay, lastDay);
+
+                assertEquals(chargeDays, pricingEngine.quote(toolType, firstDay, lastDay, 0).chargeDays(),
+                        toolType + " " + firstDay + " - " + lastDay);
+                assertEquals(chargeDays,
+                        regionChargeService.calculateChargeDaysArithmetically(toolType, firstDay, lastDay));
+            }
+        }
+    }
+
+    @Test
+    void quote_EmptyRangeChargesNothing() {
+        PricingEngine pricingEngine = PricingEngine.withDefaultRules(holidayCalendars);
+
+        PriceQuote quote = pricingEngine.quote(ToolType.LADDER, LocalDate.of(2020, 7, 2), LocalDate.of(2020, 7, 1), 0);
+
+        assertEquals(0, quote.chargeDays());
+        assertEquals(0, quote.finalCents());
+    }
+
+    @Test
+    void quote_UsesSeasonalRate() {
+        PricingEngine pricingEngine = new PricingEngine(holidayCalendars, rules(
+                List.of(new PricingRules.Season("summer", "06-01", "08-31")),
+                ladder(Map.of("summer", new BigDecimal("3.00")), Map.of(), BigDecimal.ZERO)));
+
+        // Sat 05/30/2020 through Wed 06/03/2020: two days at the base rate, three at the summer rate
+        PriceQuote quote = pricingEngine.quote(ToolType.LADDER, LocalDate.of(2020, 5, 30), LocalDate.of(2020, 6, 3), 0);
+
+        assertEquals(5, quote.chargeDays());
+        assertEquals(2 * 199 + 3 * 300, quote.preDiscountCents());
+    }
+
+    @Test
+    void quote_SeasonWrapsAroundNewYear() {
+        PricingEngine pricingEngine = new PricingEngine(holidayCalendars, rules(
+                List.of(new PricingRules.Season("winter", "12-01", "02-28")),
+                ladder(Map.of("winter", new BigDecimal("1.00")), Map.of(), BigDecimal.ZERO)));
+
+        // 12/30/2020 through 01/02/2021 are all in season, 03/01/2021 is not
+        assertEquals(400, pricingEngine.quote(ToolType.LADDER,
+                LocalDate.of(2020, 12, 30), LocalDate.of(2021, 1, 2), 0).preDiscountCents());
+        assertEquals(199, pricingEngine.quote(ToolType.LADDER,
+                LocalDate.of(2021, 3, 1), LocalDate.of(2021, 3, 1), 0).preDiscountCents());
+    }
+
+    @Test
+    void quote_AppliesDayOfWeekMultiplier() {
+        PricingEngine pricingEngine = new PricingEngine(holidayCalendars, rules(List.of(),
+                ladder(Map.of(), Map.of(DayOfWeek.SATURDAY, new BigDecimal("1.5")), BigDecimal.ZERO)));
+
+        // Fri 07/10/2020 and Sat 07/11/2020, 1.99 * 1.5 rounds to 2.99
+        PriceQuote quote = pricingEngine.quote(ToolType.LADDER,
+                LocalDate.of(2020, 7, 10), LocalDate.of(2020, 7, 11), 0);
+
+        assertEquals(2, quote.chargeDays());
+        assertEquals(199 + 299, quote.preDiscountCents());
+    }
+
+    @Test
+    void quote_NeverBelowMinimumCharge() {
+        PricingEngine pricingEngine = new PricingEngine(holidayCalendars, rules(List.of(),
+                ladder(Map.of(), Map.of(), new BigDecimal("5.00"))));
+
+        LocalDate friday = LocalDate.of(2020, 7, 10);
+        PriceQuote oneDay = pricingEngine.quote(ToolType.LADDER, friday, friday, 0);
+        PriceQuote fiveDays = pricingEngine.quote(ToolType.LADDER, friday.minusDays(4), friday, 0);
+
+        assertEquals(500, oneDay.preDiscountCents());
+        assertEquals(5 * 199, fiveDays.preDiscountCents());
+    }
+
+    @Test
+    void update_SwapsInNewRules() {
+        PricingEngine pricingEngine = PricingEngine.withDefaultRules(holidayCalendars);
+        LocalDate day = LocalDate.of(2020, 7, 10);
+
+        pricingEngine.update(rules(List.of(), ladder(Map.of(), Map.of(), new BigDecimal("5.00"))));
+
+        assertEquals("test", pricingEngine.rulesVersion());
+        assertEquals(500, pricingEngine.quote(ToolType.LADDER, day, day, 0).preDiscountCents());
+    }
+
+    @Test
+    void rules_RejectMissingToolType() {
+        Map<ToolType, PricingRules.ToolRules> toolTypes = Map.of(ToolType.LADDER,
+                ladder(Map.of(), Map.of(), BigDecimal.ZERO));
+
+        assertThrows(IllegalArgumentException.class, () -> new PricingRules("test", List.of(), toolTypes));
+    }
+
+    @Test
+    void rules_RejectRateForUndefinedSeason() {
+        PricingRules.ToolRules ladder = ladder(Map.of("summer", BigDecimal.ONE), Map.of(), BigDecimal.ZERO);
+
+        assertThrows(IllegalArgumentException.class, () -> rules(List.of(), ladder));
+    }
+
+    @Test
+    void rules_RejectBadSeasonDates() {
+        assertThrows(IllegalArgumentException.class, () -> new PricingRules.Season("summer", "6/1", "08-31"));
+    }
+
+    // The default rules with the ladder replaced
+    private static PricingRules rules(List<PricingRules.Season> seasons, PricingRules.ToolRules ladder) {
+        Map<ToolType, PricingRules.ToolRules> toolTypes = new EnumMap<>(PricingRules.defaults().toolTypes());
+        toolTypes.put(ToolType.LADDER, ladder);
+        return new PricingRules("test", seasons, toolTypes);
+    }
+
+    private static PricingRules.ToolRules ladder(Map<String, BigDecimal> seasonalDailyCharges,
+                                                 Map<DayOfWeek, BigDecimal> dayOfWeekMultipliers,
+                                                 BigDecimal minimumCharge) {
+        return new PricingRules.ToolRules(new BigDecimal("1.99"), true, true, false,
+                seasonalDailyCharges, dayOfWeekMultipliers, minimumCharge);
+    }
+}
@@ -0,0 +1,100 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.model.ToolType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PricingRulesReloaderTest {
+
+    private static final LocalDate DAY = LocalDate.of(2020, 7, 10);
+
+    @TempDir
+    Path dir;
+
+    private final QuoteCache quoteCache = new QuoteCache(1_000, Duration.ofMinutes(10));
+    private final PricingEngine pricingEngine = PricingEngine.withDefaultRules(HolidayCalendars.defaults());
+
+    @Test
+    void loadInitial_FallsBackToDefaultsWithoutFile() throws IOException {
+        assertEquals(PricingRules.defaults(), PricingRulesReloader.loadInitial(dir.resolve("missing.json")));
+        assertEquals(PricingRules.defaults(), PricingRulesReloader.loadInitial(null));
+    }
+
+    @Test
+    void reload_SwapsRulesAndInvalidatesQuotes() throws IOException {
+        Path file = writeRules("v2", "2.49");
+        quoteCache.get(ToolType.LADDER, "US", DAY, 1, 0, () -> pricingEngine.quote(ToolType.LADDER, DAY, DAY, 0));
+
+        try (PricingRulesReloader reloader = PricingRulesReloader.watch(file, pricingEngine, quoteCache,
+                Duration.ofMinutes(1))) {
+            assertTrue(reloader.reload());
+        }
+
+        assertEquals("v2", pricingEngine.rulesVersion());
+        assertEquals(249, pricingEngine.quote(ToolType.LADDER, DAY, DAY, 0).preDiscountCents());
+        assertEquals(0, quoteCache.stats().hitCount());
+        quoteCache.get(ToolType.LADDER, "US", DAY, 1, 0, () -> pricingEngine.quote(ToolType.LADDER, DAY, DAY, 0));
+        assertEquals(2, quoteCache.stats().missCount());
+    }
+
+    @Test
+    void reload_KeepsCurrentRulesWhenFileIsInvalid() throws IOException {
+        Path file = writeRules("v2", "-1.00");
+
+        try (PricingRulesReloader reloader = PricingRulesReloader.watch(file, pricingEngine, quoteCache,
+                Duration.ofMinutes(1))) {
+            assertFalse(reloader.reload());
+
+            Files.writeString(file, "{\"version\": \"v3\", \"toolTypez\": {}}");
+            assertFalse(reloader.reload());
+        }
+
+        assertEquals(PricingRules.defaults().version(), pricingEngine.rulesVersion());
+        assertEquals(199, pricingEngine.quote(ToolType.LADDER, DAY, DAY, 0).preDiscountCents());
+    }
+
+    @Test
+    void watch_PicksUpChangedFile() throws Exception {
+        Path file = writeRules("v2", "2.49");
+
+        try (PricingRulesReloader ignored = PricingRulesReloader.watch(file, pricingEngine, quoteCache,
+                Duration.ofMillis(10))) {
+            // Same size as before, so make sure the modification time moves even on coarse file system clocks
+            FileTime modified = Files.getLastModifiedTime(file);
+            writeRules("v3", "2.99");
+            Files.setLastModifiedTime(file, FileTime.from(modified.toInstant().plusSeconds(1)));
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (!pricingEngine.rulesVersion().equals("v3") && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+
+        assertEquals("v3", pricingEngine.rulesVersion());
+    }
+
+    // The default rules with the ladder's daily charge replaced
+    private Path writeRules(String version, String ladderDailyCharge) throws IOException {
+        Path file = dir.resolve("pricing-rules.json");
+        Files.writeString(file, """
+                {
+                  "version": "%s",
+                  "toolTypes": {
+                    "LADDER": {"dailyCharge": %s, "chargeWeekdays": true, "chargeWeekends": true, "chargeHolidays": false},
+                    "CHAINSAW": {"dailyCharge": 1.49, "chargeWeekdays": true, "chargeWeekends": false, "chargeHolidays": true},
+                    "JACKHAMMER": {"dailyCharge": 2.99, "chargeWeekdays": true, "chargeWeekends": false, "chargeHolidays": false}
+                  }
+                }
+                """.formatted(version, ladderDailyCharge));
+        return file;
+    }
+}
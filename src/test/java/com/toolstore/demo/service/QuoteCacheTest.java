@@ -0,0 +1,57 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.metrics.CheckoutMetrics;
+import com.toolstore.demo.model.PriceQuote;
+import com.toolstore.demo.repository.AgreementJournal;
+import com.toolstore.demo.repository.AgreementStore;
+import com.toolstore.demo.repository.ToolRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuoteCacheTest {
+
+    private QuoteCache quoteCache;
+    private CheckoutService checkoutService;
+
+    @BeforeEach
+    void setUp() {
+        quoteCache = new QuoteCache(1_000, Duration.ofMinutes(10));
+        checkoutService = new CheckoutService(new ToolRepository(),
+                PricingEngine.withDefaultRules(HolidayCalendars.defaults()), quoteCache,
+                AgreementJournal.disabled(), AgreementStore.disabled(), new CheckoutMetrics());
+    }
+
+    @Test
+    void quote_SameToolTypeSharesEntry() {
+        // JAKD and JAKR are both jackhammers
+        PriceQuote first = checkoutService.quote("JAKD", 9, 0, LocalDate.of(2015, 7, 2));
+        PriceQuote second = checkoutService.quote("JAKR", 9, 0, LocalDate.of(2015, 7, 2));
+
+        assertSame(first, second);
+        assertEquals(1, quoteCache.stats().missCount());
+        assertEquals(1, quoteCache.stats().hitCount());
+    }
+
+    @Test
+    void quote_DifferentDiscountIsSeparateEntry() {
+        checkoutService.quote("LADW", 3, 10, LocalDate.of(2020, 7, 2));
+        checkoutService.quote("LADW", 3, 20, LocalDate.of(2020, 7, 2));
+
+        assertEquals(2, quoteCache.stats().missCount());
+        assertEquals(0, quoteCache.stats().hitCount());
+    }
+
+    @Test
+    void invalidateAll_ForcesRecompute() {
+        checkoutService.quote("CHNS", 5, 25, LocalDate.of(2015, 7, 2));
+        quoteCache.invalidateAll();
+        checkoutService.quote("CHNS", 5, 25, LocalDate.of(2015, 7, 2));
+
+        assertEquals(2, quoteCache.stats().missCount());
+    }
+}
@@ -0,0 +1,123 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.metrics.CheckoutMetrics;
+import com.toolstore.demo.repository.AgreementJournal;
+import com.toolstore.demo.repository.AgreementStore;
+import com.toolstore.demo.repository.ToolRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingCheckoutServiceTest {
+
+    private StreamingCheckoutService streamingCheckoutService;
+
+    @BeforeEach
+    void setUp() {
+        CheckoutService checkoutService = new CheckoutService(new ToolRepository(),
+                PricingEngine.withDefaultRules(HolidayCalendars.defaults()),
+                new QuoteCache(1_000, Duration.ofMinutes(10)), AgreementJournal.disabled(), AgreementStore.disabled(),
+                new CheckoutMetrics());
+        BatchCheckoutService batchCheckoutService = new BatchCheckoutService(checkoutService, 4, 1_000);
+        streamingCheckoutService =
+                new StreamingCheckoutService(batchCheckoutService, JsonMapper.builder().build(), 256);
+    }
+
+    @Test
+    void checkoutAll_WritesOneLinePerInputInOrder() throws IOException {
+        String input = """
+                {"toolCode":"LADW","rentalDayCount":3,"discountPercent":10,"checkoutDate":"07/02/20"}
+
+                {"toolCode":"JAKR","rentalDayCount":5,"discountPercent":101,"checkoutDate":"09/03/15"}
+                not json
+                {"toolCode":"JAKD","rentalDayCount":6,"discountPercent":0,"checkoutDate":"09/03/15"}
+                """;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long written = streamingCheckoutService.checkoutAll(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(4, written);
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].contains("\"toolCode\":\"LADW\""));
+        assertTrue(lines[0].contains("\"finalCharge\":3.58"));
+        assertTrue(lines[0].contains("\"checkoutDate\":\"07/02/20\""));
+        assertEquals("{\"message\":\"Discount percent must be between 0 and 100\"}", lines[1]);
+        assertEquals("{\"message\":\"Malformed checkout request\"}", lines[2]);
+        assertTrue(lines[3].contains("\"finalCharge\":8.97"));
+    }
+
+    @Test
+    void checkoutAll_PricesEachLineInItsRegion() throws IOException {
+        String input = """
+                {"toolCode":"JAKD","rentalDayCount":6,"discountPercent":0,"checkoutDate":"07/02/15","region":"CA"}
+                {"toolCode":"JAKD","rentalDayCount":6,"discountPercent":0,"checkoutDate":"07/02/15","region":"XX"}
+                """;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        streamingCheckoutService.checkoutAll(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertTrue(lines[0].contains("\"chargeDays\":4"));
+        assertEquals("{\"message\":\"Unknown region: XX\"}", lines[1]);
+    }
+
+    @Test
+    void checkoutAll_LineOverLimit_RejectedAndNextLineStillPriced() throws IOException {
+        String input = "{\"toolCode\":\"LADW\",\"padding\":\"" + "x".repeat(10_000) + "\"}\r\n"
+                + "{\"toolCode\":\"JAKD\",\"rentalDayCount\":6,\"discountPercent\":0,"
+                + "\"checkoutDate\":\"09/03/15\"}\r\n";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long written = streamingCheckoutService.checkoutAll(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, written);
+        assertEquals("{\"message\":\"Malformed checkout request\"}", lines[0]);
+        assertTrue(lines[1].contains("\"finalCharge\":8.97"));
+    }
+
+    @Test
+    void checkoutAll_AgreementWrittenAsCheckoutEndpointWritesIt() throws IOException {
+        String input = "{\"toolCode\":\"LADW\",\"rentalDayCount\":3,\"discountPercent\":10,"
+                + "\"checkoutDate\":\"07/02/20\"}";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        streamingCheckoutService.checkoutAll(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        assertEquals("{\"chargeDays\":2,\"checkoutDate\":\"07/02/20\",\"dailyRentalCharge\":1.99,"
+                + "\"discountAmount\":0.40,\"discountPercent\":10,\"dueDate\":\"07/05/20\",\"finalCharge\":3.58,"
+                + "\"preDiscountCharge\":3.98,\"rentalDays\":3,\"toolBrand\":\"Werner\",\"toolCode\":\"LADW\","
+                + "\"toolType\":\"LADDER\"}\n", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void checkoutAll_DoesNotCloseOutput() throws IOException {
+        InputStream input = new ByteArrayInputStream(
+                "{\"toolCode\":\"CHNS\",\"rentalDayCount\":5,\"discountPercent\":25,\"checkoutDate\":\"07/02/15\"}\n"
+                        .getBytes(StandardCharsets.UTF_8));
+        boolean[] closed = {false};
+        OutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        streamingCheckoutService.checkoutAll(input, output);
+
+        assertFalse(closed[0]);
+    }
+}
@@ -0,0 +1,140 @@
+package com.toolstore.demo.service;
+
+import com.toolstore.demo.exception.CheckoutException;
+import com.toolstore.demo.metrics.CheckoutMetrics;
+import com.toolstore.demo.model.Tool;
+import com.toolstore.demo.model.ToolType;
+import com.toolstore.demo.repository.AgreementJournal;
+import com.toolstore.demo.repository.AgreementStore;
+import com.toolstore.demo.repository.ToolRepository;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Drives checkouts and returns from thousands of virtual threads under a JFR recording and fails on any
+// jdk.VirtualThreadPinned event, which is raised when a virtual thread blocks without releasing its carrier.
+// Few tools and overlapping dates keep the calendar locks and the journal contended. Since JDK 24 (JEP 491) a
+// synchronized block no longer pins, blocking in a class initializer or under a native frame still does, and
+// the positive control below shows the recording catches that.
+class VirtualThreadPinningTest {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int TOOL_COUNT = 8;
+    private static final int CHECKOUTS = 4_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void checkout_GroupCommitJournal_NeverPins() throws Exception {
+        assertNoPinning(true, false);
+    }
+
+    @Test
+    void checkout_DirectWriteJournal_NeverPins() throws Exception {
+        assertNoPinning(false, false);
+    }
+
+    @Test
+    void checkoutAsync_GroupCommitJournal_NeverPins() throws Exception {
+        assertNoPinning(true, true);
+    }
+
+    @Test
+    void sleepInClassInitializer_Pins() throws Exception {
+        List<RecordedEvent> pinned = pinnedEvents(
+                () -> Thread.ofVirtual().start(SleepsWhileInitializing::load).join());
+
+        assertEquals(1, pinned.size());
+    }
+
+    private void assertNoPinning(boolean groupCommit, boolean async) throws Exception {
+        List<RecordedEvent> pinned = pinnedEvents(() -> runCheckouts(groupCommit, async));
+        assertTrue(pinned.isEmpty(), () -> pinned.size() + " pinned virtual threads, first at "
+                + pinned.getFirst().getStackTrace());
+    }
+
+    private List<RecordedEvent> pinnedEvents(Workload workload) throws Exception {
+        Path recordingFile = directory.resolve("pinning.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            workload.run();
+
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        return RecordingFile.readAllEvents(recordingFile).stream()
+                .filter(event -> event.getEventType().getName().equals(PINNED_EVENT))
+                .toList();
+    }
+
+    private void runCheckouts(boolean groupCommit, boolean async) throws Exception {
+        List<Tool> tools = new ArrayList<>();
+        for (int i = 0; i < TOOL_COUNT; i++) {
+            tools.add(new Tool("T" + i, ToolType.LADDER, "Werner"));
+        }
+
+        try (AgreementJournal journal = AgreementJournal.open(directory.resolve("agreements.journal"), groupCommit, 64);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CheckoutService checkoutService = new CheckoutService(new ToolRepository(tools),
+                    PricingEngine.withDefaultRules(HolidayCalendars.defaults()),
+                    new QuoteCache(1_000, Duration.ofMinutes(10)), journal, AgreementStore.disabled(),
+                    new CheckoutMetrics());
+
+            for (int i = 0; i < CHECKOUTS; i++) {
+                String toolCode = "T" + i % TOOL_COUNT;
+                LocalDate checkoutDate = LocalDate.of(2020, 7, 1).plusDays(i % 30);
+
+                executor.submit(() -> {
+                    try {
+                        if (async) {
+                            checkoutService.checkoutAsync(toolCode, 3, 10, checkoutDate).join();
+                        } else {
+                            checkoutService.checkout(toolCode, 3, 10, checkoutDate);
+                        }
+                        checkoutService.returnTool(toolCode, checkoutDate);
+                    } catch (CheckoutException | CompletionException ex) {
+                        // Overlapping bookings are expected, only the blocking behaviour is under test
+                    }
+                });
+            }
+        }
+    }
+
+    private interface Workload {
+
+        void run() throws Exception;
+    }
+
+    // Class initialization runs under a native frame, so the virtual thread can't unmount while it sleeps
+    private static final class SleepsWhileInitializing {
+
+        static {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        static void load() {
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.toolstore.demo.view;
+
+import com.toolstore.demo.model.RentalAgreement;
+import com.toolstore.demo.view.RentalAgreementFormatter.Format;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RentalAgreementFormatterTest {
+
+    @Test
+    void format_Text_MatchesNumberFormatAndDateTimeFormatter_OverRandomAgreements() {
+        // Fixed seed so a failure can be reproduced
+        Random random = new Random(20150903L);
+
+        for (int i = 0; i < 2_000; i++) {
+            RentalAgreement agreement = randomAgreement(random);
+
+            assertEquals(referenceFormat(agreement), RentalAgreementFormatter.format(agreement));
+            assertEquals(referenceCsv(agreement), RentalAgreementFormatter.format(agreement, Format.CSV));
+        }
+    }
+
+    @Test
+    void format_Text_SpecificationLayout() {
+        assertEquals("""
+                Tool code: LADW
+                Tool type: LADDER
+                Tool brand: Werner
+                Rental days: 3
+                Check out date: 07/02/20
+                Due date: 07/05/20
+                Daily rental charge: $1.99
+                Charge days: 2
+                Pre-discount charge: $3.98
+                Discount percent: 10%
+                Discount amount: $0.40
+                Final charge: $3.58""", RentalAgreementFormatter.format(agreement("Werner")));
+    }
+
+    @Test
+    void format_Csv_PlainValuesQuotedWhenNeeded() {
+        assertEquals("Tool code,Tool type,Tool brand,Rental days,Check out date,Due date,Daily rental charge,"
+                + "Charge days,Pre-discount charge,Discount percent,Discount amount,Final charge",
+                RentalAgreementFormatter.csvHeader());
+        assertEquals("LADW,LADDER,Werner,3,07/02/20,07/05/20,1.99,2,3.98,10,0.40,3.58",
+                RentalAgreementFormatter.format(agreement("Werner"), Format.CSV));
+        assertEquals("LADW,LADDER,\"Werner, \"\"Pro\"\"\",3,07/02/20,07/05/20,1.99,2,3.98,10,0.40,3.58",
+                RentalAgreementFormatter.format(agreement("Werner, \"Pro\""), Format.CSV));
+    }
+
+    @Test
+    void format_Receipt_EveryLineIsTheSameWidth() {
+        String receipt = RentalAgreementFormatter.format(agreement("Werner"), Format.RECEIPT);
+        List<String> lines = receipt.lines().toList();
+
+        assertEquals(14, lines.size());
+        assertEquals("-".repeat(40), lines.getFirst());
+        assertEquals("Tool brand:                       Werner", lines.get(3));
+        assertEquals("Final charge:                      $3.58", lines.get(12));
+        lines.forEach(line -> assertEquals(40, line.length(), line));
+    }
+
+    @Test
+    void render_IntoAnyAppendable() throws IOException {
+        StringWriter writer = new StringWriter();
+
+        RentalAgreementFormatter.render(agreement("Werner"), Format.CSV, writer);
+        writer.append('\n');
+        RentalAgreementFormatter.render(agreement("Ridgid"), Format.CSV, writer);
+
+        assertEquals(2, writer.toString().lines().count());
+        assertTrue(writer.toString().endsWith("LADW,LADDER,Ridgid,3,07/02/20,07/05/20,1.99,2,3.98,10,0.40,3.58"));
+    }
+
+    @Test
+    void format_ConcurrentCalls_NeverMixOutput() throws Exception {
+        Random random = new Random(20200702L);
+        List<RentalAgreement> agreements = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            agreements.add(randomAgreement(random));
+        }
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int round = 0; round < 8; round++) {
+                results.add(executor.submit(() -> agreements.stream()
+                        .allMatch(a -> referenceFormat(a).equals(RentalAgreementFormatter.format(a)))));
+            }
+
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        }
+    }
+
+    // Previous implementation, a fresh NumberFormat per call so it is safe to run concurrently here
+    private static String referenceFormat(RentalAgreement a) {
+        DateTimeFormatter dates = DateTimeFormatter.ofPattern("MM/dd/yy");
+        NumberFormat currency = NumberFormat.getCurrencyInstance(Locale.US);
+
+        return String.join("\n",
+                "Tool code: " + a.getToolCode(),
+                "Tool type: " + a.getToolType(),
+                "Tool brand: " + a.getToolBrand(),
+                "Rental days: " + a.getRentalDays(),
+                "Check out date: " + a.getCheckoutDate().format(dates),
+                "Due date: " + a.getDueDate().format(dates),
+                "Daily rental charge: " + currency.format(a.getDailyRentalCharge()),
+                "Charge days: " + a.getChargeDays(),
+                "Pre-discount charge: " + currency.format(a.getPreDiscountCharge()),
+                "Discount percent: " + a.getDiscountPercent() + "%",
+                "Discount amount: " + currency.format(a.getDiscountAmount()),
+                "Final charge: " + currency.format(a.getFinalCharge())
+        );
+    }
+
+    private static String referenceCsv(RentalAgreement a) {
+        DateTimeFormatter dates = DateTimeFormatter.ofPattern("MM/dd/yy");
+
+        return String.join(",", a.getToolCode(), a.getToolType(), a.getToolBrand(),
+                String.valueOf(a.getRentalDays()), a.getCheckoutDate().format(dates), a.getDueDate().format(dates),
+                a.getDailyRentalCharge().toPlainString(), String.valueOf(a.getChargeDays()),
+                a.getPreDiscountCharge().toPlainString(), String.valueOf(a.getDiscountPercent()),
+                a.getDiscountAmount().toPlainString(), a.getFinalCharge().toPlainString());
+    }
+
+    private static RentalAgreement randomAgreement(Random random) {
+        LocalDate checkoutDate = LocalDate.of(1950 + random.nextInt(150), 1, 1).plusDays(random.nextInt(366));
+        int rentalDays = 1 + random.nextInt(400);
+
+        return RentalAgreement.builder()
+                .toolCode("T" + random.nextInt(1000))
+                .toolType("LADDER")
+                .toolBrand("Brand " + random.nextInt(10))
+                .rentalDays(rentalDays)
+                .checkoutDate(checkoutDate)
+                .dueDate(checkoutDate.plusDays(rentalDays))
+                .dailyRentalCharge(BigDecimal.valueOf(random.nextInt(1000), 2))
+                .chargeDays(random.nextInt(rentalDays + 1))
+                // Scales other than cents and negative amounts go through the same rounding as NumberFormat
+                .preDiscountCharge(BigDecimal.valueOf(random.nextLong(1_000_000_000_000L), random.nextInt(4)))
+                .discountPercent(random.nextInt(101))
+                .discountAmount(BigDecimal.valueOf(random.nextLong(-100_000, 100_000), 3))
+                .finalCharge(BigDecimal.valueOf(random.nextLong(-10_000_000, 10_000_000), 2))
+                .build();
+    }
+
+    private static RentalAgreement agreement(String brand) {
+        return RentalAgreement.builder()
+                .toolCode("LADW")
+                .toolType("LADDER")
+                .toolBrand(brand)
+                .rentalDays(3)
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .dueDate(LocalDate.of(2020, 7, 5))
+                .dailyRentalCharge(new BigDecimal("1.99"))
+                .chargeDays(2)
+                .preDiscountCharge(new BigDecimal("3.98"))
+                .discountPercent(10)
+                .discountAmount(new BigDecimal("0.40"))
+                .finalCharge(new BigDecimal("3.58"))
+                .build();
+    }
+}